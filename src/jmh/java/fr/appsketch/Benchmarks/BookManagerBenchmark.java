@@ -0,0 +1,138 @@
+package fr.appsketch.Benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+import fr.appsketch.Book.Book;
+import fr.appsketch.Book.RapportImport;
+import fr.appsketch.Core.GenerateurJeuDeDonnees;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche, listes, import et export de BookManager
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class BookManagerBenchmark {
+
+    // Nombre de livres du fichier importé à chaque appel
+    static final int TAILLE_FICHIER_IMPORT = 10_000;
+
+    private final Random aleatoire = new Random(JeuDeDonneesBenchmark.GRAINE);
+
+    @Benchmark
+    public List<Book> rechercherParTitre(EtatBibliotheque etat) {
+        String mot = JeuDeDonneesBenchmark.mot(aleatoire.nextInt(Integer.MAX_VALUE));
+        return etat.bookManager.rechercherParTitre(mot);
+    }
+
+    @Benchmark
+    public List<Book> listerLivresDisponibles(EtatBibliotheque etat) {
+        return etat.bookManager.listerLivresDisponibles();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void exporterVersJson(EtatBibliotheque etat, Fichier fichier) throws IOException {
+        etat.bookManager.exporterVersJson(fichier.chemin.toString());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public RapportImport importerDepuisJson(EtatBibliotheque etat, FichierImport fichier) throws IOException {
+        return etat.bookManager.importerDepuisJson(fichier.chemin.toString());
+    }
+
+    /**
+     * Fichier temporaire de l'export
+     */
+    @State(Scope.Thread)
+    public static class Fichier {
+
+        Path chemin;
+
+        @Setup(Level.Trial)
+        public void creer() throws IOException {
+            chemin = Files.createTempFile(JeuDeDonneesBenchmark.REPERTOIRE, "export-", ".json");
+        }
+
+        @TearDown(Level.Trial)
+        public void supprimer() throws IOException {
+            Files.deleteIfExists(chemin);
+        }
+    }
+
+    /**
+     * Fichier de TAILLE_FICHIER_IMPORT nouveaux livres, réécrit avant chaque import
+     * (ISBN inédits : chaque appel insère réellement ses livres)
+     */
+    @State(Scope.Thread)
+    public static class FichierImport {
+
+        Path chemin;
+        private int appel;
+
+        @Setup(Level.Trial)
+        public void creer() throws IOException {
+            chemin = Files.createTempFile(JeuDeDonneesBenchmark.REPERTOIRE, "import-", ".json");
+        }
+
+        @Setup(Level.Invocation)
+        public void ecrire() throws IOException {
+            appel++;
+            GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(
+                    JeuDeDonneesBenchmark.GRAINE + appel, TAILLE_FICHIER_IMPORT, 0, 0);
+            try (Writer sortie = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8);
+                 JsonWriter json = new JsonWriter(sortie)) {
+                json.beginArray();
+                int[] numero = {0};
+                generateur.parcourirLivres(livre -> {
+                    try {
+                        json.beginObject();
+                        json.name("titre").value(livre.getTitre());
+                        json.name("auteur").value(livre.getAuteur());
+                        json.name("datePublication").value(livre.getDatePublication().toString());
+                        json.name("isbn").value("import-" + appel + "-" + numero[0]++);
+                        json.name("categorie").value(livre.getCategorie());
+                        json.endObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.endArray();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void supprimer() throws IOException {
+            Files.deleteIfExists(chemin);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package fr.appsketch.Benchmarks;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fr.appsketch.Book.FormatLivres;
+import fr.appsketch.Core.Compression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export et relecture du catalogue selon le format et la compression, au niveau par défaut de chaque algorithme
+ * La référence est le tableau JSON non compressé (JSON, AUCUNE). La relecture mesure la décompression
+ * et l'analyse JSON seules, sans écriture en base. La taille du fichier est affichée à la fin de chaque essai.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+    @Param({"AUCUNE", "GZIP", "ZSTD"})
+    public Compression compression;
+
+    @Param({"JSON", "NDJSON"})
+    public FormatLivres format;
+
+    private Path fichier;
+
+    @Setup(Level.Trial)
+    public void creer(EtatBibliotheque etat) throws IOException {
+        fichier = Files.createTempFile(JeuDeDonneesBenchmark.REPERTOIRE, "export-", ".json");
+        exporter(etat);
+    }
+
+    @TearDown(Level.Trial)
+    public void supprimer() throws IOException {
+        System.out.printf("%nTaille du fichier (%s, %s) : %,d octets%n", format, compression, Files.size(fichier));
+        Files.deleteIfExists(fichier);
+    }
+
+    @Benchmark
+    public void exporterVersJson(EtatBibliotheque etat) throws IOException {
+        exporter(etat);
+    }
+
+    @Benchmark
+    public long relire() throws IOException {
+        long valeurs = 0;
+        try (InputStream entree = compression.decompresser(new BufferedInputStream(Files.newInputStream(fichier)));
+             JsonReader json = new JsonReader(new InputStreamReader(entree, StandardCharsets.UTF_8))) {
+            // Lenient : un fichier NDJSON est une suite de valeurs JSON
+            json.setLenient(true);
+            while (true) {
+                JsonToken jeton = json.peek();
+                if (jeton == JsonToken.END_DOCUMENT) {
+                    return valeurs;
+                }
+                if (jeton == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+                } else if (jeton == JsonToken.END_ARRAY) {
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                    valeurs++;
+                }
+            }
+        }
+    }
+
+    private void exporter(EtatBibliotheque etat) throws IOException {
+        etat.bookManager.exporterVersJson(fichier.toString(), format, compression, compression.getNiveauParDefaut());
+    }
+}
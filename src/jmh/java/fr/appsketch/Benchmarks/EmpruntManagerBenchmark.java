@@ -0,0 +1,49 @@
+package fr.appsketch.Benchmarks;
+
+import fr.appsketch.Book.Book;
+import fr.appsketch.User.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cycle emprunt + retour d'EmpruntManager, tel que le déroulent les écrans d'emprunt et de retour
+ * Les deux opérations sont mesurées ensemble pour que chaque appel laisse le livre dans son état initial
+ * (un livre déjà emprunté dans l'historique généré est rendu puis réemprunté).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class EmpruntManagerBenchmark {
+
+    private final Random aleatoire = new Random(JeuDeDonneesBenchmark.GRAINE);
+
+    @Benchmark
+    public void emprunterEtRendre(EtatBibliotheque etat) {
+        // IDs attribués de 1 à N par la génération
+        long bookId = 1 + aleatoire.nextInt(etat.nombreLivres);
+        long userId = 1 + aleatoire.nextInt(etat.nombreUtilisateurs());
+
+        Book book = etat.bookManager.trouverParIdAvecEmprunts(bookId).orElseThrow();
+        User user = etat.userManager.trouverParId(userId).orElseThrow();
+        if (book.isEmprunte()) {
+            etat.empruntManager.rendreLivre(book);
+            etat.empruntManager.emprunterLivre(user, book);
+        } else {
+            etat.empruntManager.emprunterLivre(user, book);
+            etat.empruntManager.rendreLivre(book);
+        }
+    }
+}
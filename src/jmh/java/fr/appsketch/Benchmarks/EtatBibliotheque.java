@@ -0,0 +1,74 @@
+package fr.appsketch.Benchmarks;
+
+import fr.appsketch.Book.BookFullTextRepository;
+import fr.appsketch.Book.BookManager;
+import fr.appsketch.Book.BookRepository;
+import fr.appsketch.Book.BookSearchIndex;
+import fr.appsketch.Core.CacheRecherche;
+import fr.appsketch.Core.ConfigurationBase;
+import fr.appsketch.Core.HibernateManager;
+import fr.appsketch.Core.UniteDeTravail;
+import fr.appsketch.Core.VerrousSegmentes;
+import fr.appsketch.Emprunt.EmpruntManager;
+import fr.appsketch.Emprunt.EmpruntRepository;
+import fr.appsketch.User.UserManager;
+import fr.appsketch.User.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Application branchée comme dans MyLibrary, sur une copie de la base de référence
+ * Chaque essai travaille sur sa propre copie : les écritures mesurées ne faussent pas les essais suivants.
+ */
+@State(Scope.Benchmark)
+public class EtatBibliotheque {
+
+    @Param({"10000", "100000", "1000000"})
+    public int nombreLivres;
+
+    BookManager bookManager;
+    UserManager userManager;
+    EmpruntManager empruntManager;
+
+    private Path base;
+
+    @Setup(Level.Trial)
+    public void demarrer() throws IOException {
+        Path reference = JeuDeDonneesBenchmark.reference(nombreLivres);
+        base = Files.createTempFile(JeuDeDonneesBenchmark.REPERTOIRE, "essai-", ".db");
+        Files.copy(reference, base, StandardCopyOption.REPLACE_EXISTING);
+        System.setProperty(ConfigurationBase.URL, "jdbc:sqlite:" + base);
+
+        // Un EntityManager par opération, comme dans MyLibrary : aucune entité ne reste en mémoire entre deux appels
+        UniteDeTravail uniteDeTravail = UniteDeTravail.parOperation(HibernateManager.getSessionFactory());
+        EntityManager em = uniteDeTravail.entityManager();
+        ConfigurationBase config = ConfigurationBase.charger();
+        bookManager = new BookManager(new BookRepository(em), new BookFullTextRepository(em), new BookSearchIndex(),
+                CacheRecherche.depuisConfiguration("isbn", config), uniteDeTravail, config::getNiveauCompression);
+        userManager = new UserManager(new UserRepository(em), CacheRecherche.depuisConfiguration("email", config),
+                uniteDeTravail);
+        empruntManager = new EmpruntManager(new EmpruntRepository(em), uniteDeTravail,
+                VerrousSegmentes.depuisConfiguration(config));
+        bookManager.construireIndexRecherche();
+    }
+
+    @TearDown(Level.Trial)
+    public void arreter() throws IOException {
+        HibernateManager.shutdown();
+        JeuDeDonneesBenchmark.supprimer(base);
+    }
+
+    int nombreUtilisateurs() {
+        return JeuDeDonneesBenchmark.nombreUtilisateurs(nombreLivres);
+    }
+}
@@ -0,0 +1,78 @@
+package fr.appsketch.Benchmarks;
+
+import fr.appsketch.Core.ConfigurationBase;
+import fr.appsketch.Core.GenerateurJeuDeDonnees;
+import fr.appsketch.Core.HibernateManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bases SQLite de référence des benchmarks : N livres, N/10 utilisateurs et N emprunts sur cinq ans,
+ * produits par GenerateurJeuDeDonnees avec une graine fixe
+ * Chaque base est créée une seule fois dans target/jmh-donnees, puis copiée pour chaque essai.
+ */
+final class JeuDeDonneesBenchmark {
+
+    static final Path REPERTOIRE = Path.of(System.getProperty("benchmarks.donnees", "target/jmh-donnees"));
+    static final long GRAINE = 42;
+
+    // Un utilisateur pour RATIO_UTILISATEURS livres
+    static final int RATIO_UTILISATEURS = 10;
+
+    private JeuDeDonneesBenchmark() {
+    }
+
+    /**
+     * Base de référence pour ce nombre de livres, générée au premier appel
+     */
+    static synchronized Path reference(int nombreLivres) throws IOException {
+        Path fichier = REPERTOIRE.resolve("bibliotheque-" + nombreLivres + ".db");
+        if (Files.exists(fichier)) {
+            return fichier;
+        }
+        Files.createDirectories(REPERTOIRE);
+        // Génération dans un fichier temporaire : une génération interrompue ne laisse pas de base incomplète
+        Path temporaire = REPERTOIRE.resolve("generation-" + nombreLivres + ".db");
+        supprimer(temporaire);
+        generer(temporaire, nombreLivres);
+        Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE);
+        return fichier;
+    }
+
+    static int nombreUtilisateurs(int nombreLivres) {
+        return Math.max(1, nombreLivres / RATIO_UTILISATEURS);
+    }
+
+    static String mot(int index) {
+        return GenerateurJeuDeDonnees.MOTS.get(index % GenerateurJeuDeDonnees.MOTS.size());
+    }
+
+    static String nom(int index) {
+        return GenerateurJeuDeDonnees.NOMS.get(index % GenerateurJeuDeDonnees.NOMS.size());
+    }
+
+    // Supprime la base et ses fichiers WAL
+    static void supprimer(Path fichier) throws IOException {
+        Files.deleteIfExists(fichier);
+        Files.deleteIfExists(Path.of(fichier + "-wal"));
+        Files.deleteIfExists(Path.of(fichier + "-shm"));
+    }
+
+    private static void generer(Path fichier, int nombreLivres) {
+        System.setProperty(ConfigurationBase.URL, "jdbc:sqlite:" + fichier);
+        System.setProperty(ConfigurationBase.PROFIL_SQLITE, "chargement-massif");
+        System.setProperty(ConfigurationBase.CACHE_ACTIF, "false");
+        try {
+            new GenerateurJeuDeDonnees(GRAINE, nombreLivres, nombreUtilisateurs(nombreLivres), nombreLivres)
+                    .chargerSQLite();
+        } finally {
+            // La fermeture du pool rapatrie le WAL dans le fichier de base
+            HibernateManager.shutdown();
+            System.clearProperty(ConfigurationBase.PROFIL_SQLITE);
+            System.clearProperty(ConfigurationBase.CACHE_ACTIF);
+        }
+    }
+}
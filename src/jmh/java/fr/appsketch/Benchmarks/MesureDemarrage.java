@@ -0,0 +1,24 @@
+package fr.appsketch.Benchmarks;
+
+import fr.appsketch.Core.HibernateManager;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mesure du temps de démarrage, à lancer dans une JVM neuve pour chaque mesure.
+ * Compilée avec les benchmarks ; le classpath des dépendances est écrit une fois dans target/cp.txt :
+ * mvn -Pbenchmarks compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) [-Dbibliotheque.hibernate.schema=none] fr.appsketch.Benchmarks.MesureDemarrage
+ */
+public class MesureDemarrage {
+
+    public static void main(String[] args) {
+        HibernateManager.getSessionFactory();
+        long depuisLancementJvm = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        System.out.println(HibernateManager.getRapportDemarrage());
+        System.out.printf("Lancement JVM → prêt : %d ms%n", depuisLancementJvm);
+
+        HibernateManager.shutdown();
+    }
+}
@@ -0,0 +1,49 @@
+package fr.appsketch.Benchmarks;
+
+import fr.appsketch.Core.GenerateurJeuDeDonnees;
+import fr.appsketch.User.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherches d'UserManager : par email (connexion à la borne) et par nom
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class UserManagerBenchmark {
+
+    private final Random aleatoire = new Random(JeuDeDonneesBenchmark.GRAINE);
+
+    @Benchmark
+    public Optional<User> rechercherParEmail(EtatBibliotheque etat) {
+        String email = GenerateurJeuDeDonnees.email(1 + aleatoire.nextInt(etat.nombreUtilisateurs()));
+        return etat.userManager.rechercherParEmail(email);
+    }
+
+    @Benchmark
+    public boolean emailInconnu(EtatBibliotheque etat) {
+        return etat.userManager.emailExiste("inconnu" + aleatoire.nextInt(1_000) + "@bibliotheque.test");
+    }
+
+    @Benchmark
+    public List<User> rechercherParNom(EtatBibliotheque etat) {
+        String nom = JeuDeDonneesBenchmark.nom(aleatoire.nextInt(Integer.MAX_VALUE));
+        return etat.userManager.rechercherParNom(nom);
+    }
+}
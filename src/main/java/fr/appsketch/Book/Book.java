@@ -1,18 +1,37 @@
 package fr.appsketch.Book;
 
+import fr.appsketch.Core.CacheSecondNiveau;
+import fr.appsketch.Core.IdentifiantSequentiel;
 import fr.appsketch.Emprunt.Emprunt;
 import fr.appsketch.Emprunt.EtatEmprunt;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
-@Table(name = "Books")
+@Table(name = "Books", indexes = {
+        @Index(name = "idx_books_disponible", columnList = "disponible")
+})
+@NamedEntityGraph(name = Book.GRAPHE_EMPRUNTS, attributeNodes = @NamedAttributeNode("emprunts"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheSecondNiveau.REGION_LIVRES)
+// UPDATE limité aux colonnes modifiées : un emprunt n'écrase pas une modification concurrente du livre
+@DynamicUpdate
 public class Book {
 
+    // Plan de chargement des écrans qui ont besoin des emprunts du livre
+    public static final String GRAPHE_EMPRUNTS = "Book.emprunts";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentifiantSequentiel
+    @Column(columnDefinition = "integer")
     private Long id;
 
     @Column(nullable = false)
@@ -30,7 +49,23 @@ public class Book {
     @Column
     private String categorie;
 
-    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Copies en minuscules de titre/auteur/categorie, indexées pour la recherche
+    @Column(name = "titre_recherche")
+    private String titreRecherche;
+
+    @Column(name = "auteur_recherche")
+    private String auteurRecherche;
+
+    @Column(name = "categorie_recherche")
+    private String categorieRecherche;
+
+    // Vrai si aucun emprunt n'est en cours ; maintenu par EmpruntManager dans la transaction d'emprunt/retour.
+    // NULL pour les lignes antérieures à cette colonne, jusqu'à EmpruntManager.initialiserDisponibilites() au démarrage
+    @Column(name = "disponible")
+    private Boolean disponible = Boolean.TRUE;
+
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheSecondNiveau.REGION_EMPRUNTS_DU_LIVRE)
     private List<Emprunt> emprunts = new ArrayList<>();
 
     // Constructeurs
@@ -102,26 +137,72 @@ public class Book {
         this.emprunts = emprunts;
     }
 
+    public Boolean getDisponible() {
+        return disponible;
+    }
+
+    public void setDisponible(Boolean disponible) {
+        this.disponible = disponible;
+    }
+
+    public String getTitreRecherche() {
+        return titreRecherche;
+    }
+
+    public String getAuteurRecherche() {
+        return auteurRecherche;
+    }
+
+    public String getCategorieRecherche() {
+        return categorieRecherche;
+    }
+
+    // Recalcule les colonnes de recherche avant chaque insertion/mise à jour
+    @PrePersist
+    @PreUpdate
+    public void normaliserChampsRecherche() {
+        this.titreRecherche = normaliser(titre);
+        this.auteurRecherche = normaliser(auteur);
+        this.categorieRecherche = normaliser(categorie);
+    }
+
+    // Forme normalisée utilisée à la fois pour le stockage et pour les critères de recherche
+    public static String normaliser(String valeur) {
+        return valeur == null ? null : valeur.toLowerCase(Locale.ROOT);
+    }
+
     // Méthode utilitaire pour vérifier si le livre est actuellement emprunté
     public boolean isEmprunte() {
-        if (emprunts == null || emprunts.isEmpty()) {
-            return false;
+        if (disponible != null) {
+            return !disponible;
         }
-        return emprunts.stream()
-                .anyMatch(emprunt -> emprunt.getEtat() != null &&
-                        emprunt.getEtat().equals(EtatEmprunt.EN_COURS));
+        // Drapeau pas encore calculé : on se rabat sur la liste des emprunts
+        return aUnEmpruntEnCours();
     }
 
     // Méthode utilitaire pour ajouter un emprunt
     public void addEmprunt(Emprunt emprunt) {
         emprunts.add(emprunt);
         emprunt.setBook(this);
+        if (EtatEmprunt.EN_COURS.equals(emprunt.getEtat())) {
+            disponible = false;
+        }
     }
 
     // Méthode utilitaire pour retirer un emprunt
     public void removeEmprunt(Emprunt emprunt) {
         emprunts.remove(emprunt);
         emprunt.setBook(null);
+        disponible = !aUnEmpruntEnCours();
+    }
+
+    private boolean aUnEmpruntEnCours() {
+        if (emprunts == null || emprunts.isEmpty()) {
+            return false;
+        }
+        return emprunts.stream()
+                .anyMatch(emprunt -> emprunt.getEtat() != null &&
+                        emprunt.getEtat().equals(EtatEmprunt.EN_COURS));
     }
 
     @Override
@@ -133,7 +214,7 @@ public class Book {
                 ", datePublication=" + datePublication +
                 ", isbn='" + isbn + '\'' +
                 ", categorie='" + categorie + '\'' +
-                ", emprunts=" + emprunts.size() +
+                ", emprunts=" + (Hibernate.isInitialized(emprunts) ? emprunts.size() : "non chargés") +
                 '}';
     }
 }
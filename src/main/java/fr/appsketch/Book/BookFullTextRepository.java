@@ -0,0 +1,112 @@
+package fr.appsketch.Book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository pour l'index plein texte des livres (table virtuelle SQLite FTS5)
+ * Responsabilités: création de l'index, synchronisation par triggers, requêtes MATCH classées par BM25
+ *
+ * L'index est une table FTS5 à contenu externe adossée à Books : elle ne stocke que les tokens,
+ * et les triggers la maintiennent dans la même transaction que chaque INSERT/UPDATE/DELETE sur Books
+ * (ajout, modification, suppression et import de livres compris).
+ */
+public class BookFullTextRepository {
+
+    static final String TABLE_FTS = "Books_fts";
+
+    // Poids BM25 par colonne, dans l'ordre de déclaration : titre, auteur, categorie, isbn
+    private static final String CLASSEMENT = "bm25(" + TABLE_FTS + ", 10.0, 5.0, 2.0, 1.0)";
+
+    private static final String[] DDL = {
+            "CREATE VIRTUAL TABLE IF NOT EXISTS " + TABLE_FTS + " USING fts5("
+                    + "titre, auteur, categorie, isbn, "
+                    + "content='Books', content_rowid='id', "
+                    + "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "CREATE TRIGGER IF NOT EXISTS Books_fts_ai AFTER INSERT ON Books BEGIN "
+                    + "INSERT INTO " + TABLE_FTS + "(rowid, titre, auteur, categorie, isbn) "
+                    + "VALUES (new.id, new.titre, new.auteur, new.categorie, new.isbn); END",
+            "CREATE TRIGGER IF NOT EXISTS Books_fts_ad AFTER DELETE ON Books BEGIN "
+                    + "INSERT INTO " + TABLE_FTS + "(" + TABLE_FTS + ", rowid, titre, auteur, categorie, isbn) "
+                    + "VALUES ('delete', old.id, old.titre, old.auteur, old.categorie, old.isbn); END",
+            "CREATE TRIGGER IF NOT EXISTS Books_fts_au AFTER UPDATE OF titre, auteur, categorie, isbn ON Books BEGIN "
+                    + "INSERT INTO " + TABLE_FTS + "(" + TABLE_FTS + ", rowid, titre, auteur, categorie, isbn) "
+                    + "VALUES ('delete', old.id, old.titre, old.auteur, old.categorie, old.isbn); "
+                    + "INSERT INTO " + TABLE_FTS + "(rowid, titre, auteur, categorie, isbn) "
+                    + "VALUES (new.id, new.titre, new.auteur, new.categorie, new.isbn); END"
+    };
+
+    private final EntityManager em;
+
+    public BookFullTextRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    public boolean indexExiste() {
+        Query query = em.createNativeQuery(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?1");
+        query.setParameter(1, TABLE_FTS);
+        return ((Number) query.getSingleResult()).longValue() > 0;
+    }
+
+    /**
+     * Crée la table virtuelle et ses triggers (doit être appelé dans une transaction)
+     */
+    public void creerIndex() {
+        for (String instruction : DDL) {
+            em.createNativeQuery(instruction).executeUpdate();
+        }
+    }
+
+    /**
+     * Recalcule l'index complet à partir de la table Books (doit être appelé dans une transaction)
+     */
+    public void reconstruireIndex() {
+        em.createNativeQuery("INSERT INTO " + TABLE_FTS + "(" + TABLE_FTS + ") VALUES ('rebuild')")
+                .executeUpdate();
+    }
+
+    /**
+     * Renvoie les IDs des livres correspondant à l'expression FTS5, du plus pertinent au moins pertinent
+     */
+    public List<Long> rechercherIds(String expression, int limite) {
+        Query query = em.createNativeQuery(
+                "SELECT rowid FROM " + TABLE_FTS + " WHERE " + TABLE_FTS + " MATCH ?1 "
+                        + "ORDER BY " + CLASSEMENT + " LIMIT ?2");
+        query.setParameter(1, expression);
+        query.setParameter(2, limite);
+
+        List<?> lignes = query.getResultList();
+        List<Long> ids = new ArrayList<>(lignes.size());
+        for (Object ligne : lignes) {
+            ids.add(((Number) ligne).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Transforme une saisie libre en expression FTS5 : chaque mot devient un préfixe entre guillemets,
+     * et tous les mots doivent être présents (ET implicite). Les opérateurs FTS5 de la saisie sont neutralisés.
+     * @return null si la saisie ne contient aucun mot
+     */
+    static String construireExpression(String saisie) {
+        if (saisie == null) {
+            return null;
+        }
+
+        StringBuilder expression = new StringBuilder();
+        for (String mot : saisie.split("[^\\p{L}\\p{N}]+")) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            if (expression.length() > 0) {
+                expression.append(' ');
+            }
+            expression.append('"').append(mot).append("\"*");
+        }
+        return expression.length() == 0 ? null : expression.toString();
+    }
+}
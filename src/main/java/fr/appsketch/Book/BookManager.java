@@ -2,18 +2,40 @@ package fr.appsketch.Book;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import fr.appsketch.Core.CacheRecherche;
+import fr.appsketch.Core.Compression;
+import fr.appsketch.Core.HibernateManager;
+import fr.appsketch.Core.StatistiquesCache;
+import fr.appsketch.Core.UniteDeTravail;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 /**
  * Manager pour gérer la logique métier des livres
@@ -21,274 +43,707 @@ import java.util.Optional;
  */
 public class BookManager {
 
+    // Nombre maximal de résultats renvoyés par la recherche plein texte
+    static final int LIMITE_RECHERCHE_TEXTE = 100;
+
+    // Nombre de livres insérés entre deux flush/clear lors d'un import (un lot JDBC par flush)
+    static final int TAILLE_LOT_IMPORT = HibernateManager.TAILLE_LOT_JDBC;
+    // Livres insérés entre deux commits lors d'un import
+    static final int LIGNES_PAR_TRANSACTION_IMPORT = 20 * TAILLE_LOT_IMPORT;
+    // Threads d'analyse d'un import NDJSON ; l'insertion reste faite par le thread appelant
+    static final int THREADS_ANALYSE_NDJSON = Runtime.getRuntime().availableProcessors();
+    // Threads de validation d'un import (voir PipelineImport) ; la validation est légère devant l'analyse
+    static final int THREADS_VALIDATION_IMPORT = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Tampon des fichiers d'import/export
+    static final int TAILLE_TAMPON_FICHIER = 64 * 1024;
+
     private final BookRepository bookRepository;
+    private final BookFullTextRepository fullTextRepository;
+    // Index mémoire optionnel : sans lui, les recherches "contient" sont exécutées en SQL
+    private final BookSearchIndex searchIndex;
+    // Cache optionnel ISBN → ID : sans lui, chaque recherche par ISBN interroge la base
+    private final CacheRecherche cacheIsbn;
+    // Chaque opération publique s'exécute dans sa propre unité de travail (voir UniteDeTravail)
+    private final UniteDeTravail uniteDeTravail;
+    // Niveau de compression des exports, par algorithme
+    private final ToIntFunction<Compression> niveauCompression;
     private final EntityManager em;
 
     public BookManager(BookRepository bookRepository, EntityManager em) {
+        this(bookRepository, new BookFullTextRepository(em), em);
+    }
+
+    public BookManager(BookRepository bookRepository, BookFullTextRepository fullTextRepository, EntityManager em) {
+        this(bookRepository, fullTextRepository, null, em);
+    }
+
+    public BookManager(BookRepository bookRepository, BookFullTextRepository fullTextRepository,
+                       BookSearchIndex searchIndex, EntityManager em) {
+        this(bookRepository, fullTextRepository, searchIndex, null, em);
+    }
+
+    public BookManager(BookRepository bookRepository, BookFullTextRepository fullTextRepository,
+                       BookSearchIndex searchIndex, CacheRecherche cacheIsbn, EntityManager em) {
+        this(bookRepository, fullTextRepository, searchIndex, cacheIsbn, UniteDeTravail.partagee(em));
+    }
+
+    /**
+     * Les repositories doivent avoir été créés avec uniteDeTravail.entityManager()
+     */
+    public BookManager(BookRepository bookRepository, BookFullTextRepository fullTextRepository,
+                       BookSearchIndex searchIndex, CacheRecherche cacheIsbn, UniteDeTravail uniteDeTravail) {
+        this(bookRepository, fullTextRepository, searchIndex, cacheIsbn, uniteDeTravail,
+                Compression::getNiveauParDefaut);
+    }
+
+    /**
+     * @param niveauCompression Niveau des exports compressés, par algorithme (ConfigurationBase::getNiveauCompression)
+     */
+    public BookManager(BookRepository bookRepository, BookFullTextRepository fullTextRepository,
+                       BookSearchIndex searchIndex, CacheRecherche cacheIsbn, UniteDeTravail uniteDeTravail,
+                       ToIntFunction<Compression> niveauCompression) {
         this.bookRepository = bookRepository;
-        this.em = em;
+        this.fullTextRepository = fullTextRepository;
+        this.searchIndex = searchIndex;
+        this.cacheIsbn = cacheIsbn;
+        this.uniteDeTravail = uniteDeTravail;
+        this.niveauCompression = niveauCompression;
+        this.em = uniteDeTravail.entityManager();
     }
 
     /**
      * Ajoute un nouveau livre en base de données
      */
     public Book ajouterLivre(String titre, String auteur, LocalDate datePublication, String isbn, String categorie) {
-        // Validation
-        if (titre == null || titre.trim().isEmpty()) {
-            throw new IllegalArgumentException("Le titre est obligatoire");
-        }
-        if (auteur == null || auteur.trim().isEmpty()) {
-            throw new IllegalArgumentException("L'auteur est obligatoire");
-        }
-
-        // Vérifier si l'ISBN existe déjà
-        if (isbn != null && !isbn.isEmpty() && bookRepository.existsByIsbn(isbn)) {
-            throw new IllegalArgumentException("Un livre avec cet ISBN existe déjà");
-        }
+        return uniteDeTravail.obtenir(() -> {
+            // Validation
+            if (titre == null || titre.trim().isEmpty()) {
+                throw new IllegalArgumentException("Le titre est obligatoire");
+            }
+            if (auteur == null || auteur.trim().isEmpty()) {
+                throw new IllegalArgumentException("L'auteur est obligatoire");
+            }
 
-        Book book = new Book(titre, auteur, datePublication, isbn, categorie);
+            // Vérifier si l'ISBN existe déjà
+            if (isbn != null && !isbn.isEmpty() && bookRepository.existsByIsbn(isbn)) {
+                throw new IllegalArgumentException("Un livre avec cet ISBN existe déjà");
+            }
 
-        EntityTransaction transaction = em.getTransaction();
-        try {
-            transaction.begin();
-            Book savedBook = bookRepository.save(book);
-            em.flush(); // Force la synchronisation avec la base
-            transaction.commit();
-            em.clear(); // Vide le cache de premier niveau
-            return savedBook;
-        } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
+            Book book = new Book(titre, auteur, datePublication, isbn, categorie);
+
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                Book savedBook = bookRepository.save(book);
+                em.flush(); // Force la synchronisation avec la base
+                transaction.commit();
+                em.clear(); // Vide le cache de premier niveau
+                indexer(savedBook);
+                if (cacheIsbn != null) {
+                    cacheIsbn.enregistrer(savedBook.getIsbn(), savedBook.getId());
+                }
+                return savedBook;
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de l'ajout du livre", e);
             }
-            throw new RuntimeException("Erreur lors de l'ajout du livre", e);
-        }
+        });
     }
 
     /**
      * Modifie un livre existant
      */
     public Book modifierLivre(Long id, String titre, String auteur, LocalDate datePublication, String isbn, String categorie) {
-        Optional<Book> optionalBook = bookRepository.findById(id);
-        if (optionalBook.isEmpty()) {
-            throw new IllegalArgumentException("Livre non trouvé avec l'ID: " + id);
-        }
+        return uniteDeTravail.obtenir(() -> {
+            Optional<Book> optionalBook = bookRepository.findById(id);
+            if (optionalBook.isEmpty()) {
+                throw new IllegalArgumentException("Livre non trouvé avec l'ID: " + id);
+            }
 
-        Book book = optionalBook.get();
+            Book book = optionalBook.get();
+            String ancienIsbn = book.getIsbn();
 
-        if (titre != null && !titre.isEmpty()) {
-            book.setTitre(titre);
-        }
-        if (auteur != null && !auteur.isEmpty()) {
-            book.setAuteur(auteur);
-        }
-        if (datePublication != null) {
-            book.setDatePublication(datePublication);
-        }
-        if (isbn != null && !isbn.isEmpty()) {
-            book.setIsbn(isbn);
-        }
-        if (categorie != null && !categorie.isEmpty()) {
-            book.setCategorie(categorie);
-        }
+            if (titre != null && !titre.isEmpty()) {
+                book.setTitre(titre);
+            }
+            if (auteur != null && !auteur.isEmpty()) {
+                book.setAuteur(auteur);
+            }
+            if (datePublication != null) {
+                book.setDatePublication(datePublication);
+            }
+            if (isbn != null && !isbn.isEmpty()) {
+                book.setIsbn(isbn);
+            }
+            if (categorie != null && !categorie.isEmpty()) {
+                book.setCategorie(categorie);
+            }
 
-        EntityTransaction transaction = em.getTransaction();
-        try {
-            transaction.begin();
-            Book updatedBook = bookRepository.save(book);
-            em.flush(); // Force la synchronisation avec la base
-            transaction.commit();
-            em.clear(); // Vide le cache de premier niveau
-            return updatedBook;
-        } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                Book updatedBook = bookRepository.save(book);
+                em.flush(); // Force la synchronisation avec la base
+                transaction.commit();
+                em.clear(); // Vide le cache de premier niveau
+                indexer(updatedBook);
+                if (cacheIsbn != null && !Objects.equals(ancienIsbn, updatedBook.getIsbn())) {
+                    cacheIsbn.invalider(ancienIsbn);
+                    cacheIsbn.enregistrer(updatedBook.getIsbn(), updatedBook.getId());
+                }
+                return updatedBook;
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la modification du livre", e);
             }
-            throw new RuntimeException("Erreur lors de la modification du livre", e);
-        }
+        });
     }
 
     /**
      * Supprime un livre par son ID
      */
     public void supprimerLivre(Long id) {
-        Optional<Book> optionalBook = bookRepository.findById(id);
-        if (optionalBook.isEmpty()) {
-            throw new IllegalArgumentException("Livre non trouvé avec l'ID: " + id);
-        }
+        uniteDeTravail.executer(() -> {
+            Optional<Book> optionalBook = bookRepository.findById(id);
+            if (optionalBook.isEmpty()) {
+                throw new IllegalArgumentException("Livre non trouvé avec l'ID: " + id);
+            }
 
-        EntityTransaction transaction = em.getTransaction();
-        try {
-            transaction.begin();
-            bookRepository.deleteById(id);
-            em.flush(); // Force la synchronisation avec la base AVANT le commit
-            transaction.commit();
-            em.clear(); // Vide le cache de premier niveau APRÈS le commit
-        } catch (Exception e) {
-            if (transaction.isActive()) {
-                transaction.rollback();
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                bookRepository.deleteById(id);
+                em.flush(); // Force la synchronisation avec la base AVANT le commit
+                transaction.commit();
+                em.clear(); // Vide le cache de premier niveau APRÈS le commit
+                if (searchIndex != null) {
+                    searchIndex.retirer(id);
+                }
+                if (cacheIsbn != null) {
+                    cacheIsbn.invalider(optionalBook.get().getIsbn());
+                }
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la suppression du livre", e);
             }
-            throw new RuntimeException("Erreur lors de la suppression du livre", e);
-        }
+        });
     }
 
     /**
      * Récupère un livre par son ID
      */
     public Optional<Book> trouverParId(Long id) {
-        return bookRepository.findById(id);
+        return uniteDeTravail.obtenir(() -> bookRepository.findById(id));
+    }
+
+    /**
+     * Récupère un livre par son ISBN (scan de code-barres)
+     */
+    public Optional<Book> rechercherParIsbn(String isbn) {
+        return uniteDeTravail.obtenir(() -> {
+            if (isbn == null || isbn.trim().isEmpty()) {
+                return Optional.empty();
+            }
+            if (cacheIsbn != null) {
+                return cacheIsbn.obtenir(isbn, bookRepository::findIdByIsbn).flatMap(bookRepository::findById);
+            }
+            return bookRepository.findByIsbn(isbn);
+        });
+    }
+
+    /**
+     * Récupère un livre avec ses emprunts (écrans d'emprunt et de retour)
+     */
+    public Optional<Book> trouverParIdAvecEmprunts(Long id) {
+        return uniteDeTravail.obtenir(() -> bookRepository.findByIdAvecEmprunts(id));
     }
 
     /**
      * Récupère tous les livres
      */
     public List<Book> listerTousLesLivres() {
-        return bookRepository.findAll();
+        return uniteDeTravail.obtenir(bookRepository::findAll);
     }
 
     /**
      * Récupère les livres disponibles (non empruntés)
      */
     public List<Book> listerLivresDisponibles() {
-        return bookRepository.findAll().stream()
-                .filter(book -> !book.isEmprunte())
-                .toList();
+        return uniteDeTravail.obtenir(bookRepository::findDisponibles);
     }
 
     /**
      * Récupère les livres empruntés
      */
     public List<Book> listerLivresEmpruntes() {
-        return bookRepository.findAll().stream()
-                .filter(Book::isEmprunte)
-                .toList();
+        return uniteDeTravail.obtenir(bookRepository::findEmpruntes);
     }
 
     /**
      * Recherche des livres par titre (contient)
      */
     public List<Book> rechercherParTitre(String titre) {
-        if (titre == null || titre.trim().isEmpty()) {
-            return List.of();
-        }
-        return bookRepository.findAll().stream()
-                .filter(book -> book.getTitre().toLowerCase().contains(titre.toLowerCase()))
-                .toList();
+        return uniteDeTravail.obtenir(() -> {
+            if (titre == null || titre.trim().isEmpty()) {
+                return List.of();
+            }
+            if (searchIndex != null) {
+                return chargerLivres(searchIndex.rechercher(BookSearchIndex.Champ.TITRE, titre));
+            }
+            return bookRepository.findByTitreContenant(titre);
+        });
     }
 
     /**
      * Recherche des livres par auteur (contient)
      */
     public List<Book> rechercherParAuteur(String auteur) {
-        if (auteur == null || auteur.trim().isEmpty()) {
-            return List.of();
-        }
-        return bookRepository.findAll().stream()
-                .filter(book -> book.getAuteur().toLowerCase().contains(auteur.toLowerCase()))
-                .toList();
+        return uniteDeTravail.obtenir(() -> {
+            if (auteur == null || auteur.trim().isEmpty()) {
+                return List.of();
+            }
+            if (searchIndex != null) {
+                return chargerLivres(searchIndex.rechercher(BookSearchIndex.Champ.AUTEUR, auteur));
+            }
+            return bookRepository.findByAuteurContenant(auteur);
+        });
     }
 
     /**
      * Recherche des livres par catégorie (contient)
      */
     public List<Book> rechercherParCategorie(String categorie) {
-        if (categorie == null || categorie.trim().isEmpty()) {
-            return List.of();
+        return uniteDeTravail.obtenir(() -> {
+            if (categorie == null || categorie.trim().isEmpty()) {
+                return List.of();
+            }
+            if (searchIndex != null) {
+                return chargerLivres(searchIndex.rechercher(BookSearchIndex.Champ.CATEGORIE, categorie));
+            }
+            return bookRepository.findByCategorieContenant(categorie);
+        });
+    }
+
+    /**
+     * Recherche "contient" renvoyant uniquement les IDs, pour ne charger que la page affichée
+     */
+    public long[] rechercherIds(BookSearchIndex.Champ champ, String texte) {
+        return uniteDeTravail.obtenir(() -> {
+            if (texte == null || texte.trim().isEmpty()) {
+                return new long[0];
+            }
+            if (searchIndex != null) {
+                return searchIndex.rechercher(champ, texte);
+            }
+            return bookRepository.findIdsContenant(champ, texte).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        });
+    }
+
+    /**
+     * Charge les livres d'une page de résultats (IDs renvoyés par rechercherIds)
+     */
+    public List<Book> chargerLivres(long[] ids, int debut, int nombre) {
+        return uniteDeTravail.obtenir(() -> {
+            int fin = Math.min(ids.length, debut + nombre);
+            if (debut >= fin) {
+                return List.of();
+            }
+            List<Long> page = new ArrayList<>(fin - debut);
+            for (int i = debut; i < fin; i++) {
+                page.add(ids[i]);
+            }
+            return bookRepository.findAllById(page);
+        });
+    }
+
+    /**
+     * (Re)construit l'index mémoire de recherche à partir de la base, sans charger les entités
+     * @return Le nombre de livres indexés
+     */
+    public int construireIndexRecherche() {
+        return uniteDeTravail.obtenir(() -> {
+            if (searchIndex == null) {
+                return 0;
+            }
+            searchIndex.vider();
+            try (Stream<Object[]> lignes = bookRepository.streamChampsIndexables()) {
+                lignes.forEach(ligne -> searchIndex.indexer(
+                        (Long) ligne[0], (String) ligne[1], (String) ligne[2], (String) ligne[3]));
+            }
+            return searchIndex.taille();
+        });
+    }
+
+    /**
+     * Recherche plein texte multi-mots sur titre, auteur, catégorie et ISBN
+     * Les résultats sont classés par pertinence (BM25), le titre pesant le plus
+     */
+    public List<Book> rechercherTexteIntegral(String saisie) {
+        return uniteDeTravail.obtenir(() -> {
+            String expression = BookFullTextRepository.construireExpression(saisie);
+            if (expression == null) {
+                return List.of();
+            }
+            List<Long> ids = fullTextRepository.rechercherIds(expression, LIMITE_RECHERCHE_TEXTE);
+            return bookRepository.findAllById(ids);
+        });
+    }
+
+    /**
+     * Crée l'index plein texte s'il n'existe pas encore et l'alimente avec les livres existants
+     */
+    public void initialiserRechercheTexteIntegral() {
+        uniteDeTravail.executer(() -> {
+            if (fullTextRepository.indexExiste()) {
+                return;
+            }
+
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                fullTextRepository.creerIndex();
+                fullTextRepository.reconstruireIndex();
+                transaction.commit();
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la création de l'index plein texte", e);
+            }
+        });
+    }
+
+    /**
+     * Calcule les colonnes de recherche des livres enregistrés avant leur introduction
+     * @return Le nombre de livres mis à jour
+     */
+    public int normaliserChampsRecherche() {
+        return uniteDeTravail.obtenir(() -> {
+            List<Book> livres = bookRepository.findSansChampsRecherche();
+            if (livres.isEmpty()) {
+                return 0;
+            }
+
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                for (Book book : livres) {
+                    book.normaliserChampsRecherche();
+                }
+                em.flush();
+                transaction.commit();
+                em.clear();
+                return livres.size();
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la normalisation des champs de recherche", e);
+            }
+        });
+    }
+
+    /**
+     * Supprime les index des colonnes de recherche laissés par les versions précédentes
+     * (hbm2ddl update ajoute les index mais ne les retire jamais)
+     * @return nombre d'index supprimés
+     */
+    public int supprimerIndexRechercheObsoletes() {
+        return uniteDeTravail.obtenir(() -> {
+            List<String> index = bookRepository.findIndexRechercheObsoletes();
+            if (index.isEmpty()) {
+                return 0;
+            }
+
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                for (String nom : index) {
+                    bookRepository.supprimerIndex(nom);
+                }
+                transaction.commit();
+                return index.size();
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la suppression des index de recherche", e);
+            }
+        });
+    }
+
+    private List<Book> chargerLivres(long[] ids) {
+        return chargerLivres(ids, 0, ids.length);
+    }
+
+    // Met à jour l'index mémoire après un commit réussi
+    private void indexer(Book book) {
+        if (searchIndex != null && book != null && book.getId() != null) {
+            searchIndex.indexer(book);
         }
-        return bookRepository.findAll().stream()
-                .filter(book -> book.getCategorie() != null &&
-                        book.getCategorie().toLowerCase().contains(categorie.toLowerCase()))
-                .toList();
     }
 
     /**
      * Vérifie si un ISBN existe déjà
      */
     public boolean isbnExiste(String isbn) {
-        return isbn != null && !isbn.isEmpty() && bookRepository.existsByIsbn(isbn);
+        return uniteDeTravail.obtenir(() -> {
+            if (isbn == null || isbn.isEmpty()) {
+                return false;
+            }
+            if (cacheIsbn != null) {
+                return cacheIsbn.obtenir(isbn, bookRepository::findIdByIsbn).isPresent();
+            }
+            return bookRepository.existsByIsbn(isbn);
+        });
+    }
+
+    /**
+     * Succès et échecs du cache ISBN (vide si le manager n'en a pas)
+     */
+    public Optional<StatistiquesCache> getStatistiquesCacheIsbn() {
+        return Optional.ofNullable(cacheIsbn).map(CacheRecherche::statistiques);
     }
 
     /**
-     * Exporte la liste des livres vers un fichier JSON
+     * Exporte la liste des livres vers un fichier JSON, au format et à la compression déduits de l'extension
+     * (.ndjson ou .jsonl pour un livre par ligne, tableau JSON indenté sinon ; .gz ou .zst pour compresser,
+     * par exemple livres.ndjson.zst)
      */
     public void exporterVersJson(String cheminFichier) throws IOException {
-        List<Book> livres = bookRepository.findAll();
-        List<BookDTO> livresDTO = new ArrayList<>();
+        exporterVersJson(cheminFichier, FormatLivres.depuisExtension(cheminFichier));
+    }
 
-        for (Book book : livres) {
-            livresDTO.add(BookDTO.fromBook(book));
-        }
+    /**
+     * Exporte la liste des livres au format donné, compressé selon l'extension au niveau configuré
+     */
+    public void exporterVersJson(String cheminFichier, FormatLivres format) throws IOException {
+        Compression compression = Compression.depuisExtension(cheminFichier);
+        exporterVersJson(cheminFichier, format, compression, niveauCompression.applyAsInt(compression));
+    }
 
+    /**
+     * Exporte la liste des livres vers un fichier, au format et avec la compression donnés
+     * Chaque livre est lu puis écrit aussitôt (curseur en base, écriture sur un flux tamponné) :
+     * la mémoire utilisée ne dépend pas de la taille du catalogue.
+     * @throws IllegalArgumentException si le niveau est hors des bornes de l'algorithme (aucun fichier n'est créé)
+     */
+    public void exporterVersJson(String cheminFichier, FormatLivres format, Compression compression, int niveau)
+            throws IOException {
+        compression.verifierNiveau(niveau);
         Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
                 .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
                 .create();
 
-        try (FileWriter writer = new FileWriter(cheminFichier)) {
-            gson.toJson(livresDTO, writer);
+        try (OutputStream fichier = Files.newOutputStream(Path.of(cheminFichier));
+             BufferedWriter sortie = new BufferedWriter(new OutputStreamWriter(
+                     compression.compresser(fichier, niveau), StandardCharsets.UTF_8), TAILLE_TAMPON_FICHIER)) {
+            if (format == FormatLivres.NDJSON) {
+                parcourirPourExport(dto -> {
+                    gson.toJson(dto, BookDTO.class, sortie);
+                    try {
+                        sortie.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } else {
+                JsonWriter writer = new JsonWriter(sortie);
+                // Même mise en forme que l'ancien export (Gson setPrettyPrinting)
+                writer.setIndent("  ");
+                writer.beginArray();
+                parcourirPourExport(dto -> gson.toJson(dto, BookDTO.class, writer));
+                writer.endArray();
+                writer.flush();
+            }
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
+    // Le curseur reste ouvert, dans l'unité de travail, le temps de l'écriture
+    private void parcourirPourExport(Consumer<BookDTO> ecriture) {
+        uniteDeTravail.executer(() -> {
+            try (Stream<BookDTO> livres = bookRepository.streamPourExport()) {
+                livres.forEach(ecriture);
+            }
+        });
+    }
+
     /**
-     * Importe des livres depuis un fichier JSON
-     * @return Le nombre de livres importés avec succès
+     * Importe des livres depuis un fichier JSON : tableau de livres ou NDJSON (un livre par ligne),
+     * compressé ou non (gzip, zstd), format et compression étant détectés d'après le contenu
+     * Le fichier est lu livre par livre et inséré par lots de TAILLE_LOT_IMPORT :
+     * la mémoire utilisée ne dépend pas de la taille du fichier. Lecture, validation et écriture se recouvrent
+     * (voir PipelineImport) ; un fichier NDJSON est en plus analysé en parallèle, par blocs de lignes
+     * (voir LecteurNdjson). Les livres sans titre ou sans auteur sont rejetés et détaillés dans le rapport.
+     * Les doublons d'ISBN sont résolus par lot (une requête IN par lot, pas une requête par livre).
+     * @return Le nombre de livres importés, ignorés et rejetés, et le débit de chaque étape
      */
-    public int importerDepuisJson(String cheminFichier) throws IOException {
+    public RapportImport importerDepuisJson(String cheminFichier) throws IOException {
         Gson gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
                 .create();
 
-        Type listType = new TypeToken<List<BookDTO>>(){}.getType();
-        List<BookDTO> livresDTO;
-
-        try (FileReader reader = new FileReader(cheminFichier)) {
-            livresDTO = gson.fromJson(reader, listType);
+        InputStream entree = null;
+        try {
+            entree = ouvrirEnLecture(Path.of(cheminFichier));
+            if (FormatLivres.detecter(entree) == FormatLivres.NDJSON) {
+                LecteurNdjson lecteur = new LecteurNdjson(entree, gson, THREADS_ANALYSE_NDJSON,
+                        LecteurNdjson.TAILLE_BLOC_DEFAUT);
+                return uniteDeTravail.obtenir(() -> importer(lecteur));
+            }
+            LecteurTableauJson lecteur = new LecteurTableauJson(
+                    new JsonReader(new InputStreamReader(entree, StandardCharsets.UTF_8)), gson);
+            return uniteDeTravail.obtenir(() -> importer(lecteur));
         } catch (IOException e) {
-            // Si le fichier n'existe pas ou n'est pas accessible, retourner 0
+            if (entree != null) {
+                entree.close();
+            }
+            // Si le fichier n'existe pas ou n'est pas accessible, retourner un rapport vide
             System.out.println("⚠ Impossible de lire le fichier: " + e.getMessage());
-            return 0;
+            return RapportImport.vide();
         }
+    }
 
-        if (livresDTO == null || livresDTO.isEmpty()) {
-            return 0;
+    // Contenu du fichier, décompressé s'il commence par le nombre magique de gzip ou zstd
+    private static InputStream ouvrirEnLecture(Path fichier) throws IOException {
+        InputStream brut = new BufferedInputStream(Files.newInputStream(fichier), TAILLE_TAMPON_FICHIER);
+        try {
+            Compression compression = Compression.detecter(brut);
+            if (compression == Compression.AUCUNE) {
+                return brut;
+            }
+            return new BufferedInputStream(compression.decompresser(brut), TAILLE_TAMPON_FICHIER);
+        } catch (IOException e) {
+            brut.close();
+            throw e;
         }
+    }
 
-        int compteur = 0;
+    /**
+     * Lecture et validation en parallèle (voir PipelineImport), dédoublonnage et insertion par lots sur ce thread
+     * La transaction est validée tous les LIGNES_PAR_TRANSACTION_IMPORT livres insérés : la mémoire retenue
+     * par Hibernate jusqu'au commit reste bornée. En cas d'erreur, seuls les livres de la transaction en cours
+     * sont annulés. L'index de recherche et le cache ISBN ne reçoivent les livres qu'une fois leur transaction
+     * validée. Le lecteur est fermé en sortie.
+     */
+    private <L extends Iterator<BookDTO> & Closeable> RapportImport importer(L livres) {
+        int importes = 0;
+        int ignores = 0;
+        // Livres insérés depuis le dernier commit, annulés en cas d'erreur
+        List<Book> nonValides = new ArrayList<>();
         EntityTransaction transaction = em.getTransaction();
 
-        try {
-            transaction.begin();
-
-            for (BookDTO dto : livresDTO) {
-                // Vérifier si un livre avec le même ISBN existe déjà
-                if (dto.getIsbn() != null && !dto.getIsbn().isEmpty()
-                    && bookRepository.existsByIsbn(dto.getIsbn())) {
-                    System.out.println("⚠ Livre ignoré (ISBN existe déjà): " + dto.getTitre());
-                    continue;
-                }
-
-                Book book = new Book(
-                    dto.getTitre(),
-                    dto.getAuteur(),
-                    dto.getDatePublication(),
-                    dto.getIsbn(),
-                    dto.getCategorie()
-                );
+        try (PipelineImport pipeline = new PipelineImport(livres, THREADS_VALIDATION_IMPORT, TAILLE_LOT_IMPORT)) {
+            List<Book> lot = pipeline.prochainLot();
+            if (lot == null) {
+                return RapportImport.vide();
+            }
 
-                bookRepository.save(book);
-                compteur++;
+            while (lot != null) {
+                if (!transaction.isActive()) {
+                    transaction.begin();
+                }
+                long debut = System.nanoTime();
+                List<Book> nouveaux = dedoublonner(lot);
+                long dedoublonne = System.nanoTime();
+                pipeline.mesurer(EtapeImport.DEDOUBLONNAGE, lot.size(), dedoublonne - debut);
+                ignores += lot.size() - nouveaux.size();
+
+                nonValides.addAll(ecrireLot(nouveaux));
+                if (nonValides.size() >= LIGNES_PAR_TRANSACTION_IMPORT) {
+                    transaction.commit();
+                    importes += publier(nonValides);
+                }
+                pipeline.mesurer(EtapeImport.ECRITURE, nouveaux.size(), System.nanoTime() - dedoublonne);
+                lot = pipeline.prochainLot();
             }
 
-            em.flush();
-            transaction.commit();
-            em.clear();
+            if (transaction.isActive()) {
+                long debut = System.nanoTime();
+                transaction.commit();
+                pipeline.mesurer(EtapeImport.ECRITURE, 0, System.nanoTime() - debut);
+            }
+            importes += publier(nonValides);
+            return pipeline.rapport(importes, ignores);
 
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
             }
-            throw new RuntimeException("Erreur lors de l'import des livres", e);
+            String dejaEnregistres = importes > 0 ? " (" + importes + " livre(s) déjà enregistré(s))" : "";
+            throw new RuntimeException("Erreur lors de l'import des livres" + dejaEnregistres, e);
+        }
+    }
+
+    /**
+     * Indexe et met en cache les livres d'une transaction qui vient d'être validée, puis vide la liste
+     * Retourne le nombre de livres publiés
+     */
+    private int publier(List<Book> valides) {
+        int nombre = valides.size();
+        valides.forEach(this::indexer);
+        if (cacheIsbn != null) {
+            valides.forEach(book -> cacheIsbn.enregistrer(book.getIsbn(), book.getId()));
+        }
+        valides.clear();
+        return nombre;
+    }
+
+    /**
+     * Retire d'un lot les livres dont l'ISBN est déjà pris : en base, ou par un livre plus haut dans ce lot
+     * Les lots précédents étant déjà envoyés en base, une seule requête IN suffit
+     * à détecter les ISBN présents en base comme dans les lots précédents.
+     */
+    private List<Book> dedoublonner(List<Book> lot) {
+        Set<String> isbns = new HashSet<>();
+        for (Book book : lot) {
+            if (book.getIsbn() != null && !book.getIsbn().isEmpty()) {
+                isbns.add(book.getIsbn());
+            }
+        }
+        Set<String> isbnsPris = new HashSet<>();
+        if (!isbns.isEmpty()) {
+            isbnsPris.addAll(bookRepository.findIsbnsExistants(isbns));
+        }
+
+        List<Book> nouveaux = new ArrayList<>(lot.size());
+        for (Book book : lot) {
+            if (book.getIsbn() != null && !book.getIsbn().isEmpty() && !isbnsPris.add(book.getIsbn())) {
+                System.out.println("⚠ Livre ignoré (ISBN existe déjà): " + book.getTitre());
+                continue;
+            }
+            nouveaux.add(book);
+        }
+        return nouveaux;
+    }
+
+    /**
+     * Insère un lot de livres puis libère le contexte de persistance
+     * Retourne les livres enregistrés, à publier après le commit
+     */
+    private List<Book> ecrireLot(List<Book> lot) {
+        List<Book> livres = new ArrayList<>(lot.size());
+        for (Book book : lot) {
+            livres.add(bookRepository.save(book));
         }
 
-        return compteur;
+        em.flush();
+        em.clear();
+        return livres;
     }
 }
@@ -2,8 +2,15 @@ package fr.appsketch.Book;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository pour gérer la persistance des livres
@@ -11,6 +18,9 @@ import java.util.Optional;
  */
 public class BookRepository {
 
+    // Nombre maximal de paramètres par clause IN (reste sous la limite de variables SQLite)
+    static final int TAILLE_BLOC_IN = 500;
+
     private final EntityManager em;
 
     public BookRepository(EntityManager em) {
@@ -31,11 +41,65 @@ public class BookRepository {
         return Optional.ofNullable(book);
     }
 
+    /**
+     * Charge le livre avec ses emprunts en une requête (graphe Book.emprunts)
+     */
+    public Optional<Book> findByIdAvecEmprunts(Long id) {
+        Map<String, Object> indications = Map.of(
+                "jakarta.persistence.fetchgraph", em.getEntityGraph(Book.GRAPHE_EMPRUNTS));
+        return Optional.ofNullable(em.find(Book.class, id, indications));
+    }
+
     public List<Book> findAll() {
         TypedQuery<Book> query = em.createQuery("SELECT b FROM Book b", Book.class);
         return query.getResultList();
     }
 
+    /**
+     * Charge les livres correspondant aux IDs donnés, dans l'ordre des IDs
+     * Les IDs sont interrogés par blocs de TAILLE_BLOC_IN (une requête IN par bloc)
+     */
+    public List<Book> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> parId = new HashMap<>();
+        for (int debut = 0; debut < ids.size(); debut += TAILLE_BLOC_IN) {
+            List<Long> bloc = ids.subList(debut, Math.min(debut + TAILLE_BLOC_IN, ids.size()));
+            TypedQuery<Book> query = em.createQuery("SELECT b FROM Book b WHERE b.id IN :ids", Book.class);
+            query.setParameter("ids", bloc);
+            for (Book book : query.getResultList()) {
+                parId.put(book.getId(), book);
+            }
+        }
+        List<Book> livres = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = parId.get(id);
+            if (book != null) {
+                livres.add(book);
+            }
+        }
+        return livres;
+    }
+
+    /**
+     * Livres sans emprunt en cours (prédicat indexé sur la colonne disponible)
+     */
+    public List<Book> findDisponibles() {
+        TypedQuery<Book> query = em.createQuery(
+                "SELECT b FROM Book b WHERE b.disponible = true", Book.class);
+        return query.getResultList();
+    }
+
+    /**
+     * Livres ayant un emprunt en cours (prédicat indexé sur la colonne disponible)
+     */
+    public List<Book> findEmpruntes() {
+        TypedQuery<Book> query = em.createQuery(
+                "SELECT b FROM Book b WHERE b.disponible = false", Book.class);
+        return query.getResultList();
+    }
+
     public Optional<Book> findByIsbn(String isbn) {
         TypedQuery<Book> query = em.createQuery(
                 "SELECT b FROM Book b WHERE b.isbn = :isbn", Book.class);
@@ -43,6 +107,16 @@ public class BookRepository {
         return query.getResultStream().findFirst();
     }
 
+    /**
+     * ID du livre portant cet ISBN, sans charger l'entité
+     */
+    public Optional<Long> findIdByIsbn(String isbn) {
+        TypedQuery<Long> query = em.createQuery(
+                "SELECT b.id FROM Book b WHERE b.isbn = :isbn", Long.class);
+        query.setParameter("isbn", isbn);
+        return query.getResultStream().findFirst();
+    }
+
     public boolean existsByIsbn(String isbn) {
         TypedQuery<Long> query = em.createQuery(
                 "SELECT COUNT(b) FROM Book b WHERE b.isbn = :isbn", Long.class);
@@ -50,7 +124,121 @@ public class BookRepository {
         return query.getSingleResult() > 0;
     }
 
+    public List<Book> findByTitreContenant(String titre) {
+        return findByChampRechercheContenant("titreRecherche", titre);
+    }
+
+    public List<Book> findByAuteurContenant(String auteur) {
+        return findByChampRechercheContenant("auteurRecherche", auteur);
+    }
+
+    public List<Book> findByCategorieContenant(String categorie) {
+        return findByChampRechercheContenant("categorieRecherche", categorie);
+    }
+
+    /**
+     * IDs des livres dont le champ normalisé contient la valeur, dans l'ordre des IDs
+     */
+    public List<Long> findIdsContenant(BookSearchIndex.Champ champ, String valeur) {
+        String colonne = switch (champ) {
+            case TITRE -> "titreRecherche";
+            case AUTEUR -> "auteurRecherche";
+            case CATEGORIE -> "categorieRecherche";
+        };
+        TypedQuery<Long> query = em.createQuery(
+                "SELECT b.id FROM Book b WHERE b." + colonne + " LIKE :motif ESCAPE '!' ORDER BY b.id", Long.class);
+        query.setParameter("motif", motifContenant(valeur));
+        return query.getResultList();
+    }
+
+    /**
+     * Parmi les ISBN donnés, renvoie ceux déjà présents en base
+     * Les ISBN sont interrogés par blocs de TAILLE_BLOC_IN (une requête IN par bloc)
+     */
+    public Set<String> findIsbnsExistants(Collection<String> isbns) {
+        Set<String> existants = new HashSet<>();
+        List<String> liste = new ArrayList<>(isbns);
+        for (int debut = 0; debut < liste.size(); debut += TAILLE_BLOC_IN) {
+            List<String> bloc = liste.subList(debut, Math.min(debut + TAILLE_BLOC_IN, liste.size()));
+            TypedQuery<String> query = em.createQuery(
+                    "SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns", String.class);
+            query.setParameter("isbns", bloc);
+            existants.addAll(query.getResultList());
+        }
+        return existants;
+    }
+
+    /**
+     * Parcourt (id, titre, auteur, categorie) de tous les livres sans charger les entités
+     * Le flux doit être fermé par l'appelant
+     */
+    public Stream<Object[]> streamChampsIndexables() {
+        TypedQuery<Object[]> query = em.createQuery(
+                "SELECT b.id, b.titre, b.auteur, b.categorie FROM Book b ORDER BY b.id", Object[].class);
+        return query.getResultStream();
+    }
+
+    /**
+     * Parcourt les champs exportés de tous les livres, dans l'ordre des IDs, sans charger les entités
+     * (ni leurs emprunts) : les lignes sont lues une à une par un curseur en avant seulement.
+     * Le flux doit être fermé par l'appelant
+     */
+    public Stream<BookDTO> streamPourExport() {
+        TypedQuery<BookDTO> query = em.createQuery(
+                "SELECT new fr.appsketch.Book.BookDTO(b.titre, b.auteur, b.datePublication, b.isbn, b.categorie) "
+                        + "FROM Book b ORDER BY b.id", BookDTO.class);
+        return query.getResultStream();
+    }
+
+    /**
+     * Livres dont les colonnes de recherche n'ont pas encore été calculées
+     * (lignes créées avant l'ajout de ces colonnes)
+     */
+    public List<Book> findSansChampsRecherche() {
+        TypedQuery<Book> query = em.createQuery(
+                "SELECT b FROM Book b WHERE b.titreRecherche IS NULL OR b.auteurRecherche IS NULL "
+                        + "OR (b.categorieRecherche IS NULL AND b.categorie IS NOT NULL)", Book.class);
+        return query.getResultList();
+    }
+
+    /**
+     * Index B-tree posés sur les colonnes de recherche par les versions précédentes,
+     * inutilisables pour un LIKE '%x%' et qui ne font que ralentir les écritures
+     */
+    public List<String> findIndexRechercheObsoletes() {
+        @SuppressWarnings("unchecked")
+        List<String> noms = em.createNativeQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND name IN "
+                        + "('idx_books_titre_recherche', 'idx_books_auteur_recherche', 'idx_books_categorie_recherche')")
+                .getResultList();
+        return noms;
+    }
+
+    /**
+     * Supprime un index (doit être appelé dans une transaction)
+     */
+    public void supprimerIndex(String nom) {
+        em.createNativeQuery("DROP INDEX IF EXISTS " + nom).executeUpdate();
+    }
+
     public void deleteById(Long id) {
         findById(id).ifPresent(em::remove);
     }
+
+    // Le filtre est évalué par SQLite sur la colonne normalisée : seules les lignes correspondantes sont chargées
+    private List<Book> findByChampRechercheContenant(String champ, String valeur) {
+        TypedQuery<Book> query = em.createQuery(
+                "SELECT b FROM Book b WHERE b." + champ + " LIKE :motif ESCAPE '!'", Book.class);
+        query.setParameter("motif", motifContenant(valeur));
+        return query.getResultList();
+    }
+
+    // Échappe les jokers LIKE pour conserver la sémantique "contient" de la saisie
+    static String motifContenant(String valeur) {
+        String echappee = Book.normaliser(valeur)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + echappee + "%";
+    }
 }
@@ -0,0 +1,441 @@
+package fr.appsketch.Book;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire pour la recherche "contient" sur titre, auteur et catégorie
+ * Responsabilités: indexation par trigrammes, mise à jour incrémentale, recherche d'IDs
+ *
+ * Chaque livre reçoit un numéro interne (ordinal) attribué dans l'ordre d'indexation. Pour chaque champ,
+ * un trigramme (3 caractères consécutifs de la valeur normalisée) pointe vers la liste triée des ordinaux
+ * qui le contiennent. Une recherche intersecte les listes des trigrammes de la saisie, puis vérifie
+ * chaque candidat avec String.contains : le résultat est exactement celui de l'ancien filtre en Java,
+ * sans parcourir la table. Les saisies de moins de 3 caractères sont vérifiées directement sur les
+ * valeurs en mémoire.
+ *
+ * Les suppressions marquent l'ordinal comme supprimé ; l'index est compacté lorsque les ordinaux
+ * supprimés deviennent majoritaires. Toutes les structures utilisent des tableaux primitifs.
+ */
+public class BookSearchIndex {
+
+    public enum Champ {
+        TITRE,
+        AUTEUR,
+        CATEGORIE
+    }
+
+    private static final int CAPACITE_INITIALE = 1024;
+    private static final int SEUIL_COMPACTAGE = 1024;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final IndexChamp[] champs = new IndexChamp[Champ.values().length];
+    private final LongIntMap ordinalParId = new LongIntMap(CAPACITE_INITIALE);
+
+    // ID du livre pour chaque ordinal, et bitset des ordinaux supprimés
+    private long[] ids = new long[CAPACITE_INITIALE];
+    private long[] supprimes = new long[CAPACITE_INITIALE / 64];
+    private int nbOrdinaux;
+    private int nbSupprimes;
+
+    public BookSearchIndex() {
+        for (int i = 0; i < champs.length; i++) {
+            champs[i] = new IndexChamp();
+        }
+    }
+
+    /**
+     * Indexe un livre ; s'il était déjà indexé, son ancienne version est remplacée
+     */
+    public void indexer(Book book) {
+        indexer(book.getId(), book.getTitre(), book.getAuteur(), book.getCategorie());
+    }
+
+    public void indexer(long id, String titre, String auteur, String categorie) {
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(id);
+
+            int ordinal = nbOrdinaux++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                supprimes = Arrays.copyOf(supprimes, ids.length / 64);
+            }
+            ids[ordinal] = id;
+            ordinalParId.put(id, ordinal);
+
+            champs[Champ.TITRE.ordinal()].ajouter(ordinal, Book.normaliser(titre));
+            champs[Champ.AUTEUR.ordinal()].ajouter(ordinal, Book.normaliser(auteur));
+            champs[Champ.CATEGORIE.ordinal()].ajouter(ordinal, Book.normaliser(categorie));
+            // Une réindexation supprime l'ancien ordinal : des mises à jour répétées doivent aussi compacter
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public void retirer(long id) {
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(id);
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vide l'index (avant une reconstruction complète)
+     */
+    public void vider() {
+        verrou.writeLock().lock();
+        try {
+            for (int i = 0; i < champs.length; i++) {
+                champs[i] = new IndexChamp();
+            }
+            ordinalParId.clear();
+            ids = new long[CAPACITE_INITIALE];
+            supprimes = new long[CAPACITE_INITIALE / 64];
+            nbOrdinaux = 0;
+            nbSupprimes = 0;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // Ordinaux attribués, supprimés compris
+    int nombreOrdinaux() {
+        verrou.readLock().lock();
+        try {
+            return nbOrdinaux;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de livres actuellement indexés
+     */
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return nbOrdinaux - nbSupprimes;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renvoie les IDs des livres dont le champ contient le texte (insensible à la casse),
+     * dans l'ordre d'indexation
+     */
+    public long[] rechercher(Champ champ, String texte) {
+        String motif = Book.normaliser(texte);
+        if (motif == null || motif.isEmpty()) {
+            return new long[0];
+        }
+
+        verrou.readLock().lock();
+        try {
+            IndexChamp index = champs[champ.ordinal()];
+            int[] candidats = motif.length() < 3 ? null : index.candidats(motif);
+
+            long[] resultat = new long[candidats == null ? 16 : Math.max(candidats.length, 1)];
+            int nbResultats = 0;
+            int nbCandidats = candidats == null ? nbOrdinaux : candidats.length;
+            for (int i = 0; i < nbCandidats; i++) {
+                int ordinal = candidats == null ? i : candidats[i];
+                String valeur = index.valeurs[ordinal];
+                if (valeur != null && !estSupprime(ordinal) && valeur.contains(motif)) {
+                    if (nbResultats == resultat.length) {
+                        resultat = Arrays.copyOf(resultat, resultat.length * 2);
+                    }
+                    resultat[nbResultats++] = ids[ordinal];
+                }
+            }
+            return Arrays.copyOf(resultat, nbResultats);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void retirerSansVerrou(long id) {
+        int ordinal = ordinalParId.remove(id);
+        if (ordinal < 0) {
+            return;
+        }
+        supprimes[ordinal >>> 6] |= 1L << ordinal;
+        nbSupprimes++;
+        for (IndexChamp index : champs) {
+            index.valeurs[ordinal] = null;
+        }
+    }
+
+    private boolean estSupprime(int ordinal) {
+        return (supprimes[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    // Réindexe les ordinaux vivants pour libérer les listes de postings des livres supprimés
+    // Compacte lorsque les ordinaux supprimés deviennent majoritaires (appelé sous verrou d'écriture)
+    private void compacterSiNecessaire() {
+        if (nbSupprimes > SEUIL_COMPACTAGE && nbSupprimes * 2 > nbOrdinaux) {
+            compacter();
+        }
+    }
+
+    private void compacter() {
+        long[] anciensIds = ids;
+        int anciensOrdinaux = nbOrdinaux;
+        String[][] anciennesValeurs = new String[champs.length][];
+        for (int c = 0; c < champs.length; c++) {
+            anciennesValeurs[c] = champs[c].valeurs;
+        }
+        long[] anciensSupprimes = supprimes;
+
+        int capacite = CAPACITE_INITIALE;
+        while (capacite < anciensOrdinaux - nbSupprimes) {
+            capacite *= 2;
+        }
+        for (int c = 0; c < champs.length; c++) {
+            champs[c] = new IndexChamp();
+        }
+        ordinalParId.clear();
+        ids = new long[capacite];
+        supprimes = new long[capacite / 64];
+        nbOrdinaux = 0;
+        nbSupprimes = 0;
+
+        for (int ancien = 0; ancien < anciensOrdinaux; ancien++) {
+            if ((anciensSupprimes[ancien >>> 6] & (1L << ancien)) != 0) {
+                continue;
+            }
+            int ordinal = nbOrdinaux++;
+            ids[ordinal] = anciensIds[ancien];
+            ordinalParId.put(anciensIds[ancien], ordinal);
+            for (int c = 0; c < champs.length; c++) {
+                champs[c].ajouter(ordinal, anciennesValeurs[c][ancien]);
+            }
+        }
+    }
+
+    // Encode trois caractères UTF-16 dans un long (16 bits chacun)
+    private static long trigramme(String valeur, int debut) {
+        return ((long) valeur.charAt(debut) << 32)
+                | ((long) valeur.charAt(debut + 1) << 16)
+                | valeur.charAt(debut + 2);
+    }
+
+    /**
+     * Index des trigrammes d'un champ : trigramme -> liste triée d'ordinaux
+     */
+    private static final class IndexChamp {
+        private final LongIntMap listeParTrigramme = new LongIntMap(CAPACITE_INITIALE);
+        private int[][] postings = new int[CAPACITE_INITIALE][];
+        private int[] taillesPostings = new int[CAPACITE_INITIALE];
+        private int nbListes;
+
+        // Valeur normalisée de chaque ordinal, pour la vérification finale
+        private String[] valeurs = new String[CAPACITE_INITIALE];
+
+        void ajouter(int ordinal, String valeur) {
+            if (ordinal == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, valeurs.length * 2);
+            }
+            valeurs[ordinal] = valeur;
+            if (valeur == null) {
+                return;
+            }
+
+            for (int i = 0; i + 3 <= valeur.length(); i++) {
+                long cle = trigramme(valeur, i);
+                int liste = listeParTrigramme.get(cle);
+                if (liste < 0) {
+                    liste = nouvelleListe();
+                    listeParTrigramme.put(cle, liste);
+                }
+                ajouterOrdinal(liste, ordinal);
+            }
+        }
+
+        /**
+         * Intersection des listes de tous les trigrammes du motif (motif d'au moins 3 caractères)
+         */
+        int[] candidats(String motif) {
+            int nbTrigrammes = motif.length() - 2;
+            int[] listes = new int[nbTrigrammes];
+            for (int i = 0; i < nbTrigrammes; i++) {
+                int liste = listeParTrigramme.get(trigramme(motif, i));
+                if (liste < 0) {
+                    return new int[0];
+                }
+                listes[i] = liste;
+            }
+
+            // Commencer par la liste la plus courte pour réduire l'intersection au plus vite
+            int plusCourte = 0;
+            for (int i = 1; i < nbTrigrammes; i++) {
+                if (taillesPostings[listes[i]] < taillesPostings[listes[plusCourte]]) {
+                    plusCourte = i;
+                }
+            }
+            int[] resultat = Arrays.copyOf(postings[listes[plusCourte]], taillesPostings[listes[plusCourte]]);
+            int taille = resultat.length;
+
+            for (int i = 0; i < nbTrigrammes && taille > 0; i++) {
+                if (i == plusCourte || listes[i] == listes[plusCourte]) {
+                    continue;
+                }
+                int[] autre = postings[listes[i]];
+                int tailleAutre = taillesPostings[listes[i]];
+                int a = 0;
+                int b = 0;
+                int n = 0;
+                while (a < taille && b < tailleAutre) {
+                    if (resultat[a] < autre[b]) {
+                        a++;
+                    } else if (resultat[a] > autre[b]) {
+                        b++;
+                    } else {
+                        resultat[n++] = resultat[a];
+                        a++;
+                        b++;
+                    }
+                }
+                taille = n;
+            }
+            return Arrays.copyOf(resultat, taille);
+        }
+
+        private int nouvelleListe() {
+            if (nbListes == postings.length) {
+                postings = Arrays.copyOf(postings, postings.length * 2);
+                taillesPostings = Arrays.copyOf(taillesPostings, taillesPostings.length * 2);
+            }
+            postings[nbListes] = new int[4];
+            return nbListes++;
+        }
+
+        private void ajouterOrdinal(int liste, int ordinal) {
+            int taille = taillesPostings[liste];
+            int[] ordinaux = postings[liste];
+            // Les ordinaux arrivent croissants : un trigramme répété dans la même valeur n'est ajouté qu'une fois
+            if (taille > 0 && ordinaux[taille - 1] == ordinal) {
+                return;
+            }
+            if (taille == ordinaux.length) {
+                ordinaux = Arrays.copyOf(ordinaux, taille * 2);
+                postings[liste] = ordinaux;
+            }
+            ordinaux[taille] = ordinal;
+            taillesPostings[liste] = taille + 1;
+        }
+    }
+
+    /**
+     * Table de hachage long -> int à adressage ouvert (sondage linéaire), sans boxing
+     * Les valeurs sont positives ou nulles ; -1 signifie "absent"
+     */
+    static final class LongIntMap {
+        private static final long VIDE = Long.MIN_VALUE;
+
+        private long[] cles;
+        private int[] valeurs;
+        private int taille;
+
+        LongIntMap(int capacite) {
+            allouer(Integer.highestOneBit(Math.max(capacite, 4) - 1) << 1);
+        }
+
+        int get(long cle) {
+            int masque = cles.length - 1;
+            for (int i = hacher(cle) & masque; ; i = (i + 1) & masque) {
+                long courante = cles[i];
+                if (courante == cle) {
+                    return valeurs[i];
+                }
+                if (courante == VIDE) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long cle, int valeur) {
+            if ((taille + 1) * 4L > cles.length * 3L) {
+                redimensionner();
+            }
+            int masque = cles.length - 1;
+            int i = hacher(cle) & masque;
+            while (cles[i] != VIDE && cles[i] != cle) {
+                i = (i + 1) & masque;
+            }
+            if (cles[i] == VIDE) {
+                taille++;
+            }
+            cles[i] = cle;
+            valeurs[i] = valeur;
+        }
+
+        /**
+         * Supprime la clé et renvoie sa valeur, ou -1 si elle était absente
+         * (décalage arrière des entrées suivantes pour ne pas casser les chaînes de sondage)
+         */
+        int remove(long cle) {
+            int masque = cles.length - 1;
+            int i = hacher(cle) & masque;
+            while (cles[i] != cle) {
+                if (cles[i] == VIDE) {
+                    return -1;
+                }
+                i = (i + 1) & masque;
+            }
+            int valeur = valeurs[i];
+            taille--;
+
+            int trou = i;
+            for (int j = (trou + 1) & masque; cles[j] != VIDE; j = (j + 1) & masque) {
+                int ideal = hacher(cles[j]) & masque;
+                // L'entrée j peut combler le trou si sa position idéale n'est pas dans ]trou, j]
+                if (((j - ideal) & masque) >= ((j - trou) & masque)) {
+                    cles[trou] = cles[j];
+                    valeurs[trou] = valeurs[j];
+                    trou = j;
+                }
+            }
+            cles[trou] = VIDE;
+            return valeur;
+        }
+
+        void clear() {
+            Arrays.fill(cles, VIDE);
+            taille = 0;
+        }
+
+        int size() {
+            return taille;
+        }
+
+        private void redimensionner() {
+            long[] anciennesCles = cles;
+            int[] anciennesValeurs = valeurs;
+            allouer(cles.length * 2);
+            for (int i = 0; i < anciennesCles.length; i++) {
+                if (anciennesCles[i] != VIDE) {
+                    put(anciennesCles[i], anciennesValeurs[i]);
+                }
+            }
+        }
+
+        private void allouer(int capacite) {
+            cles = new long[capacite];
+            valeurs = new int[capacite];
+            Arrays.fill(cles, VIDE);
+            taille = 0;
+        }
+
+        private static int hacher(long cle) {
+            long h = cle * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package fr.appsketch.Book;
+
+/**
+ * Étapes du pipeline d'import, dans l'ordre où les livres les traversent
+ */
+public enum EtapeImport {
+    LECTURE("Lecture et analyse"),
+    VALIDATION("Validation"),
+    DEDOUBLONNAGE("Dédoublonnage ISBN"),
+    ECRITURE("Écriture en base");
+
+    private final String libelle;
+
+    EtapeImport(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+}
@@ -0,0 +1,68 @@
+package fr.appsketch.Book;
+
+import fr.appsketch.Core.Compression;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formats des fichiers d'import/export de livres
+ */
+public enum FormatLivres {
+
+    // Un tableau JSON unique, indenté
+    JSON,
+
+    // JSON Lines : un livre (objet JSON) par ligne ; les fichiers se découpent, se concatènent
+    // et se lisent en parallèle (voir LecteurNdjson)
+    NDJSON;
+
+    // Octets examinés au début du fichier pour en détecter le format
+    private static final int OCTETS_DETECTION = 4096;
+
+    /**
+     * Format d'export déduit de l'extension, extension de compression ignorée :
+     * .ndjson ou .jsonl (livres.ndjson.zst compris) pour NDJSON, JSON sinon
+     */
+    public static FormatLivres depuisExtension(String cheminFichier) {
+        String nom = Compression.sansExtension(cheminFichier).toLowerCase(Locale.ROOT);
+        return nom.endsWith(".ndjson") || nom.endsWith(".jsonl") ? NDJSON : JSON;
+    }
+
+    /**
+     * Format d'un fichier à importer, d'après son premier caractère significatif :
+     * '{' pour NDJSON, JSON sinon (tableau, fichier vide ou null)
+     */
+    public static FormatLivres detecter(Path fichier) throws IOException {
+        try (InputStream entree = new BufferedInputStream(Files.newInputStream(fichier), OCTETS_DETECTION)) {
+            return detecter(entree);
+        }
+    }
+
+    /**
+     * Format d'un flux (déjà décompressé) ; le flux doit permettre mark/reset et il est replacé à son début
+     */
+    public static FormatLivres detecter(InputStream entree) throws IOException {
+        if (!entree.markSupported()) {
+            throw new IllegalArgumentException("Le flux doit permettre mark/reset");
+        }
+        entree.mark(OCTETS_DETECTION);
+        byte[] debut = entree.readNBytes(OCTETS_DETECTION);
+        entree.reset();
+        for (int i = 0; i < debut.length; i++) {
+            int octet = debut[i] & 0xff;
+            // Marque d'ordre UTF-8 (EF BB BF)
+            if (i < 3 && (octet == 0xEF || octet == 0xBB || octet == 0xBF)) {
+                continue;
+            }
+            if (!Character.isWhitespace(octet)) {
+                return octet == '{' ? NDJSON : JSON;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,189 @@
+package fr.appsketch.Book;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lecture parallèle d'un flux NDJSON (un BookDTO par ligne), compressé ou non
+ * Le flux est lu séquentiellement par blocs d'octets coupés sur les fins de ligne ; chaque bloc est analysé
+ * par un thread de travail pendant que les suivants sont lus. Les livres sont rendus dans l'ordre du fichier :
+ * le premier livre d'un ISBN reste celui qui est importé, comme avec une lecture séquentielle.
+ * Seuls quelques blocs sont en mémoire à la fois (deux par thread) : la mémoire ne dépend pas de la taille du fichier.
+ */
+final class LecteurNdjson implements Iterator<BookDTO>, Closeable {
+
+    static final int TAILLE_BLOC_DEFAUT = 4 * 1024 * 1024;
+
+    private static final AtomicInteger NUMERO_LECTEUR = new AtomicInteger();
+
+    private final InputStream entree;
+    private final Gson gson;
+    private final int tailleBloc;
+    private final int blocsEnVol;
+    private final ExecutorService workers;
+    private final Deque<Future<List<BookDTO>>> blocsEnCours = new ArrayDeque<>();
+
+    // Octet du flux où commence le prochain bloc, et début de ligne lu mais pas encore soumis
+    private long position;
+    private byte[] reste = new byte[0];
+    private boolean finDuFlux;
+    private Iterator<BookDTO> blocCourant = Collections.emptyIterator();
+
+    LecteurNdjson(InputStream entree, Gson gson, int threads, int tailleBloc) {
+        if (threads < 1 || tailleBloc < 1) {
+            throw new IllegalArgumentException("Threads et taille de bloc doivent être positifs");
+        }
+        this.entree = entree;
+        this.gson = gson;
+        this.tailleBloc = tailleBloc;
+        this.blocsEnVol = threads * 2;
+        int numero = NUMERO_LECTEUR.incrementAndGet();
+        AtomicInteger numeroThread = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, tache -> {
+            Thread thread = new Thread(tache, "import-ndjson-" + numero + "-" + numeroThread.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!blocCourant.hasNext()) {
+            soumettreBlocs();
+            if (blocsEnCours.isEmpty()) {
+                return false;
+            }
+            blocCourant = attendre(blocsEnCours.poll()).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public BookDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return blocCourant.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workers.shutdownNow();
+        entree.close();
+    }
+
+    // Garde blocsEnVol blocs en cours d'analyse, dans l'ordre du fichier
+    private void soumettreBlocs() {
+        while (blocsEnCours.size() < blocsEnVol && !finDuFlux) {
+            byte[] bloc = lireBloc();
+            long debut = position;
+            position += bloc.length;
+            if (bloc.length > 0) {
+                blocsEnCours.add(workers.submit(() -> analyser(bloc, debut)));
+            }
+        }
+    }
+
+    // Au moins tailleBloc octets, jusqu'à la dernière fin de ligne lue (ou la fin du flux)
+    private byte[] lireBloc() {
+        try {
+            byte[] donnees = reste;
+            while (true) {
+                byte[] lus = entree.readNBytes(tailleBloc);
+                donnees = concatener(donnees, lus);
+                if (lus.length < tailleBloc) {
+                    finDuFlux = true;
+                    reste = new byte[0];
+                    return donnees;
+                }
+                // Une ligne plus longue que le bloc : on continue de lire jusqu'à sa fin
+                for (int i = donnees.length - 1; i >= donnees.length - lus.length; i--) {
+                    if (donnees[i] == '\n') {
+                        reste = Arrays.copyOfRange(donnees, i + 1, donnees.length);
+                        return Arrays.copyOf(donnees, i + 1);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] concatener(byte[] debut, byte[] fin) {
+        if (debut.length == 0) {
+            return fin;
+        }
+        byte[] tout = Arrays.copyOf(debut, debut.length + fin.length);
+        System.arraycopy(fin, 0, tout, debut.length, fin.length);
+        return tout;
+    }
+
+    // Exécuté par un thread de travail ; 0x0A n'apparaît dans aucun caractère UTF-8 multi-octets
+    private List<BookDTO> analyser(byte[] octets, long debut) throws IOException {
+        List<BookDTO> livres = new ArrayList<>();
+        int debutLigne = 0;
+        for (int i = 0; i <= octets.length; i++) {
+            if (i < octets.length && octets[i] != '\n') {
+                continue;
+            }
+            String ligne = new String(octets, debutLigne, i - debutLigne, StandardCharsets.UTF_8).strip();
+            if (debut == 0 && debutLigne == 0 && ligne.startsWith("\uFEFF")) {
+                ligne = ligne.substring(1);
+            }
+            if (!ligne.isEmpty()) {
+                livres.add(lireLigne(ligne, debut + debutLigne));
+            }
+            debutLigne = i + 1;
+        }
+        return livres;
+    }
+
+    private BookDTO lireLigne(String ligne, long octet) throws IOException {
+        BookDTO livre;
+        try {
+            livre = gson.fromJson(ligne, BookDTO.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Ligne JSON invalide à l'octet " + octet, e);
+        }
+        if (livre == null) {
+            throw new IOException("Ligne JSON invalide à l'octet " + octet + " : null");
+        }
+        return livre;
+    }
+
+    private static List<BookDTO> attendre(Future<List<BookDTO>> bloc) {
+        try {
+            return bloc.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lecture NDJSON interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fr.appsketch.Book;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lecture livre par livre d'un fichier contenant un tableau JSON de BookDTO
+ * Un fichier vide ou contenant null ne donne aucun livre.
+ */
+final class LecteurTableauJson implements Iterator<BookDTO>, Closeable {
+
+    private final JsonReader reader;
+    private final Gson gson;
+    private boolean ouvert;
+    private boolean termine;
+
+    LecteurTableauJson(JsonReader reader, Gson gson) {
+        this.reader = reader;
+        this.gson = gson;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (termine) {
+            return false;
+        }
+        try {
+            if (!ouvert) {
+                ouvert = true;
+                if (!ouvrirTableau()) {
+                    termine = true;
+                    return false;
+                }
+            }
+            if (reader.hasNext()) {
+                return true;
+            }
+            reader.endArray();
+            termine = true;
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BookDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return gson.fromJson(reader, BookDTO.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Se place dans le tableau racine ; false si le fichier est vide ou contient null
+    private boolean ouvrirTableau() throws IOException {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                return false;
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        reader.beginArray();
+        return true;
+    }
+}
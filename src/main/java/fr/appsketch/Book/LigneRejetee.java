@@ -0,0 +1,35 @@
+package fr.appsketch.Book;
+
+/**
+ * Livre du fichier d'import écarté par la validation
+ */
+public class LigneRejetee {
+
+    // Rang du livre dans le fichier, à partir de 1
+    private final long numero;
+    private final String titre;
+    private final String motif;
+
+    public LigneRejetee(long numero, String titre, String motif) {
+        this.numero = numero;
+        this.titre = titre;
+        this.motif = motif;
+    }
+
+    public long getNumero() {
+        return numero;
+    }
+
+    public String getTitre() {
+        return titre;
+    }
+
+    public String getMotif() {
+        return motif;
+    }
+
+    @Override
+    public String toString() {
+        return "Livre n°" + numero + (titre == null ? "" : " (" + titre + ")") + " : " + motif;
+    }
+}
@@ -0,0 +1,223 @@
+package fr.appsketch.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Étapes d'un import exécutées en parallèle : lecture → validation → (dédoublonnage → écriture)
+ * Un thread lit le fichier et découpe les livres en lots ; chaque lot est validé par un thread de travail
+ * pendant que les suivants sont lus et que les précédents sont écrits. Le dédoublonnage et l'écriture restent
+ * sur le thread appelant (BookManager), seul à utiliser l'EntityManager, qui reçoit les lots par prochainLot().
+ * Les lots sont rendus dans l'ordre du fichier : le premier livre d'un ISBN reste celui qui est importé.
+ * La file entre lecture et écriture est bornée : si l'écriture prend du retard, la lecture attend
+ * (au plus LOTS_EN_VOL_PAR_THREAD lots par thread de validation en mémoire).
+ */
+final class PipelineImport implements Closeable {
+
+    // Nombre maximal de rejets détaillés dans le rapport ; les suivants sont seulement comptés
+    static final int REJETS_DETAILLES_MAX = 1_000;
+    static final int LOTS_EN_VOL_PAR_THREAD = 2;
+
+    private static final AtomicInteger NUMERO_PIPELINE = new AtomicInteger();
+    // Marque la fin du fichier dans la file des lots
+    private static final Future<LotValide> FIN = CompletableFuture.completedFuture(null);
+
+    private final Iterator<BookDTO> livres;
+    private final Closeable source;
+    private final int tailleLot;
+    private final ExecutorService validation;
+    private final BlockingQueue<Future<LotValide>> lots;
+    private final Thread lecture;
+    // Lignes traitées et temps de travail (ns) de chaque étape, indexés par EtapeImport.ordinal()
+    private final AtomicLongArray lignes = new AtomicLongArray(EtapeImport.values().length);
+    private final AtomicLongArray durees = new AtomicLongArray(EtapeImport.values().length);
+
+    // Rejets, cumulés par le thread appelant dans l'ordre du fichier
+    private final List<LigneRejetee> lignesRejetees = new ArrayList<>();
+    private int rejetes;
+    private boolean fini;
+
+    <L extends Iterator<BookDTO> & Closeable> PipelineImport(L source, int threadsValidation, int tailleLot) {
+        if (threadsValidation < 1 || tailleLot < 1) {
+            throw new IllegalArgumentException("Threads et taille de lot doivent être positifs");
+        }
+        this.livres = source;
+        this.source = source;
+        this.tailleLot = tailleLot;
+        this.lots = new ArrayBlockingQueue<>(threadsValidation * LOTS_EN_VOL_PAR_THREAD);
+        int numero = NUMERO_PIPELINE.incrementAndGet();
+        AtomicInteger numeroThread = new AtomicInteger();
+        this.validation = Executors.newFixedThreadPool(threadsValidation, tache -> {
+            Thread thread = new Thread(tache, "import-validation-" + numero + "-" + numeroThread.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lecture = new Thread(this::lire, "import-lecture-" + numero);
+        lecture.setDaemon(true);
+        lecture.start();
+    }
+
+    /**
+     * Livres valides du lot suivant, dans l'ordre du fichier ; null une fois le fichier entièrement lu
+     * Attend que le lot soit lu et validé. Une erreur de lecture (fichier illisible, JSON invalide) est relancée ici.
+     */
+    List<Book> prochainLot() {
+        if (fini) {
+            return null;
+        }
+        LotValide lot;
+        try {
+            Future<LotValide> suivant = lots.take();
+            if (suivant == FIN) {
+                fini = true;
+                return null;
+            }
+            lot = suivant.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        rejetes += lot.rejets.size();
+        for (LigneRejetee rejet : lot.rejets) {
+            if (lignesRejetees.size() < REJETS_DETAILLES_MAX) {
+                lignesRejetees.add(rejet);
+            }
+        }
+        return lot.livres;
+    }
+
+    /**
+     * Ajoute du travail aux statistiques d'une étape (dédoublonnage et écriture, mesurés par l'appelant)
+     */
+    void mesurer(EtapeImport etape, long nombre, long dureeNanos) {
+        lignes.addAndGet(etape.ordinal(), nombre);
+        durees.addAndGet(etape.ordinal(), dureeNanos);
+    }
+
+    List<StatistiquesEtape> statistiques() {
+        List<StatistiquesEtape> statistiques = new ArrayList<>();
+        for (EtapeImport etape : EtapeImport.values()) {
+            statistiques.add(new StatistiquesEtape(etape, lignes.get(etape.ordinal()), durees.get(etape.ordinal())));
+        }
+        return statistiques;
+    }
+
+    RapportImport rapport(int importes, int ignores) {
+        return new RapportImport(importes, ignores, rejetes, lignesRejetees, statistiques());
+    }
+
+    /**
+     * Arrête la lecture et la validation si elles sont encore en cours, puis ferme le fichier
+     */
+    @Override
+    public void close() throws IOException {
+        lecture.interrupt();
+        validation.shutdownNow();
+        // Débloque une lecture en attente de place dans la file
+        lots.clear();
+        try {
+            lecture.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            source.close();
+        }
+    }
+
+    // Thread de lecture : découpe le fichier en lots et les soumet à la validation, dans l'ordre
+    private void lire() {
+        try {
+            long numero = 0;
+            while (true) {
+                long debut = System.nanoTime();
+                List<BookDTO> lot = new ArrayList<>(tailleLot);
+                while (lot.size() < tailleLot && livres.hasNext()) {
+                    lot.add(livres.next());
+                }
+                mesurer(EtapeImport.LECTURE, lot.size(), System.nanoTime() - debut);
+                if (lot.isEmpty()) {
+                    lots.put(FIN);
+                    return;
+                }
+                long premierNumero = numero + 1;
+                numero += lot.size();
+                lots.put(validation.submit(() -> valider(lot, premierNumero)));
+            }
+        } catch (InterruptedException e) {
+            // close() : l'import est abandonné
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            try {
+                lots.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException interruption) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Exécuté par un thread de validation
+    private LotValide valider(List<BookDTO> lot, long premierNumero) {
+        long debut = System.nanoTime();
+        List<Book> valides = new ArrayList<>(lot.size());
+        List<LigneRejetee> rejets = new ArrayList<>();
+        for (int i = 0; i < lot.size(); i++) {
+            BookDTO dto = lot.get(i);
+            String motif = motifRejet(dto);
+            if (motif != null) {
+                rejets.add(new LigneRejetee(premierNumero + i, dto.getTitre(), motif));
+                continue;
+            }
+            valides.add(new Book(dto.getTitre(), dto.getAuteur(), dto.getDatePublication(), dto.getIsbn(),
+                    dto.getCategorie()));
+        }
+        mesurer(EtapeImport.VALIDATION, lot.size(), System.nanoTime() - debut);
+        return new LotValide(valides, rejets);
+    }
+
+    /**
+     * Raison du rejet d'un livre, null s'il est valide (mêmes règles que BookManager.ajouterLivre)
+     */
+    static String motifRejet(BookDTO dto) {
+        if (dto.getTitre() == null || dto.getTitre().trim().isEmpty()) {
+            return "Le titre est obligatoire";
+        }
+        if (dto.getAuteur() == null || dto.getAuteur().trim().isEmpty()) {
+            return "L'auteur est obligatoire";
+        }
+        return null;
+    }
+
+    private static final class LotValide {
+        private final List<Book> livres;
+        private final List<LigneRejetee> rejets;
+
+        private LotValide(List<Book> livres, List<LigneRejetee> rejets) {
+            this.livres = livres;
+            this.rejets = rejets;
+        }
+    }
+}
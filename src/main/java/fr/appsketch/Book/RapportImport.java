@@ -0,0 +1,66 @@
+package fr.appsketch.Book;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import de livres : livres insérés, livres ignorés (ISBN déjà présent),
+ * livres rejetés par la validation et débit de chaque étape
+ */
+public class RapportImport {
+
+    private final int importes;
+    private final int ignores;
+    private final int rejetes;
+    // Détail des premiers rejets seulement (voir PipelineImport.REJETS_DETAILLES_MAX)
+    private final List<LigneRejetee> lignesRejetees;
+    private final List<StatistiquesEtape> statistiques;
+
+    public RapportImport(int importes, int ignores) {
+        this(importes, ignores, 0, List.of(), List.of());
+    }
+
+    public RapportImport(int importes, int ignores, int rejetes, List<LigneRejetee> lignesRejetees,
+                         List<StatistiquesEtape> statistiques) {
+        this.importes = importes;
+        this.ignores = ignores;
+        this.rejetes = rejetes;
+        this.lignesRejetees = List.copyOf(lignesRejetees);
+        this.statistiques = List.copyOf(statistiques);
+    }
+
+    public static RapportImport vide() {
+        return new RapportImport(0, 0);
+    }
+
+    public int getImportes() {
+        return importes;
+    }
+
+    public int getIgnores() {
+        return ignores;
+    }
+
+    public int getRejetes() {
+        return rejetes;
+    }
+
+    public List<LigneRejetee> getLignesRejetees() {
+        return lignesRejetees;
+    }
+
+    /**
+     * Une entrée par étape, dans l'ordre du pipeline (vide si rien n'a été lu)
+     */
+    public List<StatistiquesEtape> getStatistiques() {
+        return statistiques;
+    }
+
+    @Override
+    public String toString() {
+        return "RapportImport{" +
+                "importes=" + importes +
+                ", ignores=" + ignores +
+                ", rejetes=" + rejetes +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package fr.appsketch.Book;
+
+/**
+ * Livres traités par une étape de l'import et temps passé à les traiter
+ * Le temps d'attente entre étapes (file vide ou pleine) n'est pas compté ; pour une étape à plusieurs threads,
+ * c'est la somme des temps de chaque thread.
+ */
+public class StatistiquesEtape {
+
+    private final EtapeImport etape;
+    private final long lignes;
+    private final long dureeNanos;
+
+    public StatistiquesEtape(EtapeImport etape, long lignes, long dureeNanos) {
+        this.etape = etape;
+        this.lignes = lignes;
+        this.dureeNanos = dureeNanos;
+    }
+
+    public EtapeImport getEtape() {
+        return etape;
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    public long getDureeMillis() {
+        return dureeNanos / 1_000_000;
+    }
+
+    /**
+     * Livres traités par seconde de travail (0 si l'étape n'a rien traité)
+     */
+    public double getDebit() {
+        return dureeNanos == 0 ? 0 : lignes * 1e9 / dureeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s : %d livre(s) en %d ms (%.0f livres/s)",
+                etape.getLibelle(), lignes, getDureeMillis(), getDebit());
+    }
+}
@@ -0,0 +1,38 @@
+package fr.appsketch.Core;
+
+/**
+ * Bilan d'une sauvegarde ou d'un chargement d'instantané : lignes écrites ou chargées par table
+ */
+public class BilanInstantane {
+
+    private final long livres;
+    private final long utilisateurs;
+    private final long emprunts;
+
+    public BilanInstantane(long livres, long utilisateurs, long emprunts) {
+        this.livres = livres;
+        this.utilisateurs = utilisateurs;
+        this.emprunts = emprunts;
+    }
+
+    public long getLivres() {
+        return livres;
+    }
+
+    public long getUtilisateurs() {
+        return utilisateurs;
+    }
+
+    public long getEmprunts() {
+        return emprunts;
+    }
+
+    @Override
+    public String toString() {
+        return "BilanInstantane{" +
+                "livres=" + livres +
+                ", utilisateurs=" + utilisateurs +
+                ", emprunts=" + emprunts +
+                '}';
+    }
+}
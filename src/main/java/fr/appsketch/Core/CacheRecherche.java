@@ -0,0 +1,98 @@
+package fr.appsketch.Core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache applicatif clé métier (ISBN, email) → ID, borné en taille et en durée de vie
+ * Les absences sont aussi gardées (cache négatif) : un ISBN inconnu scanné en boucle ne coûte qu'une requête.
+ * Les écritures passent par enregistrer/invalider, appelés par les managers après commit.
+ * Sûr en accès concurrent : un seul chargement par clé, les autres lecteurs attendent son résultat.
+ */
+public class CacheRecherche {
+
+    private final String nom;
+    private final Cache<String, Optional<Long>> cache;
+
+    public CacheRecherche(String nom, long tailleMax, Duration dureeVie) {
+        this.nom = nom;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(dureeVie)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Crée le cache selon la taille et la durée de vie configurées
+     */
+    public static CacheRecherche depuisConfiguration(String nom, ConfigurationBase config) {
+        return new CacheRecherche(nom, config.getCacheRechercheTailleMax(),
+                Duration.ofSeconds(config.getCacheRechercheDureeVieSecondes()));
+    }
+
+    /**
+     * Forme de la clé en cache et dans la requête : sans les blancs de saisie autour
+     * (la comparaison en base reste une égalité exacte, sensible à la casse)
+     */
+    public static String normaliser(String cle) {
+        return cle == null ? null : cle.trim();
+    }
+
+    /**
+     * ID associé à la clé, chargé par la fonction donnée (avec la clé normalisée) s'il n'est pas en cache
+     * Optional.empty() si la clé est vide ou absente de la base
+     */
+    public Optional<Long> obtenir(String cle, Function<String, Optional<Long>> chargement) {
+        String normalisee = normaliser(cle);
+        if (normalisee == null || normalisee.isEmpty()) {
+            return Optional.empty();
+        }
+        return cache.get(normalisee, chargement);
+    }
+
+    /**
+     * Associe la clé à l'ID d'une ligne qui vient d'être enregistrée (remplace une éventuelle absence)
+     */
+    public void enregistrer(String cle, Long id) {
+        String normalisee = normaliser(cle);
+        if (normalisee != null && !normalisee.isEmpty() && id != null) {
+            cache.put(normalisee, Optional.of(id));
+        }
+    }
+
+    /**
+     * Oublie la clé : la prochaine lecture interrogera la base
+     */
+    public void invalider(String cle) {
+        String normalisee = normaliser(cle);
+        if (normalisee != null) {
+            cache.invalidate(normalisee);
+        }
+    }
+
+    /**
+     * Oublie toutes les clés (après une annulation portant sur plusieurs lignes)
+     */
+    public void vider() {
+        cache.invalidateAll();
+    }
+
+    public long taille() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Succès, échecs et chargements depuis la création du cache
+     */
+    public StatistiquesCache statistiques() {
+        CacheStats compteurs = cache.stats();
+        return new StatistiquesCache(nom, compteurs.hitCount(), compteurs.missCount(), compteurs.loadCount());
+    }
+}
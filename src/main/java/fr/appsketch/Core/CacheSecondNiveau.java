@@ -0,0 +1,73 @@
+package fr.appsketch.Core;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de second niveau d'Hibernate : régions JCache en mémoire (Caffeine), bornées en taille et en durée de vie
+ * Les régions sont créées ici avant le démarrage d'Hibernate, qui refuse toute région non déclarée.
+ */
+public final class CacheSecondNiveau {
+
+    public static final String REGION_LIVRES = "livres";
+    public static final String REGION_EMPRUNTS_DU_LIVRE = "livres.emprunts";
+    public static final String REGION_UTILISATEURS = "utilisateurs";
+    // Éléments de Book.emprunts : sans eux, chaque collection lue en cache rechargerait ses emprunts un par un
+    public static final String REGION_EMPRUNTS = "emprunts";
+
+    static final List<String> REGIONS = List.of(
+            REGION_LIVRES, REGION_EMPRUNTS_DU_LIVRE, REGION_UTILISATEURS, REGION_EMPRUNTS);
+
+    private CacheSecondNiveau() {
+    }
+
+    /**
+     * Crée le gestionnaire de cache et ses régions selon la taille et la durée de vie configurées
+     */
+    static CacheManager creerCacheManager(ConfigurationBase config) {
+        CachingProvider fournisseur = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = fournisseur.getCacheManager(
+                fournisseur.getDefaultURI(), CacheSecondNiveau.class.getClassLoader());
+
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(config.getCacheTailleMax()));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(config.getCacheDureeVieSecondes())));
+            if (cacheManager.getCache(region) != null) {
+                cacheManager.destroyCache(region);
+            }
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Succès/échecs de lecture de chaque région (liste vide si le cache est désactivé)
+     */
+    public static List<StatistiquesCache> statistiques(SessionFactory sessionFactory) {
+        List<StatistiquesCache> statistiques = new ArrayList<>();
+        // Réglage posé par HibernateManager.parametres
+        Object actif = sessionFactory.getProperties().get("hibernate.cache.use_second_level_cache");
+        if (!Boolean.parseBoolean(String.valueOf(actif))) {
+            return statistiques;
+        }
+        for (String region : REGIONS) {
+            CacheRegionStatistics compteurs = sessionFactory.getStatistics().getDomainDataRegionStatistics(region);
+            if (compteurs != null) {
+                statistiques.add(new StatistiquesCache(region, compteurs.getHitCount(), compteurs.getMissCount(),
+                        compteurs.getPutCount()));
+            }
+        }
+        return statistiques;
+    }
+}
@@ -0,0 +1,146 @@
+package fr.appsketch.Core;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression des fichiers d'import/export, choisie par extension à l'écriture
+ * et reconnue à la lecture d'après les premiers octets du fichier (nombre magique)
+ */
+public enum Compression {
+
+    AUCUNE(0, 0, 0, List.of(), new byte[0]),
+
+    // Deflate, lisible partout (gzip, zcat) ; niveaux 0 (stockage) à 9
+    GZIP(0, 9, 6, List.of(".gz", ".gzip"), new byte[]{0x1F, (byte) 0x8B}),
+
+    // Zstandard : à taux égal, bien plus rapide que gzip ; niveaux 1 à 22 (au-delà de 19, très lent)
+    ZSTD(1, 22, 3, List.of(".zst", ".zstd"), new byte[]{0x28, (byte) 0xB5, 0x2F, (byte) 0xFD});
+
+    // Tampon entre le compresseur et le fichier : le compresseur écrit par petits morceaux
+    static final int TAILLE_TAMPON = 64 * 1024;
+
+    private final int niveauMin;
+    private final int niveauMax;
+    private final int niveauParDefaut;
+    private final List<String> extensions;
+    private final byte[] nombreMagique;
+
+    Compression(int niveauMin, int niveauMax, int niveauParDefaut, List<String> extensions, byte[] nombreMagique) {
+        this.niveauMin = niveauMin;
+        this.niveauMax = niveauMax;
+        this.niveauParDefaut = niveauParDefaut;
+        this.extensions = extensions;
+        this.nombreMagique = nombreMagique;
+    }
+
+    public int getNiveauMin() {
+        return niveauMin;
+    }
+
+    public int getNiveauMax() {
+        return niveauMax;
+    }
+
+    public int getNiveauParDefaut() {
+        return niveauParDefaut;
+    }
+
+    /**
+     * Compression déduite de l'extension : .gz/.gzip pour GZIP, .zst/.zstd pour ZSTD, AUCUNE sinon
+     */
+    public static Compression depuisExtension(String cheminFichier) {
+        String nom = cheminFichier.toLowerCase(Locale.ROOT);
+        for (Compression compression : values()) {
+            for (String extension : compression.extensions) {
+                if (nom.endsWith(extension)) {
+                    return compression;
+                }
+            }
+        }
+        return AUCUNE;
+    }
+
+    /**
+     * Chemin sans l'extension de compression (livres.ndjson.zst → livres.ndjson), pour en déduire le format
+     */
+    public static String sansExtension(String cheminFichier) {
+        Compression compression = depuisExtension(cheminFichier);
+        String nom = cheminFichier.toLowerCase(Locale.ROOT);
+        for (String extension : compression.extensions) {
+            if (nom.endsWith(extension)) {
+                return cheminFichier.substring(0, cheminFichier.length() - extension.length());
+            }
+        }
+        return cheminFichier;
+    }
+
+    /**
+     * Compression d'un flux d'après ses premiers octets ; le flux doit permettre mark/reset
+     * et il est replacé à son début
+     */
+    public static Compression detecter(InputStream entree) throws IOException {
+        if (!entree.markSupported()) {
+            throw new IllegalArgumentException("Le flux doit permettre mark/reset");
+        }
+        entree.mark(ZSTD.nombreMagique.length);
+        byte[] debut = entree.readNBytes(ZSTD.nombreMagique.length);
+        entree.reset();
+        for (Compression compression : values()) {
+            int longueur = compression.nombreMagique.length;
+            if (longueur > 0 && debut.length >= longueur
+                    && Arrays.equals(debut, 0, longueur, compression.nombreMagique, 0, longueur)) {
+                return compression;
+            }
+        }
+        return AUCUNE;
+    }
+
+    /**
+     * Flux qui compresse ce qui y est écrit vers sortie ; le fermer termine le fichier compressé et ferme sortie
+     * @throws IllegalArgumentException si le niveau est hors des bornes de l'algorithme
+     */
+    public OutputStream compresser(OutputStream sortie, int niveau) throws IOException {
+        verifierNiveau(niveau);
+        return switch (this) {
+            case AUCUNE -> sortie;
+            case GZIP -> new GZIPOutputStream(new BufferedOutputStream(sortie, TAILLE_TAMPON), TAILLE_TAMPON) {
+                {
+                    def.setLevel(niveau);
+                }
+            };
+            case ZSTD -> new ZstdOutputStream(new BufferedOutputStream(sortie, TAILLE_TAMPON), niveau);
+        };
+    }
+
+    /**
+     * Flux des données décompressées lues depuis entree
+     */
+    public InputStream decompresser(InputStream entree) throws IOException {
+        return switch (this) {
+            case AUCUNE -> entree;
+            case GZIP -> new GZIPInputStream(entree, TAILLE_TAMPON);
+            case ZSTD -> new ZstdInputStream(entree);
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException si le niveau est hors des bornes de l'algorithme
+     */
+    public void verifierNiveau(int niveau) {
+        if (niveau < niveauMin || niveau > niveauMax) {
+            throw new IllegalArgumentException("Niveau de compression " + name() + " invalide : " + niveau
+                    + " (attendu entre " + niveauMin + " et " + niveauMax + ")");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package fr.appsketch.Core;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Paramètres de connexion à la base et du pool de connexions
+ * Chaque clé est lue, par ordre de priorité, dans :
+ * la variable d'environnement (bibliotheque.pool.taille-max → BIBLIOTHEQUE_POOL_TAILLE_MAX),
+ * la propriété système (-Dbibliotheque.pool.taille-max=8), le fichier bibliotheque.properties
+ * du répertoire courant, puis la valeur par défaut.
+ */
+public class ConfigurationBase {
+
+    public static final String FICHIER = "bibliotheque.properties";
+
+    public static final String URL = "bibliotheque.db.url";
+    public static final String PROFIL_SQLITE = "bibliotheque.sqlite.profil";
+    public static final String MODE_SCHEMA = "bibliotheque.hibernate.schema";
+    public static final String JOURNAL_SQL = "bibliotheque.hibernate.journal-sql";
+    public static final String RAPPORT_DEMARRAGE = "bibliotheque.hibernate.rapport-demarrage";
+    public static final String CACHE_ACTIF = "bibliotheque.cache.actif";
+    public static final String CACHE_TAILLE_MAX = "bibliotheque.cache.taille-max";
+    public static final String CACHE_DUREE_VIE_S = "bibliotheque.cache.duree-vie-s";
+    public static final String CACHE_RECHERCHE_TAILLE_MAX = "bibliotheque.cache.recherche.taille-max";
+    public static final String CACHE_RECHERCHE_DUREE_VIE_S = "bibliotheque.cache.recherche.duree-vie-s";
+    public static final String VERROUS_SEGMENTS = "bibliotheque.verrous.segments";
+    public static final String VERROUS_EQUITABLES = "bibliotheque.verrous.equitables";
+    public static final String VERROUS_ATTENTE_MAX_MS = "bibliotheque.verrous.attente-max-ms";
+    public static final String EXPORT_NIVEAU_GZIP = "bibliotheque.export.gzip.niveau";
+    public static final String EXPORT_NIVEAU_ZSTD = "bibliotheque.export.zstd.niveau";
+    public static final String POOL_TAILLE_MAX = "bibliotheque.pool.taille-max";
+    public static final String POOL_INACTIFS_MIN = "bibliotheque.pool.inactifs-min";
+    public static final String POOL_DELAI_CONNEXION_MS = "bibliotheque.pool.delai-connexion-ms";
+    public static final String POOL_DELAI_INACTIVITE_MS = "bibliotheque.pool.delai-inactivite-ms";
+    public static final String POOL_DUREE_VIE_MAX_MS = "bibliotheque.pool.duree-vie-max-ms";
+    public static final String POOL_DETECTION_FUITE_MS = "bibliotheque.pool.detection-fuite-ms";
+
+    private final Properties fichier;
+    private final Properties systeme;
+    private final Map<String, String> environnement;
+
+    ConfigurationBase(Properties fichier, Properties systeme, Map<String, String> environnement) {
+        this.fichier = fichier;
+        this.systeme = systeme;
+        this.environnement = environnement;
+    }
+
+    /**
+     * Charge la configuration depuis l'environnement, les propriétés système et le fichier (s'il existe)
+     */
+    public static ConfigurationBase charger() {
+        Properties fichier = new Properties();
+        Path chemin = Path.of(System.getProperty("bibliotheque.config", FICHIER));
+        if (Files.isRegularFile(chemin)) {
+            try (Reader reader = new FileReader(chemin.toFile())) {
+                fichier.load(reader);
+            } catch (IOException e) {
+                throw new RuntimeException("Erreur lors de la lecture de " + chemin, e);
+            }
+        }
+        return new ConfigurationBase(fichier, System.getProperties(), System.getenv());
+    }
+
+    public String getUrl() {
+        return lire(URL, "jdbc:sqlite:test.db");
+    }
+
+    /**
+     * Traitement du schéma au démarrage : UPDATE (création/migration), VALIDATE (échec si le schéma
+     * ne correspond pas aux entités) ou NONE (aucune lecture du schéma, démarrage le plus rapide)
+     */
+    public enum ModeSchema {
+        UPDATE, VALIDATE, NONE;
+
+        public String valeurHibernate() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public ModeSchema getModeSchema() {
+        String valeur = lire(MODE_SCHEMA, ModeSchema.UPDATE.name());
+        try {
+            return ModeSchema.valueOf(valeur.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Mode de schéma inconnu pour " + MODE_SCHEMA + " : " + valeur);
+        }
+    }
+
+    // Affichage des requêtes SQL (hibernate.show_sql), désactivé par défaut
+    public boolean isJournalSql() {
+        return lireBooleen(JOURNAL_SQL, false);
+    }
+
+    // Affichage de la durée de chaque phase du démarrage d'Hibernate
+    public boolean isRapportDemarrage() {
+        return lireBooleen(RAPPORT_DEMARRAGE, false);
+    }
+
+    // Cache de second niveau d'Hibernate (voir CacheSecondNiveau)
+    public boolean isCacheActif() {
+        return lireBooleen(CACHE_ACTIF, true);
+    }
+
+    // Nombre maximal d'éléments par région de cache
+    public long getCacheTailleMax() {
+        return lireLong(CACHE_TAILLE_MAX, 10_000);
+    }
+
+    // Durée de vie d'un élément en cache depuis son écriture
+    public long getCacheDureeVieSecondes() {
+        return lireLong(CACHE_DUREE_VIE_S, 600);
+    }
+
+    // Nombre maximal de clés par cache de recherche ISBN/email (voir CacheRecherche)
+    public long getCacheRechercheTailleMax() {
+        return lireLong(CACHE_RECHERCHE_TAILLE_MAX, 10_000);
+    }
+
+    public long getCacheRechercheDureeVieSecondes() {
+        return lireLong(CACHE_RECHERCHE_DUREE_VIE_S, 600);
+    }
+
+    // Verrous par livre des emprunts et retours (voir VerrousSegmentes)
+    public int getVerrousSegments() {
+        return lireEntier(VERROUS_SEGMENTS, 64);
+    }
+
+    public boolean isVerrousEquitables() {
+        return lireBooleen(VERROUS_EQUITABLES, false);
+    }
+
+    public long getVerrousAttenteMaxMs() {
+        return lireLong(VERROUS_ATTENTE_MAX_MS, 5_000);
+    }
+
+    /**
+     * Niveau des exports compressés avec cet algorithme (voir Compression)
+     * @throws IllegalArgumentException si le niveau configuré est hors des bornes de l'algorithme
+     */
+    public int getNiveauCompression(Compression compression) {
+        String cle = switch (compression) {
+            case AUCUNE -> null;
+            case GZIP -> EXPORT_NIVEAU_GZIP;
+            case ZSTD -> EXPORT_NIVEAU_ZSTD;
+        };
+        if (cle == null) {
+            return compression.getNiveauParDefaut();
+        }
+        int niveau = lireEntier(cle, compression.getNiveauParDefaut());
+        if (niveau < compression.getNiveauMin() || niveau > compression.getNiveauMax()) {
+            throw new IllegalArgumentException("Niveau de compression invalide pour " + cle + " : " + niveau
+                    + " (attendu entre " + compression.getNiveauMin() + " et " + compression.getNiveauMax() + ")");
+        }
+        return niveau;
+    }
+
+    public ProfilSQLite getProfilSQLite() {
+        return ProfilSQLite.depuisNom(lire(PROFIL_SQLITE, ProfilSQLite.EQUILIBRE.name()));
+    }
+
+    // SQLite n'a qu'un écrivain à la fois : quelques connexions suffisent à servir les lectures en parallèle
+    public int getTaillePoolMax() {
+        return lireEntier(POOL_TAILLE_MAX, 4);
+    }
+
+    public int getInactifsMin() {
+        return lireEntier(POOL_INACTIFS_MIN, 1);
+    }
+
+    public long getDelaiConnexionMs() {
+        return lireLong(POOL_DELAI_CONNEXION_MS, 30_000);
+    }
+
+    public long getDelaiInactiviteMs() {
+        return lireLong(POOL_DELAI_INACTIVITE_MS, 600_000);
+    }
+
+    public long getDureeVieMaxMs() {
+        return lireLong(POOL_DUREE_VIE_MAX_MS, 1_800_000);
+    }
+
+    // 0 = détection des fuites de connexion désactivée
+    public long getDetectionFuiteMs() {
+        return lireLong(POOL_DETECTION_FUITE_MS, 0);
+    }
+
+    String lire(String cle, String defaut) {
+        String valeur = environnement.get(nomVariableEnvironnement(cle));
+        if (valeur == null) {
+            valeur = systeme.getProperty(cle);
+        }
+        if (valeur == null) {
+            valeur = fichier.getProperty(cle);
+        }
+        return valeur == null || valeur.isBlank() ? defaut : valeur.trim();
+    }
+
+    private boolean lireBooleen(String cle, boolean defaut) {
+        String valeur = lire(cle, null);
+        if (valeur == null) {
+            return defaut;
+        }
+        if (valeur.equalsIgnoreCase("true") || valeur.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(valeur);
+        }
+        throw new IllegalArgumentException("Valeur booléenne invalide pour " + cle + " : " + valeur);
+    }
+
+    private int lireEntier(String cle, int defaut) {
+        long valeur = lireLong(cle, defaut);
+        if (valeur < Integer.MIN_VALUE || valeur > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Valeur numérique invalide pour " + cle + " : " + valeur);
+        }
+        return (int) valeur;
+    }
+
+    private long lireLong(String cle, long defaut) {
+        String valeur = lire(cle, null);
+        if (valeur == null) {
+            return defaut;
+        }
+        try {
+            return Long.parseLong(valeur);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valeur numérique invalide pour " + cle + " : " + valeur);
+        }
+    }
+
+    static String nomVariableEnvironnement(String cle) {
+        return cle.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+}
@@ -0,0 +1,44 @@
+package fr.appsketch.Core;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Loi de Zipf sur les rangs 0..taille-1 : le rang k est tiré avec une probabilité proportionnelle à 1/(k+1)^exposant
+ * La fonction de répartition est calculée une fois ; chaque tirage est une recherche dichotomique.
+ */
+public class DistributionZipf {
+
+    private final double[] repartition;
+
+    public DistributionZipf(int taille, double exposant) {
+        if (taille <= 0) {
+            throw new IllegalArgumentException("La taille doit être positive : " + taille);
+        }
+        if (exposant < 0) {
+            throw new IllegalArgumentException("L'exposant doit être positif ou nul : " + exposant);
+        }
+        repartition = new double[taille];
+        double cumul = 0;
+        for (int rang = 0; rang < taille; rang++) {
+            cumul += 1 / Math.pow(rang + 1, exposant);
+            repartition[rang] = cumul;
+        }
+        for (int rang = 0; rang < taille; rang++) {
+            repartition[rang] /= cumul;
+        }
+    }
+
+    /**
+     * Tire un rang, 0 étant le plus fréquent
+     */
+    public int tirer(Random aleatoire) {
+        int position = Arrays.binarySearch(repartition, aleatoire.nextDouble());
+        int rang = position >= 0 ? position : -position - 1;
+        return Math.min(rang, repartition.length - 1);
+    }
+
+    public int taille() {
+        return repartition.length;
+    }
+}
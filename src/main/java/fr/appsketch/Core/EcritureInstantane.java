@@ -0,0 +1,164 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.BookDTO;
+import fr.appsketch.Core.InstantaneBibliotheque.Section;
+import fr.appsketch.Emprunt.EtatEmprunt;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Écriture séquentielle d'un instantané (format décrit dans InstantaneBibliotheque)
+ * Les sections sont écrites dans l'ordre LIVRES, UTILISATEURS, EMPRUNTS ; chacune peut être omise.
+ * La longueur et le nombre de lignes d'une section sont reportés dans son en-tête une fois la section terminée :
+ * les lignes sont écrites au fil de l'eau, sans être gardées en mémoire.
+ */
+final class EcritureInstantane implements Closeable {
+
+    private static final int TAILLE_TAMPON = 256 * 1024;
+
+    private final FileChannel canal;
+    private final DataOutputStream sortie;
+    private final Map<String, Integer> auteurs = new HashMap<>();
+    private final Map<String, Integer> categories = new HashMap<>();
+
+    private Section sectionCourante;
+    private Section derniereSection;
+    // Position de la longueur de la section courante dans le fichier
+    private long positionEntete;
+    private int lignes;
+
+    EcritureInstantane(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.sortie = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), TAILLE_TAMPON));
+        sortie.writeInt(InstantaneBibliotheque.MAGIE);
+        sortie.writeInt(InstantaneBibliotheque.VERSION);
+    }
+
+    /**
+     * Termine la section en cours et commence la suivante
+     * @throws IllegalStateException si la section ne suit pas la précédente dans l'ordre du format
+     */
+    void commencerSection(Section section) throws IOException {
+        terminerSection();
+        if (derniereSection != null && section.ordinal() <= derniereSection.ordinal()) {
+            throw new IllegalStateException("Section " + section + " écrite après " + derniereSection);
+        }
+        sortie.writeByte(section.getCode());
+        sortie.flush();
+        positionEntete = canal.position();
+        // Longueur et nombre de lignes, reportés par terminerSection
+        sortie.writeLong(0);
+        sortie.writeInt(0);
+        sectionCourante = section;
+        derniereSection = section;
+        lignes = 0;
+    }
+
+    void ecrireLivre(long id, BookDTO livre, boolean disponible) throws IOException {
+        verifierSection(Section.LIVRES);
+        sortie.writeLong(id);
+        ecrireChaine(livre.getTitre());
+        ecrireEntree(auteurs, livre.getAuteur());
+        ecrireDate(livre.getDatePublication());
+        ecrireChaine(livre.getIsbn());
+        ecrireEntree(categories, livre.getCategorie());
+        sortie.writeBoolean(disponible);
+        lignes++;
+    }
+
+    void ecrireUtilisateur(long id, String nom, String prenom, String email, String motDePasse) throws IOException {
+        verifierSection(Section.UTILISATEURS);
+        sortie.writeLong(id);
+        ecrireChaine(nom);
+        ecrireChaine(prenom);
+        ecrireChaine(email);
+        ecrireChaine(motDePasse);
+        lignes++;
+    }
+
+    void ecrireEmprunt(long id, long idUtilisateur, long idLivre, LocalDate dateEmprunt, EtatEmprunt etat)
+            throws IOException {
+        verifierSection(Section.EMPRUNTS);
+        sortie.writeLong(id);
+        sortie.writeLong(idUtilisateur);
+        sortie.writeLong(idLivre);
+        ecrireDate(dateEmprunt);
+        sortie.writeByte(InstantaneBibliotheque.codeEtat(etat));
+        lignes++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (canal) {
+            terminerSection();
+            sortie.flush();
+        }
+    }
+
+    private void terminerSection() throws IOException {
+        if (sectionCourante == null) {
+            return;
+        }
+        sortie.flush();
+        long longueur = canal.position() - positionEntete - InstantaneBibliotheque.TAILLE_ENTETE_SECTION;
+        ByteBuffer entete = ByteBuffer.allocate(InstantaneBibliotheque.TAILLE_ENTETE_SECTION)
+                .putLong(longueur)
+                .putInt(lignes)
+                .flip();
+        // Écriture positionnelle : la position d'écriture du canal reste en fin de fichier
+        while (entete.hasRemaining()) {
+            canal.write(entete, positionEntete + entete.position());
+        }
+        sectionCourante = null;
+    }
+
+    private void verifierSection(Section attendue) {
+        if (sectionCourante != attendue) {
+            throw new IllegalStateException("Ligne de la section " + attendue + " écrite hors de cette section");
+        }
+    }
+
+    private void ecrireChaine(String valeur) throws IOException {
+        if (valeur == null) {
+            sortie.writeInt(-1);
+            return;
+        }
+        byte[] octets = valeur.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    // Indice déjà attribué, ou indice suivant suivi de la valeur à sa première apparition
+    private void ecrireEntree(Map<String, Integer> dictionnaire, String valeur) throws IOException {
+        if (valeur == null) {
+            sortie.writeInt(-1);
+            return;
+        }
+        Integer indice = dictionnaire.get(valeur);
+        if (indice != null) {
+            sortie.writeInt(indice);
+            return;
+        }
+        int nouvelIndice = dictionnaire.size();
+        dictionnaire.put(valeur, nouvelIndice);
+        sortie.writeInt(nouvelIndice);
+        ecrireChaine(valeur);
+    }
+
+    private void ecrireDate(LocalDate date) throws IOException {
+        sortie.writeInt(date == null ? InstantaneBibliotheque.DATE_ABSENTE : Math.toIntExact(date.toEpochDay()));
+    }
+}
@@ -0,0 +1,73 @@
+package fr.appsketch.Core;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'identifiants en mémoire, une instance par entité
+ * Au premier appel, repart du plus grand identifiant présent dans la table, puis incrémente un compteur.
+ *
+ * La lecture passe par la connexion de la session : les générateurs à table ou à séquence émulée
+ * travaillent sur une connexion séparée, qui se heurte au verrou SQLite dès qu'une transaction
+ * d'écriture est ouverte. La base n'ayant qu'un processus écrivain, un compteur en mémoire suffit :
+ * HibernateManager prend un verrou exclusif sur la base au démarrage (VerrouBase), et un second processus
+ * (autre instance, chargement en ligne de commande) est refusé. Les chargements JDBC directs
+ * (GenerateurJeuDeDonnees, InstantaneBibliotheque) se font application arrêtée : le compteur repart
+ * du plus grand identifiant chargé au démarrage suivant.
+ */
+public class GenerateurIdentifiantSequentiel implements BeforeExecutionGenerator {
+
+    private final String requeteDernierId;
+    private final AtomicLong dernierId = new AtomicLong();
+    private volatile boolean initialise;
+
+    public GenerateurIdentifiantSequentiel(IdentifiantSequentiel annotation, Member membre,
+                                           GeneratorCreationContext contexte) {
+        this(contexte.getPersistentClass().getTable().getQuotedName(),
+                contexte.getProperty().getColumns().get(0).getQuotedName());
+    }
+
+    GenerateurIdentifiantSequentiel(String table, String colonne) {
+        this.requeteDernierId = "SELECT COALESCE(MAX(" + colonne + "), 0) FROM " + table;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        if (!initialise) {
+            initialiser(session);
+        }
+        return dernierId.incrementAndGet();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private synchronized void initialiser(SharedSessionContractImplementor session) {
+        if (initialise) {
+            return;
+        }
+        Connection connexion = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+        try (Statement statement = connexion.createStatement();
+             ResultSet resultat = statement.executeQuery(requeteDernierId)) {
+            resultat.next();
+            dernierId.set(resultat.getLong(1));
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la lecture du dernier identifiant", e);
+        }
+        initialise = true;
+    }
+}
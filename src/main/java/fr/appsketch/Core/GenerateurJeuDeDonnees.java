@@ -0,0 +1,400 @@
+package fr.appsketch.Core;
+
+import com.google.gson.stream.JsonWriter;
+import fr.appsketch.Book.Book;
+import fr.appsketch.Book.BookDTO;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Générateur de jeux de données réalistes et reproductibles (même graine → mêmes données)
+ * Auteurs et catégories suivent une loi de Zipf ; les emprunts couvrent plusieurs années,
+ * en privilégiant les livres et les lecteurs les plus populaires.
+ * Sortie : chargement direct dans la base SQLite configurée (livres, utilisateurs, emprunts)
+ * ou fichier JSON de livres lisible par BookManager.importerDepuisJson.
+ * <p>
+ * java -cp ... fr.appsketch.Core.GenerateurJeuDeDonnees --livres=1000000 --utilisateurs=100000 --emprunts=10000000
+ * [--graine=42] [--auteurs=50000] [--annees=5] [--json=livres.json]
+ */
+public class GenerateurJeuDeDonnees {
+
+    public static final List<String> MOTS = List.of(
+            "voyage", "nuit", "jardin", "mer", "histoire", "guerre", "amour", "ville", "secret", "montagne",
+            "silence", "hiver", "ombre", "royaume", "lumière", "rivière", "étoile", "mémoire", "chemin", "forêt",
+            "île", "feu", "vent", "enfance", "promesse", "miroir", "désert", "orage", "printemps", "horizon");
+    public static final List<String> CATEGORIES = List.of(
+            "Roman", "Policier", "Jeunesse", "Fantasy", "Science-fiction", "Histoire", "Biographie", "Essai",
+            "Bande dessinée", "Poésie", "Théâtre", "Cuisine", "Voyage", "Sciences", "Philosophie", "Art");
+    public static final List<String> NOMS = List.of(
+            "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+            "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux", "Vincent", "Fournier");
+    public static final List<String> PRENOMS = List.of(
+            "Jean", "Marie", "Pierre", "Julie", "Louis", "Camille", "Paul", "Léa", "Hugo", "Emma",
+            "Lucas", "Chloé", "Gabriel", "Manon", "Arthur", "Inès", "Jules", "Sarah", "Adam", "Alice");
+
+    // Fin par défaut de l'historique d'emprunts : fixe, pour que la graine suffise à reproduire les données
+    public static final LocalDate DATE_FIN_DEFAUT = LocalDate.of(2025, 12, 31);
+
+    // Popularité des livres et des lecteurs dans les emprunts (plus plate que celle des auteurs)
+    static final double EXPOSANT_POPULARITE = 0.7;
+    // Le dernier emprunt d'un livre reste en cours s'il date de moins de DUREE_PRET_JOURS
+    static final int DUREE_PRET_JOURS = 21;
+    // Lignes envoyées par executeBatch
+    static final int TAILLE_LOT = 10_000;
+
+    private final long graine;
+    private final int nombreLivres;
+    private final int nombreUtilisateurs;
+    private final long nombreEmprunts;
+    private int nombreAuteurs;
+    private int annees = 5;
+    private LocalDate dateFin = DATE_FIN_DEFAUT;
+    private double exposantZipf = 1.0;
+
+    public GenerateurJeuDeDonnees(long graine, int nombreLivres, int nombreUtilisateurs, long nombreEmprunts) {
+        if (nombreLivres < 0 || nombreUtilisateurs < 0 || nombreEmprunts < 0) {
+            throw new IllegalArgumentException("Les volumes à générer doivent être positifs");
+        }
+        if (nombreEmprunts > 0 && (nombreLivres == 0 || nombreUtilisateurs == 0)) {
+            throw new IllegalArgumentException("Des emprunts demandent au moins un livre et un utilisateur");
+        }
+        this.graine = graine;
+        this.nombreLivres = nombreLivres;
+        this.nombreUtilisateurs = nombreUtilisateurs;
+        this.nombreEmprunts = nombreEmprunts;
+        // Un auteur pour vingt livres en moyenne
+        this.nombreAuteurs = Math.max(1, nombreLivres / 20);
+    }
+
+    public GenerateurJeuDeDonnees avecAuteurs(int nombreAuteurs) {
+        if (nombreAuteurs <= 0) {
+            throw new IllegalArgumentException("Le nombre d'auteurs doit être positif : " + nombreAuteurs);
+        }
+        this.nombreAuteurs = nombreAuteurs;
+        return this;
+    }
+
+    public GenerateurJeuDeDonnees avecAnnees(int annees) {
+        if (annees <= 0) {
+            throw new IllegalArgumentException("L'historique doit couvrir au moins un an : " + annees);
+        }
+        this.annees = annees;
+        return this;
+    }
+
+    public GenerateurJeuDeDonnees avecDateFin(LocalDate dateFin) {
+        this.dateFin = dateFin;
+        return this;
+    }
+
+    public GenerateurJeuDeDonnees avecExposantZipf(double exposantZipf) {
+        this.exposantZipf = exposantZipf;
+        return this;
+    }
+
+    /**
+     * Fournit les livres dans l'ordre de génération (le n-ième livre reçoit l'ID n en base)
+     */
+    public void parcourirLivres(Consumer<BookDTO> consommateur) {
+        Random aleatoire = new Random(graine);
+        DistributionZipf auteurs = new DistributionZipf(nombreAuteurs, exposantZipf);
+        DistributionZipf categories = new DistributionZipf(CATEGORIES.size(), exposantZipf);
+        long joursPublication = ChronoUnit.DAYS.between(LocalDate.of(1850, 1, 1), dateFin);
+
+        for (int numero = 1; numero <= nombreLivres; numero++) {
+            consommateur.accept(new BookDTO(
+                    titre(aleatoire),
+                    nomAuteur(auteurs.tirer(aleatoire)),
+                    dateFin.minusDays((long) (aleatoire.nextDouble() * joursPublication)),
+                    isbn(numero),
+                    CATEGORIES.get(categories.tirer(aleatoire))));
+        }
+    }
+
+    /**
+     * Écrit les livres dans un fichier JSON au format de BookManager.importerDepuisJson
+     * @return Le nombre de livres écrits
+     */
+    public long ecrireJson(Path fichier) throws IOException {
+        try (Writer sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(sortie)) {
+            json.beginArray();
+            IOException[] erreur = new IOException[1];
+            parcourirLivres(livre -> {
+                if (erreur[0] != null) {
+                    return;
+                }
+                try {
+                    json.beginObject();
+                    json.name("titre").value(livre.getTitre());
+                    json.name("auteur").value(livre.getAuteur());
+                    json.name("datePublication").value(livre.getDatePublication().toString());
+                    json.name("isbn").value(livre.getIsbn());
+                    json.name("categorie").value(livre.getCategorie());
+                    json.endObject();
+                } catch (IOException e) {
+                    erreur[0] = e;
+                }
+            });
+            if (erreur[0] != null) {
+                throw erreur[0];
+            }
+            json.endArray();
+        }
+        return nombreLivres;
+    }
+
+    /**
+     * Charge livres, utilisateurs et emprunts dans la base configurée (schéma créé par Hibernate)
+     * La base doit être vide : les IDs générés commencent à 1.
+     * L'application doit être arrêtée : les lignes sont insérées sans passer par Hibernate, ni par les caches
+     * et compteurs d'identifiants de l'application. Refusé si la SessionFactory de ce processus est déjà
+     * ouverte, puis refermée à la fin (voir HibernateManager.executerChargementDirect).
+     */
+    public void chargerSQLite() {
+        HibernateManager.executerChargementDirect(connexion -> {
+            charger(connexion);
+            return null;
+        });
+    }
+
+    /**
+     * Insère le jeu de données par lots JDBC sur une connexion dont le schéma existe déjà
+     * Tout est inséré dans une seule transaction : en cas d'échec, la base reste vide et le chargement
+     * peut être relancé.
+     */
+    void charger(Connection connexion) throws SQLException {
+        verifierBaseVide(connexion);
+        boolean autoCommit = connexion.getAutoCommit();
+        connexion.setAutoCommit(false);
+        try {
+            chargerLivres(connexion);
+            chargerUtilisateurs(connexion);
+            chargerEmprunts(connexion);
+            marquerEmpruntsEnCours(connexion);
+            connexion.commit();
+        } catch (SQLException | RuntimeException e) {
+            connexion.rollback();
+            throw e;
+        } finally {
+            connexion.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void chargerLivres(Connection connexion) throws SQLException {
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Books (id, titre, auteur, date_publication, isbn, categorie, "
+                        + "titre_recherche, auteur_recherche, categorie_recherche, disponible) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long[] numero = {0};
+            SQLException[] erreur = new SQLException[1];
+            parcourirLivres(livre -> {
+                if (erreur[0] != null) {
+                    return;
+                }
+                try {
+                    insertion.setLong(1, ++numero[0]);
+                    insertion.setString(2, livre.getTitre());
+                    insertion.setString(3, livre.getAuteur());
+                    insertion.setDate(4, Date.valueOf(livre.getDatePublication()));
+                    insertion.setString(5, livre.getIsbn());
+                    insertion.setString(6, livre.getCategorie());
+                    insertion.setString(7, Book.normaliser(livre.getTitre()));
+                    insertion.setString(8, Book.normaliser(livre.getAuteur()));
+                    insertion.setString(9, Book.normaliser(livre.getCategorie()));
+                    insertion.setBoolean(10, true);
+                    ajouterAuLot(insertion, numero[0]);
+                } catch (SQLException e) {
+                    erreur[0] = e;
+                }
+            });
+            if (erreur[0] != null) {
+                throw erreur[0];
+            }
+            insertion.executeBatch();
+        }
+    }
+
+    private void chargerUtilisateurs(Connection connexion) throws SQLException {
+        Random aleatoire = new Random(graine + 1);
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Users (id, nom, prenom, email, motDePasse) VALUES (?, ?, ?, ?, ?)")) {
+            for (int numero = 1; numero <= nombreUtilisateurs; numero++) {
+                insertion.setLong(1, numero);
+                insertion.setString(2, NOMS.get(aleatoire.nextInt(NOMS.size())));
+                insertion.setString(3, PRENOMS.get(aleatoire.nextInt(PRENOMS.size())));
+                insertion.setString(4, email(numero));
+                insertion.setString(5, "motdepasse" + numero);
+                ajouterAuLot(insertion, numero);
+            }
+            insertion.executeBatch();
+        }
+    }
+
+    // Emprunts dans l'ordre chronologique, répartis uniformément sur les jours de l'historique
+    private void chargerEmprunts(Connection connexion) throws SQLException {
+        if (nombreEmprunts == 0) {
+            return;
+        }
+        Random aleatoire = new Random(graine + 2);
+        DistributionZipf livres = new DistributionZipf(nombreLivres, EXPOSANT_POPULARITE);
+        DistributionZipf lecteurs = new DistributionZipf(nombreUtilisateurs, EXPOSANT_POPULARITE);
+        LocalDate debut = dateFin.minusYears(annees).plusDays(1);
+        long jours = ChronoUnit.DAYS.between(debut, dateFin) + 1;
+        long parJour = nombreEmprunts / jours;
+        long reste = nombreEmprunts % jours;
+
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Emprunts (id, user_id, book_id, date_emprunt, etat) VALUES (?, ?, ?, ?, 'TERMINE')")) {
+            long numero = 0;
+            for (long jour = 0; jour < jours; jour++) {
+                Date date = Date.valueOf(debut.plusDays(jour));
+                long empruntsDuJour = parJour + (jour < reste ? 1 : 0);
+                for (long i = 0; i < empruntsDuJour; i++) {
+                    insertion.setLong(1, ++numero);
+                    insertion.setLong(2, 1 + lecteurs.tirer(aleatoire));
+                    insertion.setLong(3, 1 + livres.tirer(aleatoire));
+                    insertion.setDate(4, date);
+                    ajouterAuLot(insertion, numero);
+                }
+            }
+            insertion.executeBatch();
+        }
+    }
+
+    // Le dernier emprunt de chaque livre, s'il est récent, est encore en cours : le livre n'est pas disponible
+    private void marquerEmpruntsEnCours(Connection connexion) throws SQLException {
+        try (PreparedStatement enCours = connexion.prepareStatement(
+                "UPDATE Emprunts SET etat = 'EN_COURS' WHERE date_emprunt > ? "
+                        + "AND id = (SELECT MAX(e.id) FROM Emprunts e WHERE e.book_id = Emprunts.book_id)");
+             Statement indisponibles = connexion.createStatement()) {
+            enCours.setDate(1, Date.valueOf(dateFin.minusDays(DUREE_PRET_JOURS)));
+            enCours.executeUpdate();
+            indisponibles.executeUpdate(
+                    "UPDATE Books SET disponible = 0 WHERE id IN (SELECT book_id FROM Emprunts WHERE etat = 'EN_COURS')");
+        }
+    }
+
+    // Envoie le lot toutes les TAILLE_LOT lignes, sans valider : le commit revient à l'appelant
+    static void ajouterAuLot(PreparedStatement insertion, long numero) throws SQLException {
+        insertion.addBatch();
+        if (numero % TAILLE_LOT == 0) {
+            insertion.executeBatch();
+        }
+    }
+
+    static void verifierBaseVide(Connection connexion) throws SQLException {
+        try (Statement requete = connexion.createStatement()) {
+            for (String table : List.of("Books", "Users", "Emprunts")) {
+                try (ResultSet resultat = requete.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+                    if (resultat.next() && resultat.getBoolean(1)) {
+                        throw new IllegalStateException("La base cible n'est pas vide (table " + table + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    private static String titre(Random aleatoire) {
+        String premier = MOTS.get(aleatoire.nextInt(MOTS.size()));
+        String second = MOTS.get(aleatoire.nextInt(MOTS.size()));
+        return switch (aleatoire.nextInt(3)) {
+            case 0 -> capitaliser(premier);
+            case 1 -> capitaliser(premier) + " et " + second;
+            default -> "Le " + premier + " de la " + second;
+        };
+    }
+
+    private static String capitaliser(String mot) {
+        return Character.toUpperCase(mot.charAt(0)) + mot.substring(1);
+    }
+
+    /**
+     * Nom de l'auteur de rang donné (rang 0 : le plus prolifique)
+     */
+    static String nomAuteur(int rang) {
+        int combinaisons = PRENOMS.size() * NOMS.size();
+        String nom = PRENOMS.get(rang % PRENOMS.size()) + " " + NOMS.get((rang / PRENOMS.size()) % NOMS.size());
+        return rang < combinaisons ? nom : nom + " " + (rang / combinaisons + 1);
+    }
+
+    /**
+     * ISBN-13 valide (préfixe 979, clé de contrôle calculée), unique pour chaque numéro
+     */
+    static String isbn(long numero) {
+        String sansCle = String.format("979%09d", numero);
+        int somme = 0;
+        for (int i = 0; i < sansCle.length(); i++) {
+            int chiffre = sansCle.charAt(i) - '0';
+            somme += i % 2 == 0 ? chiffre : 3 * chiffre;
+        }
+        return sansCle + (10 - somme % 10) % 10;
+    }
+
+    /**
+     * Email de l'utilisateur de numéro (et d'ID) donné
+     */
+    public static String email(long numero) {
+        return "lecteur" + numero + "@bibliotheque.test";
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = lireOptions(args);
+        int livres = Integer.parseInt(options.getOrDefault("livres", "10000"));
+        GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(
+                Long.parseLong(options.getOrDefault("graine", "42")),
+                livres,
+                Integer.parseInt(options.getOrDefault("utilisateurs", String.valueOf(Math.max(1, livres / 10)))),
+                Long.parseLong(options.getOrDefault("emprunts", String.valueOf(livres))));
+        if (options.containsKey("auteurs")) {
+            generateur.avecAuteurs(Integer.parseInt(options.get("auteurs")));
+        }
+        if (options.containsKey("annees")) {
+            generateur.avecAnnees(Integer.parseInt(options.get("annees")));
+        }
+
+        long debut = System.nanoTime();
+        if (options.containsKey("json")) {
+            long ecrits = generateur.ecrireJson(Path.of(options.get("json")));
+            System.out.println("✓ " + ecrits + " livre(s) écrits dans " + options.get("json"));
+        } else {
+            try {
+                generateur.chargerSQLite();
+            } finally {
+                HibernateManager.shutdown();
+            }
+            System.out.println("✓ Jeu de données chargé dans " + ConfigurationBase.charger().getUrl());
+        }
+        System.out.printf("Durée : %d ms%n", (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    // Options de la forme --nom=valeur
+    private static Map<String, String> lireOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            int egal = argument.indexOf('=');
+            if (!argument.startsWith("--") || egal < 0) {
+                throw new IllegalArgumentException("Option invalide (attendu --nom=valeur) : " + argument);
+            }
+            options.put(argument.substring(2, egal), argument.substring(egal + 1));
+        }
+        return options;
+    }
+}
@@ -1,44 +1,224 @@
 package fr.appsketch.Core;
 
-import jakarta.persistence.Entity;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
-import org.hibernate.cfg.Configuration;
-import org.reflections.Reflections;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
 
-import java.util.Set;
+import javax.cache.CacheManager;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Point d'accès unique à la SessionFactory
+ * Elle est construite au premier appel de getSessionFactory() (et non au chargement de la classe),
+ * en phases chronométrées : configuration, index des entités, métadonnées, schéma, SessionFactory.
+ */
 public class HibernateManager {
-    private static final SessionFactory sessionFactory;
 
-    static {
+    // Nombre maximal d'instructions regroupées dans un lot JDBC
+    public static final int TAILLE_LOT_JDBC = 500;
+
+    // Noms des phases du rapport de démarrage
+    public static final String PHASE_CONFIGURATION = "configuration";
+    public static final String PHASE_ENTITES = "entités";
+    public static final String PHASE_METADONNEES = "métadonnées";
+    public static final String PHASE_SCHEMA = "schéma";
+    public static final String PHASE_SESSION_FACTORY = "SessionFactory";
+
+    private static volatile SessionFactory sessionFactory;
+    private static HikariDataSource dataSource;
+    private static CacheManager cacheManager;
+    private static VerrouBase verrouBase;
+    private static RapportDemarrage rapportDemarrage;
+
+    public static SessionFactory getSessionFactory() {
+        SessionFactory factory = sessionFactory;
+        if (factory == null) {
+            synchronized (HibernateManager.class) {
+                if (sessionFactory == null) {
+                    demarrer(ConfigurationBase.charger());
+                }
+                factory = sessionFactory;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Durées des phases du dernier démarrage (null si la SessionFactory n'a pas encore été construite)
+     */
+    public static synchronized RapportDemarrage getRapportDemarrage() {
+        return rapportDemarrage;
+    }
+
+    /**
+     * Succès/échecs du cache de second niveau, par région
+     */
+    public static List<StatistiquesCache> getStatistiquesCache() {
+        return CacheSecondNiveau.statistiques(getSessionFactory());
+    }
+
+    public static synchronized void shutdown() {
+        if (sessionFactory == null) {
+            return;
+        }
+        sessionFactory.close();
+        // Le pool et le gestionnaire de cache sont fournis à Hibernate, qui ne les ferme pas
+        dataSource.close();
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+        sessionFactory = null;
+        dataSource = null;
+        cacheManager = null;
+        liberer(verrouBase);
+        verrouBase = null;
+    }
+
+    /**
+     * Exécute un chargement JDBC direct (IDs explicites, sans passer par Hibernate) sur une SessionFactory
+     * ouverte pour l'occasion, puis la ferme : le cache de second niveau et les compteurs d'identifiants
+     * (GenerateurIdentifiantSequentiel) repartent des données chargées au démarrage suivant.
+     * Refusé si la SessionFactory est déjà ouverte dans ce processus, ou si un autre processus tient la base
+     * (VerrouBase) : l'application doit être arrêtée.
+     */
+    static synchronized <T> T executerChargementDirect(ReturningWork<T> travail) {
+        if (sessionFactory != null) {
+            throw new IllegalStateException(
+                    "Chargement direct impossible pendant que la base est ouverte par l'application");
+        }
+        try (Session session = getSessionFactory().openSession()) {
+            return session.doReturningWork(travail);
+        } finally {
+            shutdown();
+        }
+    }
+
+    // Un seul processus par base : les compteurs d'identifiants en dépendent (voir VerrouBase)
+    private static void demarrer(ConfigurationBase config) {
+        VerrouBase verrou = VerrouBase.acquerir(config.getUrl());
+        try {
+            demarrer(config, verrou);
+        } catch (RuntimeException e) {
+            liberer(verrou);
+            throw e;
+        }
+    }
+
+    private static void demarrer(ConfigurationBase config, VerrouBase verrou) {
         System.out.println("Initialisation de Hibernate...");
+        RapportDemarrage rapport = new RapportDemarrage();
+
+        // Connexions fournies par un pool HikariCP paramétrable (voir ConfigurationBase)
+        HikariDataSource pool = rapport.mesurer(PHASE_CONFIGURATION,
+                () -> new HikariDataSource(configurerPool(config)));
+        CacheManager caches = config.isCacheActif()
+                ? rapport.mesurer(PHASE_CONFIGURATION, () -> CacheSecondNiveau.creerCacheManager(config))
+                : null;
+        Map<String, Object> parametres = parametres(config, pool, caches);
+        StandardServiceRegistry registre = rapport.mesurer(PHASE_CONFIGURATION,
+                () -> new StandardServiceRegistryBuilder().applySettings(parametres).build());
+
+        try {
+            // Entités listées à la compilation (IndexEntitesProcesseur) : pas de scan du classpath au démarrage
+            List<Class<?>> entites = rapport.mesurer(PHASE_ENTITES, IndexEntites::charger);
+
+            Metadata metadata = rapport.mesurer(PHASE_METADONNEES, () -> {
+                MetadataSources sources = new MetadataSources(registre);
+                for (Class<?> entity : entites) {
+                    sources.addAnnotatedClass(entity);
+                }
+                return sources.buildMetadata();
+            });
 
-        Configuration configuration = new Configuration();
-        configuration.setProperty("hibernate.connection.driver_class", "org.sqlite.JDBC");
-        configuration.setProperty("hibernate.connection.url", "jdbc:sqlite:test.db");
-        configuration.setProperty("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect");
-        configuration.setProperty("hibernate.hbm2ddl.auto", "update");
-        configuration.setProperty("hibernate.show_sql", "true");
+            // Le schéma est traité ici plutôt que pendant la construction de la SessionFactory, pour être chronométré
+            rapport.executer(PHASE_SCHEMA, () -> {
+                Map<String, Object> parametresSchema = new HashMap<>(parametres);
+                parametresSchema.put("hibernate.hbm2ddl.auto", config.getModeSchema().valeurHibernate());
+                SchemaManagementToolCoordinator.process(metadata, registre, parametresSchema, action -> { });
+            });
 
-        Reflections reflections = new Reflections("fr.appsketch");
-        Set<Class<?>> entities = reflections.getTypesAnnotatedWith(Entity.class);
-        for (Class<?> entity : entities) {
-            configuration.addAnnotatedClass(entity);
-            System.out.println("Enregistré comme entité : " + entity.getName());
+            sessionFactory = rapport.mesurer(PHASE_SESSION_FACTORY, metadata::buildSessionFactory);
+        } catch (RuntimeException e) {
+            StandardServiceRegistryBuilder.destroy(registre);
+            pool.close();
+            if (caches != null) {
+                caches.close();
+            }
+            throw e;
         }
 
-        StandardServiceRegistryBuilder builder =
-                new StandardServiceRegistryBuilder().applySettings(configuration.getProperties());
+        dataSource = pool;
+        cacheManager = caches;
+        verrouBase = verrou;
+        rapportDemarrage = rapport;
+        if (config.isRapportDemarrage()) {
+            System.out.println(rapport);
+        }
+    }
 
-        sessionFactory = configuration.buildSessionFactory(builder.build());
+    private static void liberer(VerrouBase verrou) {
+        if (verrou == null) {
+            return;
+        }
+        try {
+            verrou.close();
+        } catch (IOException e) {
+            System.err.println("⚠ Verrou de la base non libéré : " + e.getMessage());
+        }
     }
 
-    public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+    static Map<String, Object> parametres(ConfigurationBase config, HikariDataSource pool, CacheManager caches) {
+        Map<String, Object> parametres = new HashMap<>();
+        parametres.put("hibernate.connection.datasource", pool);
+        parametres.put("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect");
+        // Traitement du schéma fait à part dans demarrer(), selon ConfigurationBase.getModeSchema()
+        parametres.put("hibernate.hbm2ddl.auto", "none");
+        // Ne lire les métadonnées que des tables mappées : les colonnes non typées de la table FTS5
+        // (Books_fts et ses tables internes) font échouer l'extraction globale du schéma
+        parametres.put("hibernate.hbm2ddl.jdbc_metadata_extraction_strategy", "individually");
+        parametres.put("hibernate.show_sql", String.valueOf(config.isJournalSql()));
+        // Regroupe les INSERT/UPDATE d'un flush en lots JDBC, triés par entité pour allonger les lots
+        // (possible car les identifiants sont attribués avant l'INSERT, voir IdentifiantSequentiel)
+        parametres.put("hibernate.jdbc.batch_size", String.valueOf(TAILLE_LOT_JDBC));
+        parametres.put("hibernate.order_inserts", "true");
+        parametres.put("hibernate.order_updates", "true");
+
+        // Cache de second niveau : entités et collections annotées @Cache, régions créées par CacheSecondNiveau
+        parametres.put("hibernate.cache.use_second_level_cache", String.valueOf(caches != null));
+        if (caches != null) {
+            parametres.put("hibernate.cache.region.factory_class", "jcache");
+            parametres.put("hibernate.javax.cache.cache_manager", caches);
+            parametres.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // Un emprunt créé ou supprimé sans passer par Book.emprunts doit quand même invalider cette collection
+            parametres.put("hibernate.cache.auto_evict_collection_cache", "true");
+            parametres.put("hibernate.generate_statistics", "true");
+        }
+        return parametres;
     }
 
-    public static void shutdown() {
-        sessionFactory.close();
+    static HikariConfig configurerPool(ConfigurationBase config) {
+        HikariConfig pool = new HikariConfig();
+        pool.setPoolName("bibliotheque");
+        pool.setDriverClassName("org.sqlite.JDBC");
+        pool.setJdbcUrl(config.getUrl());
+        // PRAGMA du profil (WAL, synchronous, cache...) appliqués par le pilote à chaque nouvelle connexion
+        pool.setDataSourceProperties(config.getProfilSQLite().proprietesConnexion());
+        pool.setMaximumPoolSize(config.getTaillePoolMax());
+        pool.setMinimumIdle(config.getInactifsMin());
+        pool.setConnectionTimeout(config.getDelaiConnexionMs());
+        pool.setIdleTimeout(config.getDelaiInactiviteMs());
+        pool.setMaxLifetime(config.getDureeVieMaxMs());
+        pool.setLeakDetectionThreshold(config.getDetectionFuiteMs());
+        return pool;
     }
 }
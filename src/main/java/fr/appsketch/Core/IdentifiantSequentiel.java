@@ -0,0 +1,18 @@
+package fr.appsketch.Core;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant attribué par l'application avant l'INSERT (voir GenerateurIdentifiantSequentiel)
+ * Contrairement à IDENTITY, Hibernate peut alors regrouper les INSERT en lots JDBC.
+ */
+@IdGeneratorType(GenerateurIdentifiantSequentiel.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdentifiantSequentiel {
+}
@@ -0,0 +1,62 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.Book;
+import fr.appsketch.Emprunt.Emprunt;
+import fr.appsketch.User.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Lecture de l'index des entités JPA généré à la compilation par IndexEntitesProcesseur
+ * Une compilation hors Maven (IDE, javac seul) ne lance pas le processeur : la liste déclarée
+ * ENTITES_DECLAREES est alors utilisée.
+ */
+public final class IndexEntites {
+
+    public static final String RESSOURCE = "META-INF/fr.appsketch/entites.idx";
+
+    // À tenir à jour avec les classes @Entity (IndexEntitesTest vérifie qu'elle correspond à l'index)
+    static final List<Class<?>> ENTITES_DECLAREES = List.of(Book.class, Emprunt.class, User.class);
+
+    private IndexEntites() {
+    }
+
+    /**
+     * Charge les classes listées dans l'index (un nom de classe par ligne), ou la liste déclarée sans index
+     */
+    public static List<Class<?>> charger() {
+        return charger(IndexEntites.class.getClassLoader());
+    }
+
+    static List<Class<?>> charger(ClassLoader classLoader) {
+        List<Class<?>> entites = new ArrayList<>();
+        try {
+            Enumeration<URL> index = classLoader.getResources(RESSOURCE);
+            while (index.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(index.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String ligne;
+                    while ((ligne = reader.readLine()) != null) {
+                        if (!ligne.isBlank()) {
+                            entites.add(Class.forName(ligne.trim(), false, classLoader));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Index des entités illisible : " + RESSOURCE, e);
+        }
+        if (entites.isEmpty()) {
+            System.out.println("⚠ Index des entités introuvable (" + RESSOURCE + ") : liste déclarée utilisée");
+            return ENTITES_DECLAREES;
+        }
+        return entites;
+    }
+}
@@ -0,0 +1,61 @@
+package fr.appsketch.Core;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Processeur d'annotations exécuté par javac : écrit la liste des classes @Entity
+ * dans la ressource IndexEntites.RESSOURCE, lue au démarrage à la place d'un scan du classpath
+ * (branché dans le pom, voir maven-compiler-plugin)
+ */
+@SupportedAnnotationTypes("jakarta.persistence.Entity")
+public class IndexEntitesProcesseur extends AbstractProcessor {
+
+    // Trié pour que l'index généré soit identique d'une compilation à l'autre
+    private final Set<String> entites = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                entites.add(((TypeElement) element).getQualifiedName().toString());
+            }
+        }
+        if (round.processingOver()) {
+            ecrireIndex();
+        }
+        return false;
+    }
+
+    private void ecrireIndex() {
+        try {
+            FileObject fichier = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", IndexEntites.RESSOURCE);
+            try (Writer writer = fichier.openWriter()) {
+                for (String entite : entites) {
+                    writer.write(entite);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Impossible d'écrire l'index des entités : " + e.getMessage());
+        }
+    }
+}
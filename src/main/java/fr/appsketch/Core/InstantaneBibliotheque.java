@@ -0,0 +1,315 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.Book;
+import fr.appsketch.Book.BookDTO;
+import fr.appsketch.Emprunt.EtatEmprunt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Instantané binaire du catalogue (livres, utilisateurs, emprunts), bien plus rapide à écrire et à relire
+ * que l'export JSON : pas d'analyse de texte, auteurs et catégories écrits une seule fois.
+ * <p>
+ * Format (entiers big-endian) :
+ * <ul>
+ *     <li>en-tête : nombre magique "BIBS", version (int)</li>
+ *     <li>sections LIVRES, UTILISATEURS, EMPRUNTS dans cet ordre, chacune facultative :
+ *     code (octet), longueur en octets (long), nombre de lignes (int), puis les lignes</li>
+ *     <li>chaîne : longueur UTF-8 (int, -1 pour null) puis les octets</li>
+ *     <li>date : jour depuis 1970-01-01 (int, Integer.MIN_VALUE pour null)</li>
+ *     <li>auteur et catégorie : indice dans un dictionnaire (int, -1 pour null), suivi de la chaîne
+ *     à la première apparition de l'indice</li>
+ * </ul>
+ * Un lecteur ignore les sections dont il ne connaît pas le code.
+ * <p>
+ * java -cp ... fr.appsketch.Core.InstantaneBibliotheque --sauvegarder=catalogue.bibs | --charger=catalogue.bibs
+ */
+public final class InstantaneBibliotheque {
+
+    static final int MAGIE = 0x42494253;
+    static final int VERSION = 1;
+    // Longueur (long) et nombre de lignes (int) qui suivent le code d'une section
+    static final int TAILLE_ENTETE_SECTION = Long.BYTES + Integer.BYTES;
+    static final int DATE_ABSENTE = Integer.MIN_VALUE;
+
+    enum Section {
+        LIVRES(1),
+        UTILISATEURS(2),
+        EMPRUNTS(3);
+
+        private final byte code;
+
+        Section(int code) {
+            this.code = (byte) code;
+        }
+
+        byte getCode() {
+            return code;
+        }
+
+        /**
+         * Section de code donné, null si le code est inconnu (section d'une version ultérieure)
+         */
+        static Section depuisCode(byte code) {
+            for (Section section : values()) {
+                if (section.code == code) {
+                    return section;
+                }
+            }
+            return null;
+        }
+    }
+
+    private InstantaneBibliotheque() {
+    }
+
+    /**
+     * Écrit le contenu de la base configurée dans un instantané
+     * La lecture se fait sur une connexion dédiée, hors du pool (dont les transactions prennent le verrou
+     * d'écriture dès leur début) : l'application peut continuer d'écrire pendant la sauvegarde.
+     */
+    public static BilanInstantane sauvegarder(Path fichier) {
+        ConfigurationBase config = ConfigurationBase.charger();
+        try (Connection connexion = DriverManager.getConnection(config.getUrl(),
+                config.getProfilSQLite().proprietesLecture())) {
+            return sauvegarder(connexion, fichier);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de la sauvegarde de l'instantané", e);
+        }
+    }
+
+    /**
+     * Charge un instantané dans la base configurée, qui doit être vide (les IDs sont conservés)
+     * L'application doit être arrêtée : les lignes sont insérées sans passer par Hibernate, ni par les caches
+     * et compteurs d'identifiants de l'application. Refusé si la SessionFactory de ce processus est déjà
+     * ouverte, puis refermée à la fin (voir HibernateManager.executerChargementDirect).
+     */
+    public static BilanInstantane charger(Path fichier) {
+        return HibernateManager.executerChargementDirect(connexion -> charger(connexion, fichier));
+    }
+
+    /**
+     * Écrit les trois tables dans une même transaction de lecture : l'instantané est cohérent
+     * même si la base est modifiée pendant l'écriture
+     * La connexion doit ouvrir ses transactions en mode différé (ProfilSQLite.proprietesLecture) :
+     * en mode IMMEDIATE, la sauvegarde bloquerait toutes les écritures jusqu'à sa fin.
+     * L'instantané est écrit dans un fichier temporaire, renommé à la fin : une sauvegarde interrompue
+     * ne laisse pas un instantané partiel lisible (et n'écrase pas le précédent).
+     */
+    static BilanInstantane sauvegarder(Connection connexion, Path fichier) throws SQLException {
+        Path temporaire = null;
+        try {
+            Path dossier = fichier.toAbsolutePath().getParent();
+            temporaire = Files.createTempFile(dossier, fichier.getFileName().toString(), ".tmp");
+            BilanInstantane bilan = ecrire(connexion, temporaire);
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return bilan;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de l'écriture de l'instantané " + fichier, e);
+        } finally {
+            supprimer(temporaire);
+        }
+    }
+
+    private static void supprimer(Path temporaire) {
+        if (temporaire == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporaire);
+        } catch (IOException e) {
+            System.out.println("⚠ Fichier temporaire non supprimé : " + temporaire);
+        }
+    }
+
+    private static BilanInstantane ecrire(Connection connexion, Path fichier) throws SQLException, IOException {
+        boolean autoCommit = connexion.getAutoCommit();
+        connexion.setAutoCommit(false);
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier);
+             Statement requete = connexion.createStatement()) {
+            long livres = 0;
+            ecriture.commencerSection(Section.LIVRES);
+            try (ResultSet resultat = requete.executeQuery("SELECT id, titre, auteur, date_publication, isbn, "
+                    + "categorie, disponible FROM Books ORDER BY id")) {
+                while (resultat.next()) {
+                    Date date = resultat.getDate(4);
+                    BookDTO livre = new BookDTO(resultat.getString(2), resultat.getString(3),
+                            date == null ? null : date.toLocalDate(), resultat.getString(5), resultat.getString(6));
+                    boolean disponible = resultat.getBoolean(7);
+                    // Disponible par défaut, comme Book.isDisponible
+                    ecriture.ecrireLivre(resultat.getLong(1), livre, disponible || resultat.wasNull());
+                    livres++;
+                }
+            }
+
+            long utilisateurs = 0;
+            ecriture.commencerSection(Section.UTILISATEURS);
+            try (ResultSet resultat = requete.executeQuery(
+                    "SELECT id, nom, prenom, email, motDePasse FROM Users ORDER BY id")) {
+                while (resultat.next()) {
+                    ecriture.ecrireUtilisateur(resultat.getLong(1), resultat.getString(2), resultat.getString(3),
+                            resultat.getString(4), resultat.getString(5));
+                    utilisateurs++;
+                }
+            }
+
+            long emprunts = 0;
+            ecriture.commencerSection(Section.EMPRUNTS);
+            try (ResultSet resultat = requete.executeQuery(
+                    "SELECT id, user_id, book_id, date_emprunt, etat FROM Emprunts ORDER BY id")) {
+                while (resultat.next()) {
+                    ecriture.ecrireEmprunt(resultat.getLong(1), resultat.getLong(2), resultat.getLong(3),
+                            resultat.getDate(4).toLocalDate(), EtatEmprunt.valueOf(resultat.getString(5)));
+                    emprunts++;
+                }
+            }
+            connexion.commit();
+            return new BilanInstantane(livres, utilisateurs, emprunts);
+        } catch (IOException | SQLException | RuntimeException e) {
+            connexion.rollback();
+            throw e;
+        } finally {
+            connexion.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Insère le contenu d'un instantané par lots JDBC, comme GenerateurJeuDeDonnees.charger
+     * Les trois tables sont chargées dans une seule transaction : un instantané corrompu ou une erreur
+     * en cours de route laissent la base vide, prête pour un nouvel essai.
+     */
+    static BilanInstantane charger(Connection connexion, Path fichier) throws SQLException {
+        try (LectureInstantane lecture = new LectureInstantane(fichier)) {
+            GenerateurJeuDeDonnees.verifierBaseVide(connexion);
+            boolean autoCommit = connexion.getAutoCommit();
+            connexion.setAutoCommit(false);
+            try {
+                long livres = chargerLivres(connexion, lecture);
+                long utilisateurs = chargerUtilisateurs(connexion, lecture);
+                long emprunts = chargerEmprunts(connexion, lecture);
+                connexion.commit();
+                return new BilanInstantane(livres, utilisateurs, emprunts);
+            } catch (SQLException | RuntimeException e) {
+                connexion.rollback();
+                throw e;
+            } finally {
+                connexion.setAutoCommit(autoCommit);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la lecture de l'instantané " + fichier, e);
+        }
+    }
+
+    private static long chargerLivres(Connection connexion, LectureInstantane lecture) throws SQLException {
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Books (id, titre, auteur, date_publication, isbn, categorie, "
+                        + "titre_recherche, auteur_recherche, categorie_recherche, disponible) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            // Les auteurs et catégories sont peu nombreux : leur forme normalisée n'est calculée qu'une fois
+            Map<String, String> normalises = new HashMap<>();
+            long[] numero = {0};
+            lecture.parcourirLivres((id, livre, disponible) -> {
+                insertion.setLong(1, id);
+                insertion.setString(2, livre.getTitre());
+                insertion.setString(3, livre.getAuteur());
+                insertion.setDate(4, livre.getDatePublication() == null ? null : Date.valueOf(livre.getDatePublication()));
+                insertion.setString(5, livre.getIsbn());
+                insertion.setString(6, livre.getCategorie());
+                insertion.setString(7, Book.normaliser(livre.getTitre()));
+                insertion.setString(8, normaliser(normalises, livre.getAuteur()));
+                insertion.setString(9, normaliser(normalises, livre.getCategorie()));
+                insertion.setBoolean(10, disponible);
+                GenerateurJeuDeDonnees.ajouterAuLot(insertion, ++numero[0]);
+            });
+            insertion.executeBatch();
+            return numero[0];
+        }
+    }
+
+    private static long chargerUtilisateurs(Connection connexion, LectureInstantane lecture) throws SQLException {
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Users (id, nom, prenom, email, motDePasse) VALUES (?, ?, ?, ?, ?)")) {
+            long[] numero = {0};
+            lecture.parcourirUtilisateurs((id, nom, prenom, email, motDePasse) -> {
+                insertion.setLong(1, id);
+                insertion.setString(2, nom);
+                insertion.setString(3, prenom);
+                insertion.setString(4, email);
+                insertion.setString(5, motDePasse);
+                GenerateurJeuDeDonnees.ajouterAuLot(insertion, ++numero[0]);
+            });
+            insertion.executeBatch();
+            return numero[0];
+        }
+    }
+
+    private static long chargerEmprunts(Connection connexion, LectureInstantane lecture) throws SQLException {
+        try (PreparedStatement insertion = connexion.prepareStatement(
+                "INSERT INTO Emprunts (id, user_id, book_id, date_emprunt, etat) VALUES (?, ?, ?, ?, ?)")) {
+            long[] numero = {0};
+            lecture.parcourirEmprunts((id, idUtilisateur, idLivre, dateEmprunt, etat) -> {
+                insertion.setLong(1, id);
+                insertion.setLong(2, idUtilisateur);
+                insertion.setLong(3, idLivre);
+                insertion.setDate(4, Date.valueOf(dateEmprunt));
+                insertion.setString(5, etat.name());
+                GenerateurJeuDeDonnees.ajouterAuLot(insertion, ++numero[0]);
+            });
+            insertion.executeBatch();
+            return numero[0];
+        }
+    }
+
+    private static String normaliser(Map<String, String> normalises, String valeur) {
+        return valeur == null ? null : normalises.computeIfAbsent(valeur, Book::normaliser);
+    }
+
+    // Codes stables dans le fichier, indépendants de l'ordre des constantes de l'énumération
+    static byte codeEtat(EtatEmprunt etat) {
+        return switch (etat) {
+            case EN_COURS -> 0;
+            case TERMINE -> 1;
+        };
+    }
+
+    static EtatEmprunt etatDepuisCode(byte code) {
+        return switch (code) {
+            case 0 -> EtatEmprunt.EN_COURS;
+            case 1 -> EtatEmprunt.TERMINE;
+            default -> throw new IllegalStateException("État d'emprunt inconnu dans l'instantané : " + code);
+        };
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1 || !(args[0].startsWith("--sauvegarder=") || args[0].startsWith("--charger="))) {
+            throw new IllegalArgumentException("Usage : --sauvegarder=fichier | --charger=fichier");
+        }
+        String fichier = args[0].substring(args[0].indexOf('=') + 1);
+        long debut = System.nanoTime();
+        BilanInstantane bilan;
+        try {
+            bilan = args[0].startsWith("--sauvegarder=")
+                    ? sauvegarder(Path.of(fichier))
+                    : charger(Path.of(fichier));
+        } finally {
+            HibernateManager.shutdown();
+        }
+        System.out.println("✓ " + bilan.getLivres() + " livre(s), " + bilan.getUtilisateurs() + " utilisateur(s), "
+                + bilan.getEmprunts() + " emprunt(s) : " + fichier);
+        System.out.printf("Durée : %d ms%n", (System.nanoTime() - debut) / 1_000_000);
+    }
+}
@@ -0,0 +1,199 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.BookDTO;
+import fr.appsketch.Core.InstantaneBibliotheque.Section;
+import fr.appsketch.Emprunt.EtatEmprunt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture d'un instantané (format décrit dans InstantaneBibliotheque) à travers une projection mémoire du fichier
+ * Chaque section est projetée séparément : les octets sont lus directement depuis le cache de pages du système,
+ * sans copie dans un tampon Java. Les sections inconnues (versions ultérieures) sont ignorées grâce à leur longueur.
+ */
+final class LectureInstantane implements Closeable {
+
+    @FunctionalInterface
+    interface LigneLivre<E extends Exception> {
+        void accepter(long id, BookDTO livre, boolean disponible) throws E;
+    }
+
+    @FunctionalInterface
+    interface LigneUtilisateur<E extends Exception> {
+        void accepter(long id, String nom, String prenom, String email, String motDePasse) throws E;
+    }
+
+    @FunctionalInterface
+    interface LigneEmprunt<E extends Exception> {
+        void accepter(long id, long idUtilisateur, long idLivre, LocalDate dateEmprunt, EtatEmprunt etat) throws E;
+    }
+
+    private final FileChannel canal;
+    private final Map<Section, ByteBuffer> contenus = new EnumMap<>(Section.class);
+    private final Map<Section, Integer> nombresLignes = new EnumMap<>(Section.class);
+
+    /**
+     * @throws IOException si le fichier n'est pas un instantané, est d'une version plus récente ou est tronqué
+     */
+    LectureInstantane(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        try {
+            lireSections(fichier);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private void lireSections(Path fichier) throws IOException {
+        long taille = canal.size();
+        ByteBuffer enTete = lire(0, 8, fichier);
+        if (enTete.getInt() != InstantaneBibliotheque.MAGIE) {
+            throw new IOException("Le fichier n'est pas un instantané de bibliothèque : " + fichier);
+        }
+        int version = enTete.getInt();
+        if (version < 1 || version > InstantaneBibliotheque.VERSION) {
+            throw new IOException("Version d'instantané non prise en charge : " + version);
+        }
+
+        long position = 8;
+        while (position < taille) {
+            ByteBuffer enTeteSection = lire(position, 1 + InstantaneBibliotheque.TAILLE_ENTETE_SECTION, fichier);
+            byte code = enTeteSection.get();
+            long longueur = enTeteSection.getLong();
+            int lignes = enTeteSection.getInt();
+            long debut = position + 1 + InstantaneBibliotheque.TAILLE_ENTETE_SECTION;
+            if (longueur < 0 || debut + longueur > taille) {
+                throw new IOException("Instantané tronqué : section de " + longueur + " octets à l'octet " + position);
+            }
+            Section section = Section.depuisCode(code);
+            if (section != null) {
+                if (longueur > Integer.MAX_VALUE) {
+                    throw new IOException("Section " + section + " trop grande pour être projetée : " + longueur);
+                }
+                contenus.put(section, canal.map(FileChannel.MapMode.READ_ONLY, debut, longueur));
+                nombresLignes.put(section, lignes);
+            }
+            position = debut + longueur;
+        }
+    }
+
+    private ByteBuffer lire(long position, int longueur, Path fichier) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(longueur);
+        while (tampon.hasRemaining()) {
+            if (canal.read(tampon, position + tampon.position()) < 0) {
+                throw new IOException("Instantané tronqué : " + fichier);
+            }
+        }
+        return tampon.flip();
+    }
+
+    /**
+     * Nombre de lignes de la section, 0 si elle est absente du fichier
+     */
+    int nombreLignes(Section section) {
+        return nombresLignes.getOrDefault(section, 0);
+    }
+
+    <E extends Exception> void parcourirLivres(LigneLivre<E> consommateur) throws E {
+        ByteBuffer contenu = contenu(Section.LIVRES);
+        List<String> auteurs = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        try {
+            for (int i = nombreLignes(Section.LIVRES); i > 0; i--) {
+                long id = contenu.getLong();
+                String titre = lireChaine(contenu);
+                String auteur = lireEntree(contenu, auteurs);
+                LocalDate datePublication = lireDate(contenu);
+                String isbn = lireChaine(contenu);
+                String categorie = lireEntree(contenu, categories);
+                boolean disponible = contenu.get() != 0;
+                consommateur.accepter(id, new BookDTO(titre, auteur, datePublication, isbn, categorie), disponible);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw corrompu(Section.LIVRES, e);
+        }
+    }
+
+    <E extends Exception> void parcourirUtilisateurs(LigneUtilisateur<E> consommateur) throws E {
+        ByteBuffer contenu = contenu(Section.UTILISATEURS);
+        try {
+            for (int i = nombreLignes(Section.UTILISATEURS); i > 0; i--) {
+                consommateur.accepter(contenu.getLong(), lireChaine(contenu), lireChaine(contenu),
+                        lireChaine(contenu), lireChaine(contenu));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw corrompu(Section.UTILISATEURS, e);
+        }
+    }
+
+    <E extends Exception> void parcourirEmprunts(LigneEmprunt<E> consommateur) throws E {
+        ByteBuffer contenu = contenu(Section.EMPRUNTS);
+        try {
+            for (int i = nombreLignes(Section.EMPRUNTS); i > 0; i--) {
+                consommateur.accepter(contenu.getLong(), contenu.getLong(), contenu.getLong(), lireDate(contenu),
+                        InstantaneBibliotheque.etatDepuisCode(contenu.get()));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw corrompu(Section.EMPRUNTS, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Les projections sont libérées par le ramasse-miettes ; fermer le canal ne les invalide pas
+        canal.close();
+    }
+
+    // Vue indépendante : une section peut être parcourue plusieurs fois
+    private ByteBuffer contenu(Section section) {
+        ByteBuffer contenu = contenus.get(section);
+        return contenu == null ? ByteBuffer.allocate(0) : contenu.duplicate();
+    }
+
+    private static String lireChaine(ByteBuffer contenu) {
+        int longueur = contenu.getInt();
+        if (longueur == -1) {
+            return null;
+        }
+        if (longueur < 0 || longueur > contenu.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] octets = new byte[longueur];
+        contenu.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // Indice d'une valeur déjà lue, ou indice suivant suivi de la nouvelle valeur
+    private static String lireEntree(ByteBuffer contenu, List<String> dictionnaire) {
+        int indice = contenu.getInt();
+        if (indice == -1) {
+            return null;
+        }
+        if (indice == dictionnaire.size()) {
+            dictionnaire.add(lireChaine(contenu));
+        }
+        return dictionnaire.get(indice);
+    }
+
+    private static LocalDate lireDate(ByteBuffer contenu) {
+        int jour = contenu.getInt();
+        return jour == InstantaneBibliotheque.DATE_ABSENTE ? null : LocalDate.ofEpochDay(jour);
+    }
+
+    private static IllegalStateException corrompu(Section section, RuntimeException cause) {
+        return new IllegalStateException("Instantané corrompu (section " + section + ")", cause);
+    }
+}
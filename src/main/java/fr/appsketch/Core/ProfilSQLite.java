@@ -0,0 +1,85 @@
+package fr.appsketch.Core;
+
+import org.sqlite.SQLiteConfig;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Réglages SQLite (PRAGMA) appliqués par le pilote à l'ouverture de chaque connexion
+ * Tous les profils utilisent le journal WAL : les lectures ne bloquent plus l'écriture en cours.
+ */
+public enum ProfilSQLite {
+
+    // Chaque commit est synchronisé sur disque : aucune transaction validée perdue en cas de coupure
+    DURABLE(SQLiteConfig.SynchronousMode.FULL, 16, SQLiteConfig.TempStore.DEFAULT, 0, 5_000),
+
+    // Synchronisation aux checkpoints seulement : une coupure peut perdre les derniers commits, jamais corrompre
+    EQUILIBRE(SQLiteConfig.SynchronousMode.NORMAL, 32, SQLiteConfig.TempStore.MEMORY, 256, 5_000),
+
+    // Imports volumineux : aucune synchronisation disque, cache large ; à réserver aux données rechargeables
+    CHARGEMENT_MASSIF(SQLiteConfig.SynchronousMode.OFF, 128, SQLiteConfig.TempStore.MEMORY, 256, 30_000);
+
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final int cacheMo;
+    private final SQLiteConfig.TempStore tempStore;
+    private final int mmapMo;
+    private final int busyTimeoutMs;
+
+    ProfilSQLite(SQLiteConfig.SynchronousMode synchronous, int cacheMo, SQLiteConfig.TempStore tempStore,
+                 int mmapMo, int busyTimeoutMs) {
+        this.synchronous = synchronous;
+        this.cacheMo = cacheMo;
+        this.tempStore = tempStore;
+        this.mmapMo = mmapMo;
+        this.busyTimeoutMs = busyTimeoutMs;
+    }
+
+    /**
+     * Propriétés de connexion du pilote sqlite-jdbc correspondant au profil
+     */
+    public Properties proprietesConnexion() {
+        SQLiteConfig config = configuration();
+        // BEGIN IMMEDIATE : une transaction prend le verrou d'écriture dès son début et attend busy_timeout.
+        // En différé, une transaction qui lit puis écrit échoue (SQLITE_BUSY_SNAPSHOT) si une autre connexion
+        // a validé entre-temps ; les lectures hors transaction (autocommit) ne sont pas concernées.
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        return config.toProperties();
+    }
+
+    /**
+     * Propriétés d'une connexion dédiée aux longues lectures (sauvegarde d'un instantané)
+     * Transactions différées : en WAL, une transaction qui ne fait que lire voit un état figé de la base
+     * sans prendre le verrou d'écriture, et ne bloque donc ni les emprunts ni les imports.
+     */
+    public Properties proprietesLecture() {
+        SQLiteConfig config = configuration();
+        config.setTransactionMode(SQLiteConfig.TransactionMode.DEFERRED);
+        return config.toProperties();
+    }
+
+    private SQLiteConfig configuration() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(synchronous);
+        // Une valeur négative de cache_size s'exprime en Kio
+        config.setCacheSize(-cacheMo * 1024);
+        config.setTempStore(tempStore);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapMo * 1024L * 1024L));
+        config.setBusyTimeout(busyTimeoutMs);
+        return config;
+    }
+
+    /**
+     * Retrouve un profil par son nom (durable, equilibre, chargement-massif), sans tenir compte de la casse
+     */
+    public static ProfilSQLite depuisNom(String nom) {
+        String normalise = nom.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (ProfilSQLite profil : values()) {
+            if (profil.name().equals(normalise)) {
+                return profil;
+            }
+        }
+        throw new IllegalArgumentException("Profil SQLite inconnu : " + nom);
+    }
+}
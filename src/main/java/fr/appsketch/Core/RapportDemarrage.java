@@ -0,0 +1,60 @@
+package fr.appsketch.Core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Durée de chaque phase du démarrage d'Hibernate, dans l'ordre d'exécution
+ */
+public class RapportDemarrage {
+
+    private final Map<String, Long> durees = new LinkedHashMap<>();
+
+    /**
+     * Exécute la phase et enregistre sa durée
+     */
+    public <T> T mesurer(String phase, Supplier<T> action) {
+        long debut = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            durees.merge(phase, (System.nanoTime() - debut) / 1_000_000, Long::sum);
+        }
+    }
+
+    public void executer(String phase, Runnable action) {
+        mesurer(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Durée de la phase en millisecondes (0 si elle n'a pas été exécutée)
+     */
+    public long getDureeMs(String phase) {
+        return durees.getOrDefault(phase, 0L);
+    }
+
+    public long getDureeTotaleMs() {
+        return durees.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Durées par phase, dans l'ordre d'exécution
+     */
+    public Map<String, Long> getDurees() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(durees));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rapport = new StringBuilder("Démarrage d'Hibernate :\n");
+        durees.forEach((phase, duree) ->
+                rapport.append(String.format("  %-16s %6d ms%n", phase, duree)));
+        rapport.append(String.format("  %-16s %6d ms", "total", getDureeTotaleMs()));
+        return rapport.toString();
+    }
+}
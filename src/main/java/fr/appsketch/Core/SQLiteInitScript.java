@@ -10,10 +10,12 @@ public class SQLiteInitScript {
     private static final Logger log = LoggerFactory.getLogger(SQLiteInitScript.class);
 
     public static void main(String[] args) {
-        String url = "jdbc:sqlite:test.db";
+        ConfigurationBase config = ConfigurationBase.charger();
+        ProfilSQLite profil = config.getProfilSQLite();
 
-        try (Connection ignored = DriverManager.getConnection(url)) {
-            System.out.println("Base SQLite et table créées avec succès !");
+        // Même profil que le pool de l'application : la base est créée directement en mode WAL
+        try (Connection ignored = DriverManager.getConnection(config.getUrl(), profil.proprietesConnexion())) {
+            System.out.println("Base SQLite et table créées avec succès ! (profil " + profil + ")");
 
         } catch (Exception e) {
             log.error("Database Exception: ", e);
@@ -0,0 +1,49 @@
+package fr.appsketch.Core;
+
+/**
+ * Compteurs d'une région de cache depuis le démarrage
+ */
+public class StatistiquesCache {
+
+    private final String region;
+    private final long succes;
+    private final long echecs;
+    private final long ajouts;
+
+    public StatistiquesCache(String region, long succes, long echecs, long ajouts) {
+        this.region = region;
+        this.succes = succes;
+        this.echecs = echecs;
+        this.ajouts = ajouts;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getSucces() {
+        return succes;
+    }
+
+    public long getEchecs() {
+        return echecs;
+    }
+
+    public long getAjouts() {
+        return ajouts;
+    }
+
+    /**
+     * Part des lectures servies par le cache, entre 0 et 1 (0 si aucune lecture)
+     */
+    public double getTauxSucces() {
+        long lectures = succes + echecs;
+        return lectures == 0 ? 0 : (double) succes / lectures;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s : %d succès, %d échecs, %d ajouts (%.1f %%)",
+                region, succes, echecs, ajouts, getTauxSucces() * 100);
+    }
+}
@@ -0,0 +1,82 @@
+package fr.appsketch.Core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compteurs de contention des verrous par livre depuis leur création (voir VerrousSegmentes)
+ */
+public class StatistiquesVerrous {
+
+    private final long acquisitions;
+    private final long acquisitionsAvecAttente;
+    private final long expirations;
+    private final long attenteTotaleNanos;
+    private final long attenteMaxNanos;
+    private final int longueurFile;
+    private final int longueurFileMax;
+
+    public StatistiquesVerrous(long acquisitions, long acquisitionsAvecAttente, long expirations,
+                               long attenteTotaleNanos, long attenteMaxNanos, int longueurFile, int longueurFileMax) {
+        this.acquisitions = acquisitions;
+        this.acquisitionsAvecAttente = acquisitionsAvecAttente;
+        this.expirations = expirations;
+        this.attenteTotaleNanos = attenteTotaleNanos;
+        this.attenteMaxNanos = attenteMaxNanos;
+        this.longueurFile = longueurFile;
+        this.longueurFileMax = longueurFileMax;
+    }
+
+    // Demandes de verrou, obtenues ou refusées
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    // Demandes qui ont trouvé le verrou déjà pris
+    public long getAcquisitionsAvecAttente() {
+        return acquisitionsAvecAttente;
+    }
+
+    // Demandes refusées après l'attente maximale
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getAttenteTotaleNanos() {
+        return attenteTotaleNanos;
+    }
+
+    public long getAttenteMaxNanos() {
+        return attenteMaxNanos;
+    }
+
+    // Threads en attente au moment de la lecture des compteurs
+    public int getLongueurFile() {
+        return longueurFile;
+    }
+
+    public int getLongueurFileMax() {
+        return longueurFileMax;
+    }
+
+    /**
+     * Part des demandes qui ont dû attendre, entre 0 et 1 (0 si aucune demande)
+     */
+    public double getTauxContention() {
+        return acquisitions == 0 ? 0 : (double) acquisitionsAvecAttente / acquisitions;
+    }
+
+    /**
+     * Attente moyenne des demandes qui ont attendu, en microsecondes (0 si aucune)
+     */
+    public double getAttenteMoyenneMicros() {
+        return acquisitionsAvecAttente == 0 ? 0 : attenteTotaleNanos / 1_000.0 / acquisitionsAvecAttente;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("verrous : %d demandes, %d avec attente (%.1f %%), %d refusées, "
+                        + "attente moyenne %.0f µs, max %d ms, file %d (max %d)",
+                acquisitions, acquisitionsAvecAttente, getTauxContention() * 100, expirations,
+                getAttenteMoyenneMicros(), TimeUnit.NANOSECONDS.toMillis(attenteMaxNanos), longueurFile, longueurFileMax);
+    }
+}
@@ -0,0 +1,110 @@
+package fr.appsketch.Core;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Unité de travail : un EntityManager de courte durée par opération et par thread
+ * Chaque opération des managers s'exécute dans obtenir/executer, qui ouvre un EntityManager, le rattache
+ * au thread le temps de l'opération, puis le ferme. Les opérations imbriquées réutilisent celui de l'appelant.
+ * Les repositories reçoivent entityManager(), qui délègue à l'EntityManager de l'opération en cours :
+ * plusieurs threads (bornes, traitements par lots) peuvent appeler les mêmes managers en parallèle.
+ */
+public final class UniteDeTravail {
+
+    private final EntityManagerFactory factory;
+    private final EntityManager partage;
+    private final ThreadLocal<EntityManager> courant = new ThreadLocal<>();
+    private final EntityManager entityManager;
+
+    private UniteDeTravail(EntityManagerFactory factory, EntityManager partage) {
+        this.factory = factory;
+        this.partage = partage;
+        this.entityManager = partage != null ? partage : creerDelegue();
+    }
+
+    /**
+     * Un EntityManager créé par la factory pour chaque opération
+     */
+    public static UniteDeTravail parOperation(EntityManagerFactory factory) {
+        return new UniteDeTravail(factory, null);
+    }
+
+    /**
+     * Toutes les opérations sur le même EntityManager, fourni et fermé par l'appelant (un seul thread)
+     */
+    public static UniteDeTravail partagee(EntityManager em) {
+        return new UniteDeTravail(null, em);
+    }
+
+    /**
+     * EntityManager à donner aux repositories : celui de l'opération en cours sur le thread appelant
+     */
+    public EntityManager entityManager() {
+        return entityManager;
+    }
+
+    /**
+     * Exécute l'opération dans une unité de travail et renvoie son résultat
+     * Une transaction laissée ouverte par l'opération est annulée avant la fermeture de l'EntityManager.
+     */
+    public <T> T obtenir(Supplier<T> operation) {
+        if (partage != null || courant.get() != null) {
+            return operation.get();
+        }
+        EntityManager em = factory.createEntityManager();
+        courant.set(em);
+        try {
+            return operation.get();
+        } finally {
+            courant.remove();
+            try {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    public void executer(Runnable operation) {
+        obtenir(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private EntityManager courantOuErreur() {
+        EntityManager em = courant.get();
+        if (em == null) {
+            throw new IllegalStateException("Aucune unité de travail en cours sur ce thread");
+        }
+        return em;
+    }
+
+    // Délégué vers l'EntityManager du thread ; sa fermeture appartient à obtenir()
+    private EntityManager creerDelegue() {
+        InvocationHandler delegation = (proxy, methode, arguments) -> switch (methode.getName()) {
+            case "equals" -> proxy == arguments[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "EntityManager de l'unité de travail courante";
+            case "close" -> null;
+            case "isOpen" -> courant.get() != null;
+            default -> {
+                try {
+                    yield methode.invoke(courantOuErreur(), arguments);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(), new Class<?>[]{EntityManager.class}, delegation);
+    }
+}
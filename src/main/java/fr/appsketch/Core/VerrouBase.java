@@ -0,0 +1,103 @@
+package fr.appsketch.Core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Verrou exclusif d'un processus sur une base SQLite, pris au démarrage d'Hibernate et rendu à l'arrêt
+ * Les compteurs de GenerateurIdentifiantSequentiel ne sont justes qu'avec un seul processus écrivain :
+ * un second processus sur le même fichier (autre instance, chargement en ligne de commande, fork JMH)
+ * est refusé au démarrage au lieu d'attribuer des IDs déjà pris.
+ *
+ * Le verrou porte sur un fichier à part (base + SUFFIXE) : SQLite pose ses propres verrous sur le fichier
+ * de base, et fermer un autre descripteur de ce fichier les libérerait.
+ */
+final class VerrouBase implements Closeable {
+
+    static final String SUFFIXE = ".verrou";
+    private static final String PREFIXE_URL = "jdbc:sqlite:";
+
+    private final FileChannel canal;
+    private final FileLock verrou;
+
+    private VerrouBase(FileChannel canal, FileLock verrou) {
+        this.canal = canal;
+        this.verrou = verrou;
+    }
+
+    /**
+     * Prend le verrou de la base désignée par l'URL JDBC (null pour une base en mémoire)
+     * @throws IllegalStateException si un autre processus tient déjà la base
+     */
+    static VerrouBase acquerir(String url) {
+        Path base = fichierBase(url);
+        if (base == null) {
+            return null;
+        }
+        Path fichier = Path.of(base + SUFFIXE);
+        FileChannel canal = null;
+        try {
+            canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock verrou = canal.tryLock();
+            if (verrou == null) {
+                throw new IllegalStateException("La base " + base + " est déjà ouverte par un autre processus");
+            }
+            return new VerrouBase(canal, verrou);
+        } catch (OverlappingFileLockException e) {
+            fermer(canal);
+            throw new IllegalStateException("La base " + base + " est déjà ouverte dans ce processus", e);
+        } catch (IOException e) {
+            fermer(canal);
+            throw new RuntimeException("Erreur lors du verrouillage de la base " + base, e);
+        } catch (RuntimeException e) {
+            fermer(canal);
+            throw e;
+        }
+    }
+
+    /**
+     * Fichier de la base désignée par l'URL JDBC SQLite, null pour une base en mémoire
+     */
+    static Path fichierBase(String url) {
+        if (url == null || !url.startsWith(PREFIXE_URL)) {
+            return null;
+        }
+        String chemin = url.substring(PREFIXE_URL.length());
+        if (chemin.startsWith("file:")) {
+            chemin = chemin.substring("file:".length());
+        }
+        int parametres = chemin.indexOf('?');
+        if (parametres >= 0) {
+            chemin = chemin.substring(0, parametres);
+        }
+        if (chemin.isEmpty() || chemin.startsWith(":memory:")) {
+            return null;
+        }
+        return Path.of(chemin).toAbsolutePath();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            verrou.release();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private static void fermer(FileChannel canal) {
+        if (canal == null) {
+            return;
+        }
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("⚠ Fichier de verrou non fermé : " + e.getMessage());
+        }
+    }
+}
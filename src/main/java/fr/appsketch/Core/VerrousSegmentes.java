@@ -0,0 +1,145 @@
+package fr.appsketch.Core;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Exclusion mutuelle par clé (ID de livre) répartie sur un nombre fixe de verrous (segments)
+ * Deux opérations sur le même livre s'exécutent l'une après l'autre ; deux livres différents ne s'attendent
+ * que s'ils tombent sur le même segment. Le nombre de segments borne la mémoire, quel que soit le nombre de livres.
+ * L'attente d'un verrou est bornée : au-delà, l'opération est refusée plutôt que de bloquer la borne.
+ */
+public class VerrousSegmentes {
+
+    private final ReentrantLock[] segments;
+    private final long attenteMaxNanos;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquisitionsAvecAttente = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final AtomicLong attenteMaxObserveeNanos = new AtomicLong();
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicInteger enAttenteMax = new AtomicInteger();
+
+    /**
+     * @param nombreSegments Nombre de verrous se partageant les clés
+     * @param equitable      Verrous servis dans l'ordre d'arrivée (débit moindre, aucune attente indéfiniment repoussée)
+     * @param attenteMax     Attente maximale d'un verrou
+     */
+    public VerrousSegmentes(int nombreSegments, boolean equitable, Duration attenteMax) {
+        if (nombreSegments < 1) {
+            throw new IllegalArgumentException("Le nombre de segments doit être positif : " + nombreSegments);
+        }
+        if (attenteMax.isNegative()) {
+            throw new IllegalArgumentException("L'attente maximale ne peut pas être négative : " + attenteMax);
+        }
+        this.segments = new ReentrantLock[nombreSegments];
+        for (int i = 0; i < nombreSegments; i++) {
+            segments[i] = new ReentrantLock(equitable);
+        }
+        this.attenteMaxNanos = attenteMax.toNanos();
+    }
+
+    /**
+     * Crée les verrous selon le nombre de segments, l'équité et l'attente maximale configurés
+     */
+    public static VerrousSegmentes depuisConfiguration(ConfigurationBase config) {
+        return new VerrousSegmentes(config.getVerrousSegments(), config.isVerrousEquitables(),
+                Duration.ofMillis(config.getVerrousAttenteMaxMs()));
+    }
+
+    /**
+     * Exécute l'opération en tenant le verrou de la clé, puis le relâche
+     * Réentrant : une opération peut en appeler une autre sur la même clé.
+     * @throws IllegalStateException si le verrou n'a pas pu être obtenu dans l'attente maximale
+     */
+    public <T> T executer(long cle, Supplier<T> operation) {
+        ReentrantLock verrou = segments[segment(cle)];
+        acquerir(verrou, cle);
+        try {
+            return operation.get();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    private void acquerir(ReentrantLock verrou, long cle) {
+        acquisitions.increment();
+        // Chemin rapide, sans mesure, quand le verrou est libre
+        if (obtenirSansAttente(verrou)) {
+            return;
+        }
+
+        acquisitionsAvecAttente.increment();
+        enAttenteMax.accumulateAndGet(enAttente.incrementAndGet(), Math::max);
+        long debut = System.nanoTime();
+        boolean obtenu = false;
+        try {
+            obtenu = verrou.tryLock(attenteMaxNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente du verrou interrompue pour la clé " + cle, e);
+        } finally {
+            long attente = System.nanoTime() - debut;
+            enAttente.decrementAndGet();
+            attenteTotaleNanos.add(attente);
+            attenteMaxObserveeNanos.accumulateAndGet(attente, Math::max);
+        }
+        if (!obtenu) {
+            expirations.increment();
+            throw new IllegalStateException("Opération en cours sur la clé " + cle + " depuis plus de "
+                    + TimeUnit.NANOSECONDS.toMillis(attenteMaxNanos) + " ms");
+        }
+    }
+
+    // tryLock() passerait devant les threads en attente d'un verrou équitable : tryLock(0) respecte leur ordre
+    private static boolean obtenirSansAttente(ReentrantLock verrou) {
+        if (!verrou.isFair()) {
+            return verrou.tryLock();
+        }
+        try {
+            return verrou.tryLock(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // L'attente qui suit constatera l'interruption
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Segment de la clé ; les bits sont mélangés pour que des IDs proches ou multiples du nombre de segments
+     * se répartissent aussi sur tous les segments
+     */
+    int segment(long cle) {
+        // Fonction de finalisation de MurmurHash3 (64 bits)
+        long melange = (cle ^ (cle >>> 33)) * 0xFF51AFD7ED558CCDL;
+        melange = (melange ^ (melange >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        melange ^= melange >>> 33;
+        return (int) Long.remainderUnsigned(melange, segments.length);
+    }
+
+    public int getNombreSegments() {
+        return segments.length;
+    }
+
+    /**
+     * Nombre de threads en attente d'un verrou, tous segments confondus (instantané)
+     */
+    public int longueurFile() {
+        return enAttente.get();
+    }
+
+    /**
+     * Acquisitions, attentes et refus depuis la création des verrous
+     */
+    public StatistiquesVerrous statistiques() {
+        return new StatistiquesVerrous(acquisitions.sum(), acquisitionsAvecAttente.sum(), expirations.sum(),
+                attenteTotaleNanos.sum(), attenteMaxObserveeNanos.get(), enAttente.get(), enAttenteMax.get());
+    }
+}
@@ -2,6 +2,10 @@ package fr.appsketch.Displays;
 
 import fr.appsketch.Book.Book;
 import fr.appsketch.Book.BookManager;
+import fr.appsketch.Book.BookSearchIndex;
+import fr.appsketch.Book.FormatLivres;
+import fr.appsketch.Book.RapportImport;
+import fr.appsketch.Core.Compression;
 import fr.appsketch.Emprunt.Emprunt;
 import fr.appsketch.Emprunt.EmpruntManager;
 import fr.appsketch.User.User;
@@ -26,6 +30,11 @@ public class BookDisplay {
     private Scanner scanner;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    // Nombre de livres chargés et affichés par page de résultats de recherche
+    private static final int TAILLE_PAGE = 20;
+    // Nombre de livres rejetés détaillés après un import
+    private static final int REJETS_AFFICHES = 10;
+
     public BookDisplay(BookManager bookManager, EmpruntManager empruntManager, UserManager userManager) {
         this.bookManager = bookManager;
         this.empruntManager = empruntManager;
@@ -58,6 +67,7 @@ public class BookDisplay {
             System.out.println("11. Rendre un livre");
             System.out.println("12. Exporter des livres");
             System.out.println("13. Importer des livres");
+            System.out.println("14. Recherche plein texte");
             System.out.println("0. Quitter");
             System.out.print("\nVotre choix : ");
 
@@ -103,6 +113,9 @@ public class BookDisplay {
                 case "13":
                     importerLivresJson();
                     break;
+                case "14":
+                    rechercherTexteIntegral();
+                    break;
                 case "0":
                     System.out.println("\n✓ Retour au menu principal...");
                     continuer = false;
@@ -289,13 +302,13 @@ public class BookDisplay {
         System.out.print("Titre recherché : ");
         String titre = scanner.nextLine().trim();
 
-        List<Book> resultats = bookManager.rechercherParTitre(titre);
+        long[] ids = bookManager.rechercherIds(BookSearchIndex.Champ.TITRE, titre);
 
-        if (resultats.isEmpty()) {
+        if (ids.length == 0) {
             System.out.println("\n✗ Aucun livre trouvé avec ce titre.");
         } else {
-            System.out.println("\n" + resultats.size() + " résultat(s) trouvé(s) :");
-            afficherListeLivres(resultats);
+            System.out.println("\n" + ids.length + " résultat(s) trouvé(s) :");
+            afficherResultatsPagines(ids);
         }
     }
 
@@ -304,13 +317,13 @@ public class BookDisplay {
         System.out.print("Auteur recherché : ");
         String auteur = scanner.nextLine().trim();
 
-        List<Book> resultats = bookManager.rechercherParAuteur(auteur);
+        long[] ids = bookManager.rechercherIds(BookSearchIndex.Champ.AUTEUR, auteur);
 
-        if (resultats.isEmpty()) {
+        if (ids.length == 0) {
             System.out.println("\n✗ Aucun livre trouvé pour cet auteur.");
         } else {
-            System.out.println("\n" + resultats.size() + " résultat(s) trouvé(s) :");
-            afficherListeLivres(resultats);
+            System.out.println("\n" + ids.length + " résultat(s) trouvé(s) :");
+            afficherResultatsPagines(ids);
         }
     }
 
@@ -319,12 +332,27 @@ public class BookDisplay {
         System.out.print("Catégorie recherchée : ");
         String categorie = scanner.nextLine().trim();
 
-        List<Book> resultats = bookManager.rechercherParCategorie(categorie);
+        long[] ids = bookManager.rechercherIds(BookSearchIndex.Champ.CATEGORIE, categorie);
 
-        if (resultats.isEmpty()) {
+        if (ids.length == 0) {
             System.out.println("\n✗ Aucun livre trouvé dans cette catégorie.");
         } else {
-            System.out.println("\n" + resultats.size() + " résultat(s) trouvé(s) :");
+            System.out.println("\n" + ids.length + " résultat(s) trouvé(s) :");
+            afficherResultatsPagines(ids);
+        }
+    }
+
+    private void rechercherTexteIntegral() {
+        System.out.println("\n--- RECHERCHE PLEIN TEXTE ---");
+        System.out.print("Mots recherchés (titre, auteur, catégorie, ISBN) : ");
+        String saisie = scanner.nextLine().trim();
+
+        List<Book> resultats = bookManager.rechercherTexteIntegral(saisie);
+
+        if (resultats.isEmpty()) {
+            System.out.println("\n✗ Aucun livre ne correspond à cette recherche.");
+        } else {
+            System.out.println("\n" + resultats.size() + " résultat(s) trouvé(s), par pertinence :");
             afficherListeLivres(resultats);
         }
     }
@@ -463,7 +491,7 @@ public class BookDisplay {
     private void exporterLivresJson() {
         System.out.println("\n--- EXPORTER LES LIVRES (JSON) ---");
 
-        System.out.print("Nom du fichier (ex: livres.json) : ");
+        System.out.print("Nom du fichier (ex: livres.json, livres.ndjson pour un livre par ligne, .gz ou .zst pour compresser) : ");
         String nomFichier = scanner.nextLine().trim();
 
         if (nomFichier.isEmpty()) {
@@ -471,9 +499,11 @@ public class BookDisplay {
             return;
         }
 
-        // Ajouter l'extension .json si elle n'est pas présente
-        if (!nomFichier.toLowerCase().endsWith(".json")) {
-            nomFichier += ".json";
+        // Ajouter l'extension .json si aucune extension JSON n'est présente (livres.gz → livres.json.gz)
+        String sansCompression = Compression.sansExtension(nomFichier);
+        if (!sansCompression.toLowerCase().endsWith(".json")
+                && FormatLivres.depuisExtension(sansCompression) != FormatLivres.NDJSON) {
+            nomFichier = sansCompression + ".json" + nomFichier.substring(sansCompression.length());
         }
 
         try {
@@ -489,7 +519,7 @@ public class BookDisplay {
     private void importerLivresJson() {
         System.out.println("\n--- IMPORTER DES LIVRES (JSON) ---");
 
-        System.out.print("Nom du fichier à importer (ex: livres.json) : ");
+        System.out.print("Nom du fichier à importer (ex: livres.json, livres.ndjson, livres.json.gz) : ");
         String nomFichier = scanner.nextLine().trim();
 
         if (nomFichier.isEmpty()) {
@@ -507,9 +537,22 @@ public class BookDisplay {
         }
 
         try {
-            int nbImportes = bookManager.importerDepuisJson(nomFichier);
+            RapportImport rapport = bookManager.importerDepuisJson(nomFichier);
             System.out.println("\n✓ Import réussi !");
-            System.out.println("📥 " + nbImportes + " livre(s) importé(s) avec succès.");
+            System.out.println("📥 " + rapport.getImportes() + " livre(s) importé(s) avec succès.");
+            if (rapport.getIgnores() > 0) {
+                System.out.println("⚠ " + rapport.getIgnores() + " livre(s) ignoré(s) (ISBN existant).");
+            }
+            if (rapport.getRejetes() > 0) {
+                System.out.println("⚠ " + rapport.getRejetes() + " livre(s) rejeté(s) :");
+                rapport.getLignesRejetees().stream()
+                        .limit(REJETS_AFFICHES)
+                        .forEach(rejet -> System.out.println("   - " + rejet));
+                if (rapport.getRejetes() > REJETS_AFFICHES) {
+                    System.out.println("   ... et " + (rapport.getRejetes() - REJETS_AFFICHES) + " autre(s)");
+                }
+            }
+            rapport.getStatistiques().forEach(statistiques -> System.out.println("⏱ " + statistiques));
         } catch (java.io.FileNotFoundException e) {
             System.err.println("\n✗ Fichier non trouvé : " + nomFichier);
         } catch (Exception e) {
@@ -517,6 +560,22 @@ public class BookDisplay {
         }
     }
 
+    // Ne charge que les livres de la page affichée
+    private void afficherResultatsPagines(long[] ids) {
+        int nbPages = (ids.length + TAILLE_PAGE - 1) / TAILLE_PAGE;
+        for (int page = 0; page < nbPages; page++) {
+            afficherListeLivres(bookManager.chargerLivres(ids, page * TAILLE_PAGE, TAILLE_PAGE));
+
+            if (page + 1 < nbPages) {
+                System.out.print("Page " + (page + 1) + "/" + nbPages + " - afficher la suite (oui/non) : ");
+                String reponse = scanner.nextLine().trim().toLowerCase();
+                if (!reponse.equals("oui") && !reponse.equals("o")) {
+                    break;
+                }
+            }
+        }
+    }
+
     private void afficherListeLivres(List<Book> livres) {
         System.out.println("\n" + "=".repeat(90));
         System.out.printf("%-5s %-35s %-25s %-15s %-15s%n",
@@ -545,16 +604,13 @@ public class BookDisplay {
         System.out.println("│ ISBN        : " + (book.getIsbn() != null ? book.getIsbn() : "N/A"));
         System.out.println("│ Catégorie   : " + (book.getCategorie() != null ? book.getCategorie() : "N/A"));
 
-        // Afficher le statut d'emprunt
-        if (book.isEmprunte()) {
+        // Afficher le statut d'emprunt : seul l'emprunt en cours est lu, pas l'historique du livre
+        Optional<Emprunt> empruntEnCours = empruntManager.getEmpruntEnCours(book);
+        if (empruntEnCours.isPresent()) {
+            Emprunt emprunt = empruntEnCours.get();
             System.out.println("│ Statut      : ✗ Emprunté");
-            // Afficher les informations de l'emprunteur si disponible
-            Optional<Emprunt> empruntEnCours = empruntManager.getEmpruntEnCours(book);
-            if (empruntEnCours.isPresent()) {
-                Emprunt emprunt = empruntEnCours.get();
-                System.out.println("│ Emprunteur  : " + emprunt.getUser().getPrenom() + " " + emprunt.getUser().getNom());
-                System.out.println("│ Depuis le   : " + emprunt.getDateEmprunt().format(dateFormatter));
-            }
+            System.out.println("│ Emprunteur  : " + emprunt.getUser().getPrenom() + " " + emprunt.getUser().getNom());
+            System.out.println("│ Depuis le   : " + emprunt.getDateEmprunt().format(dateFormatter));
         } else {
             System.out.println("│ Statut      : ✓ Disponible");
         }
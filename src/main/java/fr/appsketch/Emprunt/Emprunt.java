@@ -1,16 +1,27 @@
 package fr.appsketch.Emprunt;
 
 import fr.appsketch.Book.Book;
+import fr.appsketch.Core.CacheSecondNiveau;
+import fr.appsketch.Core.IdentifiantSequentiel;
 import fr.appsketch.User.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "Emprunts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheSecondNiveau.REGION_EMPRUNTS)
+@Table(name = "Emprunts", indexes = {
+        // Sert les tests d'existence "emprunt EN_COURS pour ce livre" (disponibilité, emprunt, retour)
+        @Index(name = "idx_emprunts_book_etat", columnList = "book_id, etat")
+})
 public class Emprunt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentifiantSequentiel
+    @Column(columnDefinition = "integer")
     private Long id;
 
     @ManyToOne
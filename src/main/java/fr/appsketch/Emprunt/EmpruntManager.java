@@ -1,13 +1,23 @@
 package fr.appsketch.Emprunt;
 
 import fr.appsketch.Book.Book;
+import fr.appsketch.Core.StatistiquesVerrous;
+import fr.appsketch.Core.UniteDeTravail;
+import fr.appsketch.Core.VerrousSegmentes;
 import fr.appsketch.User.User;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * Manager pour gérer la logique métier des emprunts
@@ -15,16 +25,43 @@ import java.util.Optional;
  */
 public class EmpruntManager {
 
+    // Tentatives d'une opération d'emprunt ou de retour en conflit avec une transaction concurrente
+    static final int TENTATIVES_MAX = 5;
+    private static final long PAUSE_REPRISE_MS = 20;
+
     private final EmpruntRepository empruntRepository;
+    // Chaque opération publique s'exécute dans sa propre unité de travail (voir UniteDeTravail)
+    private final UniteDeTravail uniteDeTravail;
+    // Verrous par livre optionnels : sans eux, seule la base départage deux opérations sur le même livre
+    private final VerrousSegmentes verrous;
     private final EntityManager em;
 
     public EmpruntManager(EmpruntRepository empruntRepository, EntityManager em) {
+        this(empruntRepository, UniteDeTravail.partagee(em));
+    }
+
+    /**
+     * Le repository doit avoir été créé avec uniteDeTravail.entityManager()
+     */
+    public EmpruntManager(EmpruntRepository empruntRepository, UniteDeTravail uniteDeTravail) {
+        this(empruntRepository, uniteDeTravail, null);
+    }
+
+    /**
+     * Les emprunts et retours d'un même livre sont exécutés l'un après l'autre, sous son verrou
+     */
+    public EmpruntManager(EmpruntRepository empruntRepository, UniteDeTravail uniteDeTravail,
+                          VerrousSegmentes verrous) {
         this.empruntRepository = empruntRepository;
-        this.em = em;
+        this.uniteDeTravail = uniteDeTravail;
+        this.verrous = verrous;
+        this.em = uniteDeTravail.entityManager();
     }
 
     /**
      * Emprunte un livre pour un utilisateur
+     * La vérification et l'insertion se font dans une même transaction d'écriture ; l'index unique des
+     * emprunts en cours rejette en dernier recours un second emprunt concurrent du même livre.
      */
     public Emprunt emprunterLivre(User user, Book book) {
         // Validation
@@ -34,7 +71,10 @@ public class EmpruntManager {
         if (book == null) {
             throw new IllegalArgumentException("Le livre est obligatoire");
         }
+        return sousVerrou(book, () -> avecReprise(() -> uniteDeTravail.obtenir(() -> emprunter(user, book))));
+    }
 
+    private Emprunt emprunter(User user, Book book) {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
@@ -48,10 +88,12 @@ public class EmpruntManager {
 
             Emprunt emprunt = new Emprunt(user, book, LocalDate.now());
             Emprunt savedEmprunt = empruntRepository.save(emprunt);
+            empruntRepository.majDisponibilite(book.getId(), false);
 
             em.flush(); // Force la synchronisation avec la base AVANT le commit
             transaction.commit();
             em.clear(); // Vide le cache de premier niveau APRÈS le commit
+            book.setDisponible(false);
 
             return savedEmprunt;
         } catch (IllegalArgumentException e) {
@@ -61,6 +103,7 @@ public class EmpruntManager {
             if (transaction.isActive()) {
                 transaction.rollback();
             }
+            em.clear();
             throw new RuntimeException("Erreur lors de l'emprunt du livre", e);
         }
     }
@@ -72,68 +115,223 @@ public class EmpruntManager {
         if (book == null) {
             throw new IllegalArgumentException("Le livre est obligatoire");
         }
+        sousVerrou(book, () -> avecReprise(() -> uniteDeTravail.obtenir(() -> {
+            rendre(book);
+            return null;
+        })));
+    }
 
-        // Trouver l'emprunt en cours pour ce livre
-        List<Emprunt> empruntsEnCours = empruntRepository.findEmpruntsEnCoursByBook(book);
-
-        if (empruntsEnCours.isEmpty()) {
-            throw new IllegalArgumentException("Ce livre n'est pas actuellement emprunté");
-        }
-
-        // Terminer le premier emprunt en cours trouvé
-        Emprunt emprunt = empruntsEnCours.get(0);
-        emprunt.setEtat(EtatEmprunt.TERMINE);
-
+    private void rendre(Book book) {
         EntityTransaction transaction = em.getTransaction();
         try {
             transaction.begin();
+
+            // Trouver l'emprunt en cours DANS la transaction : un retour concurrent ne peut plus
+            // rendre disponible un livre réemprunté entre-temps
+            List<Emprunt> empruntsEnCours = empruntRepository.findEmpruntsEnCoursByBook(book);
+            if (empruntsEnCours.isEmpty()) {
+                transaction.rollback();
+                throw new IllegalArgumentException("Ce livre n'est pas actuellement emprunté");
+            }
+
+            // Terminer le premier emprunt en cours trouvé
+            Emprunt emprunt = empruntsEnCours.get(0);
+            emprunt.setEtat(EtatEmprunt.TERMINE);
             empruntRepository.save(emprunt);
+            empruntRepository.majDisponibilite(book.getId(), true);
             em.flush(); // Force la synchronisation avec la base AVANT le commit
             transaction.commit();
             em.clear(); // Vide le cache de premier niveau APRÈS le commit
+            book.setDisponible(true);
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
             }
+            em.clear();
             throw new RuntimeException("Erreur lors du retour du livre", e);
         }
     }
 
+    // Verrou pris avant l'unité de travail : un thread en attente ne garde ni EntityManager ni connexion
+    private <T> T sousVerrou(Book book, Supplier<T> operation) {
+        if (verrous == null || book.getId() == null) {
+            return operation.get();
+        }
+        return verrous.executer(book.getId(), operation);
+    }
+
+    /**
+     * Rejoue l'opération quand elle échoue sur un conflit avec une transaction concurrente
+     * (base verrouillée au-delà de busy_timeout, violation de l'index unique des emprunts en cours)
+     * La tentative suivante relit l'état validé : le plus souvent, elle réussit ou signale le livre déjà emprunté.
+     */
+    static <T> T avecReprise(Supplier<T> operation) {
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return operation.get();
+            } catch (RuntimeException e) {
+                if (tentative >= TENTATIVES_MAX || !estConflit(e)) {
+                    throw e;
+                }
+                attendreAvantReprise(tentative, e);
+            }
+        }
+    }
+
+    static boolean estConflit(Throwable erreur) {
+        for (Throwable cause = erreur; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException
+                    || cause instanceof OptimisticLockException) {
+                return true;
+            }
+            // Le dialecte SQLite ne traduit pas toutes les erreurs : code résultat du pilote
+            // (les codes étendus gardent le code principal dans leur octet de poids faible)
+            if (cause instanceof SQLiteException sqlite) {
+                int code = sqlite.getResultCode().code;
+                int codePrincipal = code & 0xff;
+                return codePrincipal == SQLiteErrorCode.SQLITE_BUSY.code
+                        || codePrincipal == SQLiteErrorCode.SQLITE_LOCKED.code
+                        || code == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE.code;
+            }
+        }
+        return false;
+    }
+
+    // Attente aléatoire croissante : les transactions en conflit ne se représentent pas ensemble
+    private static void attendreAvantReprise(int tentative, RuntimeException erreur) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(PAUSE_REPRISE_MS * tentative + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw erreur;
+        }
+    }
+
+    /**
+     * Crée l'index unique des emprunts en cours s'il n'existe pas encore
+     * Les emprunts en cours en double d'une base existante sont d'abord terminés (le plus récent est gardé).
+     * @return Le nombre d'emprunts terminés
+     */
+    public int initialiserUniciteEmpruntsEnCours() {
+        return uniteDeTravail.obtenir(() -> {
+            if (empruntRepository.indexEmpruntEnCoursUniqueExiste()) {
+                return 0;
+            }
+
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                int termines = empruntRepository.terminerEmpruntsEnCoursEnDouble();
+                empruntRepository.creerIndexEmpruntEnCoursUnique();
+                transaction.commit();
+                em.clear();
+                return termines;
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors de la création de l'index des emprunts en cours", e);
+            }
+        });
+    }
+
+    /**
+     * Contention des verrous par livre depuis le démarrage (vide si le manager n'a pas de verrous)
+     */
+    public Optional<StatistiquesVerrous> getStatistiquesVerrous() {
+        return Optional.ofNullable(verrous).map(VerrousSegmentes::statistiques);
+    }
+
+    /**
+     * Compte les livres dont le drapeau de disponibilité est absent ou contredit les emprunts en cours
+     */
+    public long verifierDisponibilites() {
+        return uniteDeTravail.obtenir(empruntRepository::countDisponibilitesIncoherentes);
+    }
+
+    /**
+     * Recalcule les disponibilités au démarrage, seulement si des livres n'ont pas encore de drapeau
+     * (base migrée depuis l'ancien schéma) : sinon, une seule lecture et aucune écriture.
+     * Après un incident, la vérification et la correction restent explicites
+     * (verifierDisponibilites, reconstruireDisponibilites).
+     * @return Le nombre de livres corrigés
+     */
+    public int initialiserDisponibilites() {
+        return uniteDeTravail.obtenir(() -> {
+            if (!empruntRepository.existsDisponibiliteAbsente()) {
+                return 0;
+            }
+            return reconstruireDisponibilites();
+        });
+    }
+
+    /**
+     * Recalcule le drapeau de disponibilité des livres à partir des emprunts en cours
+     * (bases migrées depuis l'ancien schéma, ou corrections après incident)
+     * @return Le nombre de livres corrigés
+     */
+    public int reconstruireDisponibilites() {
+        return uniteDeTravail.obtenir(() -> {
+            EntityTransaction transaction = em.getTransaction();
+            try {
+                transaction.begin();
+                int corriges = empruntRepository.recalculerDisponibilites();
+                transaction.commit();
+                em.clear();
+                return corriges;
+            } catch (Exception e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw new RuntimeException("Erreur lors du recalcul des disponibilités", e);
+            }
+        });
+    }
+
     /**
      * Récupère tous les emprunts
      */
     public List<Emprunt> listerTousLesEmprunts() {
-        return empruntRepository.findAll();
+        return uniteDeTravail.obtenir(empruntRepository::findAll);
     }
 
     /**
      * Récupère les emprunts d'un utilisateur
      */
     public List<Emprunt> listerEmpruntsParUtilisateur(Long userId) {
-        if (userId == null) {
-            return List.of();
-        }
-        return empruntRepository.findByUserId(userId);
+        return uniteDeTravail.obtenir(() -> {
+            if (userId == null) {
+                return List.of();
+            }
+            return empruntRepository.findByUserId(userId);
+        });
     }
 
     /**
      * Récupère les emprunts d'un livre
      */
     public List<Emprunt> listerEmpruntsParLivre(Long bookId) {
-        if (bookId == null) {
-            return List.of();
-        }
-        return empruntRepository.findByBookId(bookId);
+        return uniteDeTravail.obtenir(() -> {
+            if (bookId == null) {
+                return List.of();
+            }
+            return empruntRepository.findByBookId(bookId);
+        });
     }
 
     /**
      * Récupère l'emprunt en cours d'un livre
      */
     public Optional<Emprunt> getEmpruntEnCours(Book book) {
-        if (book == null) {
-            return Optional.empty();
-        }
-        List<Emprunt> empruntsEnCours = empruntRepository.findEmpruntsEnCoursByBook(book);
-        return empruntsEnCours.isEmpty() ? Optional.empty() : Optional.of(empruntsEnCours.get(0));
+        return uniteDeTravail.obtenir(() -> {
+            if (book == null) {
+                return Optional.empty();
+            }
+            List<Emprunt> empruntsEnCours = empruntRepository.findEmpruntsEnCoursByBook(book);
+            return empruntsEnCours.isEmpty() ? Optional.empty() : Optional.of(empruntsEnCours.get(0));
+        });
     }
 }
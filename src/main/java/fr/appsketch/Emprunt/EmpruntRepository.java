@@ -3,6 +3,7 @@ package fr.appsketch.Emprunt;
 import fr.appsketch.Book.Book;
 import fr.appsketch.User.User;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +14,13 @@ import java.util.Optional;
  */
 public class EmpruntRepository {
 
+    private static final String EXISTE_EMPRUNT_EN_COURS =
+        "EXISTS (SELECT e.id FROM Emprunt e WHERE e.book = b AND e.etat = :etat)";
+
+    // Au plus un emprunt en cours par livre, garanti par SQLite même entre deux emprunts concurrents
+    // (index partiel : non exprimable par @Index, il est créé par creerIndexEmpruntEnCoursUnique)
+    static final String INDEX_EMPRUNT_EN_COURS = "idx_emprunts_en_cours_unique";
+
     private final EntityManager em;
 
     public EmpruntRepository(EntityManager em) {
@@ -74,6 +82,94 @@ public class EmpruntRepository {
         return query.getResultList();
     }
 
+    /**
+     * Met à jour le drapeau de disponibilité d'un livre
+     * Le livre est modifié comme entité (lu depuis le cache de second niveau le plus souvent) :
+     * un UPDATE JPQL en masse viderait toute la région de cache des livres à chaque emprunt.
+     * Book étant en @DynamicUpdate, seule la colonne disponible est écrite : une version lue avant
+     * une modification concurrente (titre, catégorie...) ne la remet pas à l'ancienne valeur.
+     * @return 1 si le livre existe, 0 sinon
+     */
+    public int majDisponibilite(Long bookId, boolean disponible) {
+        Book book = em.find(Book.class, bookId);
+        if (book == null) {
+            return 0;
+        }
+        book.setDisponible(disponible);
+        return 1;
+    }
+
+    /**
+     * Nombre de livres dont le drapeau de disponibilité ne reflète pas les emprunts en cours
+     */
+    public long countDisponibilitesIncoherentes() {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT COUNT(b) FROM Book b WHERE b.disponible IS NULL "
+                + "OR (b.disponible = true AND " + EXISTE_EMPRUNT_EN_COURS + ") "
+                + "OR (b.disponible = false AND NOT " + EXISTE_EMPRUNT_EN_COURS + ")", Long.class);
+        query.setParameter("etat", EtatEmprunt.EN_COURS);
+        return query.getSingleResult();
+    }
+
+    /**
+     * Indique si des livres n'ont pas encore de drapeau de disponibilité (lignes antérieures à la colonne)
+     * Sonde sur la colonne indexée, arrêtée à la première ligne trouvée
+     */
+    public boolean existsDisponibiliteAbsente() {
+        TypedQuery<Long> query = em.createQuery(
+            "SELECT b.id FROM Book b WHERE b.disponible IS NULL", Long.class);
+        query.setMaxResults(1);
+        return !query.getResultList().isEmpty();
+    }
+
+    /**
+     * Recalcule le drapeau des livres incohérents à partir des emprunts en cours
+     * @return Le nombre de livres corrigés
+     */
+    public int recalculerDisponibilites() {
+        int empruntes = em.createQuery(
+                "UPDATE Book b SET b.disponible = false "
+                    + "WHERE (b.disponible IS NULL OR b.disponible = true) AND " + EXISTE_EMPRUNT_EN_COURS)
+            .setParameter("etat", EtatEmprunt.EN_COURS)
+            .executeUpdate();
+        int disponibles = em.createQuery(
+                "UPDATE Book b SET b.disponible = true "
+                    + "WHERE (b.disponible IS NULL OR b.disponible = false) AND NOT " + EXISTE_EMPRUNT_EN_COURS)
+            .setParameter("etat", EtatEmprunt.EN_COURS)
+            .executeUpdate();
+        return empruntes + disponibles;
+    }
+
+    public boolean indexEmpruntEnCoursUniqueExiste() {
+        Query query = em.createNativeQuery(
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = ?1");
+        query.setParameter(1, INDEX_EMPRUNT_EN_COURS);
+        return ((Number) query.getSingleResult()).longValue() > 0;
+    }
+
+    /**
+     * Termine les emprunts en cours en double, en gardant le plus récent de chaque livre
+     * (préalable à la création de l'index unique, doit être appelé dans une transaction)
+     * @return Le nombre d'emprunts terminés
+     */
+    public int terminerEmpruntsEnCoursEnDouble() {
+        return em.createQuery(
+                "UPDATE Emprunt e SET e.etat = :termine WHERE e.etat = :enCours AND e.id NOT IN "
+                    + "(SELECT MAX(d.id) FROM Emprunt d WHERE d.etat = :enCours GROUP BY d.book)")
+            .setParameter("termine", EtatEmprunt.TERMINE)
+            .setParameter("enCours", EtatEmprunt.EN_COURS)
+            .executeUpdate();
+    }
+
+    /**
+     * Crée l'index unique partiel sur les emprunts en cours (doit être appelé dans une transaction)
+     */
+    public void creerIndexEmpruntEnCoursUnique() {
+        em.createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_EMPRUNT_EN_COURS
+                + " ON Emprunts(book_id) WHERE etat = '" + EtatEmprunt.EN_COURS.name() + "'")
+            .executeUpdate();
+    }
+
     public void deleteById(Long id) {
         findById(id).ifPresent(em::remove);
     }
@@ -1,8 +1,14 @@
 package fr.appsketch;
 
+import fr.appsketch.Book.BookFullTextRepository;
 import fr.appsketch.Book.BookManager;
 import fr.appsketch.Book.BookRepository;
+import fr.appsketch.Book.BookSearchIndex;
+import fr.appsketch.Core.CacheRecherche;
+import fr.appsketch.Core.ConfigurationBase;
 import fr.appsketch.Core.HibernateManager;
+import fr.appsketch.Core.UniteDeTravail;
+import fr.appsketch.Core.VerrousSegmentes;
 import fr.appsketch.Displays.BookDisplay;
 import fr.appsketch.Displays.UserDisplay;
 import fr.appsketch.Emprunt.EmpruntManager;
@@ -20,6 +26,7 @@ import java.util.Scanner;
 public class MyLibrary {
 
     private static Scanner scanner;
+    // EntityManager de l'opération en cours sur le thread appelant (voir UniteDeTravail)
     private static EntityManager em;
     private static BookManager bookManager;
     private static UserManager userManager;
@@ -36,7 +43,6 @@ public class MyLibrary {
         } finally {
             // Nettoyage des ressources
             scanner.close();
-            em.close();
             HibernateManager.shutdown();
             System.out.println("\n👋 Application fermée. À bientôt !");
         }
@@ -48,18 +54,49 @@ public class MyLibrary {
         System.out.println("╚════════════════════════════════════════════════╝");
         System.out.println("\n⏳ Initialisation en cours...");
 
-        // Création de l'EntityManager
-        em = HibernateManager.getSessionFactory().createEntityManager();
+        // Un EntityManager par opération : les managers peuvent être appelés depuis plusieurs threads
+        UniteDeTravail uniteDeTravail = UniteDeTravail.parOperation(HibernateManager.getSessionFactory());
+        em = uniteDeTravail.entityManager();
 
         // Initialisation des repositories
         BookRepository bookRepository = new BookRepository(em);
         UserRepository userRepository = new UserRepository(em);
         EmpruntRepository empruntRepository = new EmpruntRepository(em);
 
+        // Caches ISBN → ID et email → ID des scans de code-barres et connexions
+        ConfigurationBase config = ConfigurationBase.charger();
+        CacheRecherche cacheIsbn = CacheRecherche.depuisConfiguration("isbn", config);
+        CacheRecherche cacheEmail = CacheRecherche.depuisConfiguration("email", config);
+
         // Initialisation des managers
-        bookManager = new BookManager(bookRepository, em);
-        userManager = new UserManager(userRepository, em);
-        empruntManager = new EmpruntManager(empruntRepository, em);
+        bookManager = new BookManager(bookRepository, new BookFullTextRepository(em), new BookSearchIndex(),
+                cacheIsbn, uniteDeTravail, config::getNiveauCompression);
+        userManager = new UserManager(userRepository, cacheEmail, uniteDeTravail);
+        empruntManager = new EmpruntManager(empruntRepository, uniteDeTravail,
+                VerrousSegmentes.depuisConfiguration(config));
+
+        // Mise à niveau des livres créés avant l'ajout des colonnes de recherche
+        int livresNormalises = bookManager.normaliserChampsRecherche();
+        if (livresNormalises > 0) {
+            System.out.println("✓ Colonnes de recherche calculées pour " + livresNormalises + " livre(s)");
+        }
+        if (bookManager.supprimerIndexRechercheObsoletes() > 0) {
+            System.out.println("✓ Index inutilisés des colonnes de recherche supprimés");
+        }
+        bookManager.initialiserRechercheTexteIntegral();
+
+        // Au plus un emprunt en cours par livre, garanti par un index unique
+        int empruntsTermines = empruntManager.initialiserUniciteEmpruntsEnCours();
+        if (empruntsTermines > 0) {
+            System.out.println("✓ " + empruntsTermines + " emprunt(s) en cours en double terminé(s)");
+        }
+
+        // Calcul du drapeau de disponibilité des livres qui n'en ont pas encore (bases migrées)
+        int disponibilitesCorrigees = empruntManager.initialiserDisponibilites();
+        if (disponibilitesCorrigees > 0) {
+            System.out.println("✓ Disponibilité recalculée pour " + disponibilitesCorrigees + " livre(s)");
+        }
+        System.out.println("✓ Index de recherche construit (" + bookManager.construireIndexRecherche() + " livre(s))");
 
         System.out.println("✓ Application initialisée avec succès !\n");
     }
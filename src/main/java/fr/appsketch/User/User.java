@@ -1,16 +1,24 @@
 package fr.appsketch.User;
 
+import fr.appsketch.Core.CacheSecondNiveau;
+import fr.appsketch.Core.IdentifiantSequentiel;
 import fr.appsketch.Emprunt.Emprunt;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CacheSecondNiveau.REGION_UTILISATEURS)
 @Table(name = "Users")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @IdentifiantSequentiel
+    @Column(columnDefinition = "integer")
     private Long id;
 
     @Column(nullable = false)
@@ -1,5 +1,6 @@
 package fr.appsketch.User;
 
+import fr.appsketch.Emprunt.EtatEmprunt;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
@@ -39,6 +40,16 @@ public class UserRepository {
         return query.getResultStream().findFirst();
     }
 
+    /**
+     * ID de l'utilisateur ayant cet email, sans charger l'entité
+     */
+    public Optional<Long> findIdByEmail(String email) {
+        TypedQuery<Long> query = em.createQuery(
+                "SELECT u.id FROM User u WHERE u.email = :email", Long.class);
+        query.setParameter("email", email);
+        return query.getResultStream().findFirst();
+    }
+
     public boolean existsByEmail(String email) {
         TypedQuery<Long> query = em.createQuery(
                 "SELECT COUNT(u) FROM User u WHERE u.email = :email", Long.class);
@@ -46,6 +57,19 @@ public class UserRepository {
         return query.getSingleResult() > 0;
     }
 
+    /**
+     * Rend disponibles les livres que l'utilisateur a en cours d'emprunt
+     * (ses emprunts sont supprimés en cascade avec lui)
+     */
+    public int libererLivresEmpruntesPar(Long userId) {
+        return em.createQuery(
+                "UPDATE Book b SET b.disponible = true WHERE EXISTS "
+                        + "(SELECT e.id FROM Emprunt e WHERE e.book = b AND e.user.id = :userId AND e.etat = :etat)")
+                .setParameter("userId", userId)
+                .setParameter("etat", EtatEmprunt.EN_COURS)
+                .executeUpdate();
+    }
+
     public void deleteById(Long id) {
         findById(id).ifPresent(em::remove);
     }
@@ -0,0 +1,97 @@
+package fr.appsketch.Book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour BookFullTextRepository
+ * Utilise JUnit 5 et Mockito pour mocker EntityManager
+ */
+@ExtendWith(MockitoExtension.class)
+class BookFullTextRepositoryTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Query query;
+
+    private BookFullTextRepository fullTextRepository;
+
+    @BeforeEach
+    void setUp() {
+        fullTextRepository = new BookFullTextRepository(entityManager);
+    }
+
+    @Test
+    void testConstruireExpression_PlusieursMots() {
+        assertEquals("\"Harry\"* \"Potter\"*", BookFullTextRepository.construireExpression("Harry Potter"));
+    }
+
+    @Test
+    void testConstruireExpression_NeutraliseLesOperateurs() {
+        // Les guillemets, parenthèses et opérateurs FTS5 ne doivent pas être interprétés
+        assertEquals("\"tolkien\"* \"NOT\"* \"hobbit\"*",
+                BookFullTextRepository.construireExpression("tolkien NOT \"hobbit\")"));
+        assertEquals("\"978\"* \"2\"* \"07\"*", BookFullTextRepository.construireExpression("978-2-07"));
+    }
+
+    @Test
+    void testConstruireExpression_SaisieVide() {
+        assertNull(BookFullTextRepository.construireExpression(null));
+        assertNull(BookFullTextRepository.construireExpression("   "));
+        assertNull(BookFullTextRepository.construireExpression("--*"));
+    }
+
+    @Test
+    void testRechercherIds_ConvertitLesRowids() {
+        // Arrange
+        when(entityManager.createNativeQuery(startsWith("SELECT rowid FROM Books_fts"))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(3, 1L));
+
+        // Act
+        List<Long> ids = fullTextRepository.rechercherIds("\"dune\"*", 10);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), ids);
+        verify(query).setParameter(1, "\"dune\"*");
+        verify(query).setParameter(2, 10);
+    }
+
+    @Test
+    void testIndexExiste() {
+        // Arrange
+        when(entityManager.createNativeQuery(startsWith("SELECT COUNT(*) FROM sqlite_master"))).thenReturn(query);
+        when(query.getSingleResult()).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(fullTextRepository.indexExiste());
+        verify(query).setParameter(1, "Books_fts");
+    }
+
+    @Test
+    void testCreerIndex_CreeTableEtTriggers() {
+        // Arrange
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+
+        // Act
+        fullTextRepository.creerIndex();
+
+        // Assert : la table virtuelle puis un trigger par opération (insert, delete, update)
+        verify(entityManager).createNativeQuery(startsWith("CREATE VIRTUAL TABLE IF NOT EXISTS Books_fts"));
+        verify(entityManager, times(3)).createNativeQuery(startsWith("CREATE TRIGGER IF NOT EXISTS"));
+        verify(query, times(4)).executeUpdate();
+    }
+}
@@ -1,5 +1,8 @@
 package fr.appsketch.Book;
 
+import fr.appsketch.Core.CacheRecherche;
+import fr.appsketch.Core.Compression;
+import fr.appsketch.Core.UniteDeTravail;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,13 +11,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +44,9 @@ class BookManagerTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookFullTextRepository fullTextRepository;
+
     @Mock
     private EntityManager entityManager;
 
@@ -58,7 +74,7 @@ class BookManagerTest {
             return null;
         }).when(transaction).rollback();
 
-        bookManager = new BookManager(bookRepository, entityManager);
+        bookManager = new BookManager(bookRepository, fullTextRepository, entityManager);
     }
 
     @Test
@@ -254,6 +270,20 @@ class BookManagerTest {
         verify(bookRepository).findById(id);
     }
 
+    @Test
+    void testTrouverParIdAvecEmprunts() {
+        // Arrange
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+        when(bookRepository.findByIdAvecEmprunts(1L)).thenReturn(Optional.of(book));
+
+        // Act
+        Optional<Book> result = bookManager.trouverParIdAvecEmprunts(1L);
+
+        // Assert
+        assertEquals(Optional.of(book), result);
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
     @Test
     void testListerTousLesLivres() {
         // Arrange
@@ -287,7 +317,7 @@ class BookManagerTest {
 
         Book book3 = new Book("Livre 3", "Auteur 3", LocalDate.now(), "333", "Cat3");
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2, book3));
+        when(bookRepository.findDisponibles()).thenReturn(Arrays.asList(book1, book3));
 
         // Act
         List<Book> result = bookManager.listerLivresDisponibles();
@@ -296,6 +326,7 @@ class BookManagerTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertTrue(result.stream().noneMatch(Book::isEmprunte));
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
@@ -317,7 +348,7 @@ class BookManagerTest {
         emprunt3.setEtat(fr.appsketch.Emprunt.EtatEmprunt.EN_COURS);
         book3.addEmprunt(emprunt3);
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2, book3));
+        when(bookRepository.findEmpruntes()).thenReturn(Arrays.asList(book2, book3));
 
         // Act
         List<Book> result = bookManager.listerLivresEmpruntes();
@@ -326,16 +357,16 @@ class BookManagerTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertTrue(result.stream().allMatch(Book::isEmprunte));
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
     void testRechercherParTitre_TitreValide() {
         // Arrange
         Book book1 = new Book("Le Seigneur des Anneaux", "Tolkien", LocalDate.now(), "111", "Cat1");
-        Book book2 = new Book("Harry Potter", "Rowling", LocalDate.now(), "222", "Cat2");
         Book book3 = new Book("Le Hobbit", "Tolkien", LocalDate.now(), "333", "Cat3");
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2, book3));
+        when(bookRepository.findByTitreContenant("Le")).thenReturn(Arrays.asList(book1, book3));
 
         // Act
         List<Book> result = bookManager.rechercherParTitre("Le");
@@ -344,6 +375,7 @@ class BookManagerTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertTrue(result.stream().allMatch(b -> b.getTitre().toLowerCase().contains("le")));
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
@@ -361,10 +393,9 @@ class BookManagerTest {
     void testRechercherParAuteur_AuteurValide() {
         // Arrange
         Book book1 = new Book("Le Seigneur des Anneaux", "Tolkien", LocalDate.now(), "111", "Cat1");
-        Book book2 = new Book("Harry Potter", "Rowling", LocalDate.now(), "222", "Cat2");
         Book book3 = new Book("Le Hobbit", "Tolkien", LocalDate.now(), "333", "Cat3");
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2, book3));
+        when(bookRepository.findByAuteurContenant("Tolkien")).thenReturn(Arrays.asList(book1, book3));
 
         // Act
         List<Book> result = bookManager.rechercherParAuteur("Tolkien");
@@ -379,10 +410,9 @@ class BookManagerTest {
     void testRechercherParCategorie_CategorieValide() {
         // Arrange
         Book book1 = new Book("Livre 1", "Auteur 1", LocalDate.now(), "111", "Fantasy");
-        Book book2 = new Book("Livre 2", "Auteur 2", LocalDate.now(), "222", "Science-Fiction");
         Book book3 = new Book("Livre 3", "Auteur 3", LocalDate.now(), "333", "Fantasy");
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2, book3));
+        when(bookRepository.findByCategorieContenant("Fantasy")).thenReturn(Arrays.asList(book1, book3));
 
         // Act
         List<Book> result = bookManager.rechercherParCategorie("Fantasy");
@@ -393,6 +423,190 @@ class BookManagerTest {
         assertTrue(result.stream().allMatch(b -> b.getCategorie().toLowerCase().contains("fantasy")));
     }
 
+    @Test
+    void testRechercherTexteIntegral_ClasseParPertinence() {
+        // Arrange
+        Book book1 = new Book("Harry Potter", "J.K. Rowling", LocalDate.now(), "111", "Fantasy");
+        Book book2 = new Book("Les Animaux fantastiques", "J.K. Rowling", LocalDate.now(), "222", "Fantasy");
+        List<Long> ids = List.of(7L, 3L);
+
+        when(fullTextRepository.rechercherIds("\"rowling\"* \"fantasy\"*", BookManager.LIMITE_RECHERCHE_TEXTE))
+                .thenReturn(ids);
+        when(bookRepository.findAllById(ids)).thenReturn(List.of(book1, book2));
+
+        // Act
+        List<Book> result = bookManager.rechercherTexteIntegral("rowling fantasy");
+
+        // Assert
+        assertEquals(List.of(book1, book2), result);
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void testRechercherTexteIntegral_SaisieVide() {
+        // Act
+        List<Book> result = bookManager.rechercherTexteIntegral("  ");
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(fullTextRepository, never()).rechercherIds(anyString(), anyInt());
+    }
+
+    @Test
+    void testInitialiserRechercheTexteIntegral_CreeEtAlimenteLIndex() {
+        // Arrange
+        when(fullTextRepository.indexExiste()).thenReturn(false);
+
+        // Act
+        bookManager.initialiserRechercheTexteIntegral();
+
+        // Assert
+        verify(fullTextRepository).creerIndex();
+        verify(fullTextRepository).reconstruireIndex();
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testInitialiserRechercheTexteIntegral_IndexDejaPresent() {
+        // Arrange
+        when(fullTextRepository.indexExiste()).thenReturn(true);
+
+        // Act
+        bookManager.initialiserRechercheTexteIntegral();
+
+        // Assert
+        verify(fullTextRepository, never()).creerIndex();
+        verify(transaction, never()).begin();
+    }
+
+    @Test
+    void testRechercherIds_SansIndex_RequeteSql() {
+        // Arrange
+        when(bookRepository.findIdsContenant(BookSearchIndex.Champ.TITRE, "otter")).thenReturn(List.of(2L, 5L));
+
+        // Act
+        long[] result = bookManager.rechercherIds(BookSearchIndex.Champ.TITRE, "otter");
+
+        // Assert
+        assertArrayEquals(new long[]{2L, 5L}, result);
+    }
+
+    @Test
+    void testChargerLivres_UniquementLaPageDemandee() {
+        // Arrange
+        long[] ids = {1L, 2L, 3L, 4L, 5L};
+        Book book = new Book("Livre 3", "Auteur", LocalDate.now(), "333", "Cat");
+        when(bookRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(book));
+
+        // Act
+        List<Book> result = bookManager.chargerLivres(ids, 2, 2);
+
+        // Assert
+        assertEquals(List.of(book), result);
+        assertTrue(bookManager.chargerLivres(ids, 5, 2).isEmpty());
+    }
+
+    @Test
+    void testAvecIndex_ConstruireEtRechercherSansFindAll() {
+        // Arrange
+        BookSearchIndex index = new BookSearchIndex();
+        BookManager managerIndexe = new BookManager(bookRepository, fullTextRepository, index, entityManager);
+        when(bookRepository.streamChampsIndexables()).thenReturn(java.util.stream.Stream.of(
+                new Object[]{1L, "Harry Potter", "J.K. Rowling", "Fantasy"},
+                new Object[]{2L, "Dune", "Frank Herbert", "Science-Fiction"}));
+        Book harry = new Book("Harry Potter", "J.K. Rowling", LocalDate.now(), "111", "Fantasy");
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(harry));
+
+        // Act
+        int indexes = managerIndexe.construireIndexRecherche();
+        List<Book> result = managerIndexe.rechercherParTitre("otter");
+
+        // Assert
+        assertEquals(2, indexes);
+        assertEquals(List.of(harry), result);
+        verify(bookRepository, never()).findAll();
+        verify(bookRepository, never()).findByTitreContenant(anyString());
+    }
+
+    @Test
+    void testAvecIndex_AjoutEtSuppressionMettentAJourLIndex() {
+        // Arrange
+        BookSearchIndex index = new BookSearchIndex();
+        BookManager managerIndexe = new BookManager(bookRepository, fullTextRepository, index, entityManager);
+        Book saved = new Book("Fondation", "Isaac Asimov", LocalDate.now(), "111", "Science-Fiction");
+        saved.setId(8L);
+        when(bookRepository.existsByIsbn("111")).thenReturn(false);
+        when(bookRepository.save(any(Book.class))).thenReturn(saved);
+        when(bookRepository.findById(8L)).thenReturn(Optional.of(saved));
+
+        // Act & Assert
+        managerIndexe.ajouterLivre("Fondation", "Isaac Asimov", LocalDate.now(), "111", "Science-Fiction");
+        assertArrayEquals(new long[]{8L}, managerIndexe.rechercherIds(BookSearchIndex.Champ.AUTEUR, "asimov"));
+
+        managerIndexe.supprimerLivre(8L);
+        assertEquals(0, managerIndexe.rechercherIds(BookSearchIndex.Champ.AUTEUR, "asimov").length);
+    }
+
+    @Test
+    void testNormaliserChampsRecherche_LivresAnciens() {
+        // Arrange
+        Book ancien = new Book("Dune", "Frank Herbert", LocalDate.now(), "111", "Science-Fiction");
+        when(bookRepository.findSansChampsRecherche()).thenReturn(List.of(ancien));
+
+        // Act
+        int result = bookManager.normaliserChampsRecherche();
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals("dune", ancien.getTitreRecherche());
+        assertEquals("frank herbert", ancien.getAuteurRecherche());
+        assertEquals("science-fiction", ancien.getCategorieRecherche());
+        verify(transaction).commit();
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void testSupprimerIndexRechercheObsoletes_SupprimeLesIndexTrouves() {
+        // Arrange
+        when(bookRepository.findIndexRechercheObsoletes())
+                .thenReturn(List.of("idx_books_titre_recherche", "idx_books_auteur_recherche"));
+
+        // Act
+        int result = bookManager.supprimerIndexRechercheObsoletes();
+
+        // Assert
+        assertEquals(2, result);
+        verify(bookRepository).supprimerIndex("idx_books_titre_recherche");
+        verify(bookRepository).supprimerIndex("idx_books_auteur_recherche");
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testSupprimerIndexRechercheObsoletes_AucunIndex_SansTransaction() {
+        // Arrange
+        when(bookRepository.findIndexRechercheObsoletes()).thenReturn(List.of());
+
+        // Act
+        int result = bookManager.supprimerIndexRechercheObsoletes();
+
+        // Assert
+        assertEquals(0, result);
+        verify(transaction, never()).begin();
+    }
+
+    @Test
+    void testNormaliserChampsRecherche_RienAFaire() {
+        // Arrange
+        when(bookRepository.findSansChampsRecherche()).thenReturn(List.of());
+
+        // Act
+        int result = bookManager.normaliserChampsRecherche();
+
+        // Assert
+        assertEquals(0, result);
+        verify(transaction, never()).begin();
+    }
+
     @Test
     void testIsbnExiste_IsbnExiste() {
         // Arrange
@@ -434,10 +648,11 @@ class BookManagerTest {
     @Test
     void testExporterVersJson_Success() throws IOException {
         // Arrange
-        Book book1 = new Book("Livre 1", "Auteur 1", LocalDate.of(2020, 1, 1), "111", "Cat1");
-        Book book2 = new Book("Livre 2", "Auteur 2", LocalDate.of(2021, 2, 2), "222", "Cat2");
+        BookDTO book1 = new BookDTO("Livre 1", "Auteur 1", LocalDate.of(2020, 1, 1), "111", "Cat1");
+        BookDTO book2 = new BookDTO("Livre 2", "Auteur 2", LocalDate.of(2021, 2, 2), null, "Cat2");
+        AtomicBoolean fluxFerme = new AtomicBoolean();
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2));
+        when(bookRepository.streamPourExport()).thenReturn(Stream.of(book1, book2).onClose(() -> fluxFerme.set(true)));
 
         File tempFile = File.createTempFile("test_export", ".json");
         tempFile.deleteOnExit();
@@ -445,10 +660,26 @@ class BookManagerTest {
         // Act
         bookManager.exporterVersJson(tempFile.getAbsolutePath());
 
-        // Assert
-        assertTrue(tempFile.exists());
-        assertTrue(tempFile.length() > 0);
-        verify(bookRepository).findAll();
+        // Assert : tableau indenté comme l'ancien export, ISBN absent omis
+        String contenu = Files.readString(tempFile.toPath());
+        assertEquals("""
+                [
+                  {
+                    "titre": "Livre 1",
+                    "auteur": "Auteur 1",
+                    "datePublication": "2020-01-01",
+                    "isbn": "111",
+                    "categorie": "Cat1"
+                  },
+                  {
+                    "titre": "Livre 2",
+                    "auteur": "Auteur 2",
+                    "datePublication": "2021-02-02",
+                    "categorie": "Cat2"
+                  }
+                ]""", contenu);
+        assertTrue(fluxFerme.get());
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
@@ -480,17 +711,19 @@ class BookManagerTest {
             writer.write(jsonContent);
         }
 
-        when(bookRepository.existsByIsbn(anyString())).thenReturn(false);
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
         when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
-        int result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
 
         // Assert
-        assertEquals(2, result);
+        assertEquals(2, result.getImportes());
+        assertEquals(0, result.getIgnores());
         verify(transaction).begin();
         verify(transaction).commit();
         verify(bookRepository, times(2)).save(any(Book.class));
+        verify(bookRepository, never()).existsByIsbn(anyString());
     }
 
     @Test
@@ -515,30 +748,109 @@ class BookManagerTest {
             writer.write(jsonContent);
         }
 
-        when(bookRepository.existsByIsbn("111")).thenReturn(true);
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of("111"));
 
         // Act
-        int result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
 
         // Assert
-        assertEquals(0, result);
+        assertEquals(0, result.getImportes());
+        assertEquals(1, result.getIgnores());
         verify(bookRepository, never()).save(any(Book.class));
     }
 
+    @Test
+    void testImporterDepuisJson_IsbnEnDoubleDansLeFichier_IgnoreLeSecond() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_doublon", ".json");
+        tempFile.deleteOnExit();
+
+        String jsonContent = """
+                [
+                  {"titre": "Original", "auteur": "A", "isbn": "111"},
+                  {"titre": "Doublon", "auteur": "B", "isbn": "111"},
+                  {"titre": "Sans ISBN", "auteur": "C"}
+                ]
+                """;
+
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write(jsonContent);
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(2, result.getImportes());
+        assertEquals(1, result.getIgnores());
+        verify(bookRepository, times(1)).findIsbnsExistants(anyCollection());
+    }
+
     @Test
     void testImporterDepuisJson_FichierInexistant() throws IOException {
         // Act
-        int result = bookManager.importerDepuisJson("fichier_inexistant.json");
+        RapportImport result = bookManager.importerDepuisJson("fichier_inexistant.json");
 
         // Assert
-        assertEquals(0, result);
+        assertEquals(0, result.getImportes());
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void testImporterDepuisJson_ParLots_FlushEtClearParLot() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_lots", ".json");
+        tempFile.deleteOnExit();
+
+        int nombreLivres = BookManager.TAILLE_LOT_IMPORT * 2 + 1;
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("[");
+            for (int i = 0; i < nombreLivres; i++) {
+                if (i > 0) {
+                    writer.write(",");
+                }
+                writer.write("{\"titre\":\"Livre " + i + "\",\"auteur\":\"Auteur\",\"isbn\":\"" + i + "\"}");
+            }
+            writer.write("]");
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(nombreLivres, result.getImportes());
+        verify(bookRepository, times(3)).findIsbnsExistants(anyCollection());
+        verify(transaction).begin();
+        verify(transaction).commit();
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testImporterDepuisJson_FichierVide() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_vide", ".json");
+        tempFile.deleteOnExit();
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(0, result.getImportes());
+        verify(transaction, never()).begin();
         verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
     void testExporterVersJson_ListeVide() throws IOException {
         // Arrange
-        when(bookRepository.findAll()).thenReturn(List.of());
+        when(bookRepository.streamPourExport()).thenReturn(Stream.empty());
 
         File tempFile = File.createTempFile("test_export_vide", ".json");
         tempFile.deleteOnExit();
@@ -547,8 +859,271 @@ class BookManagerTest {
         bookManager.exporterVersJson(tempFile.getAbsolutePath());
 
         // Assert
-        assertTrue(tempFile.exists());
-        verify(bookRepository).findAll();
+        assertEquals("[]", Files.readString(tempFile.toPath()));
+        verify(bookRepository).streamPourExport();
+    }
+
+    @Test
+    void testExporterVersJson_ErreurDeLecture_FermeLeFichier() throws IOException {
+        // Arrange
+        when(bookRepository.streamPourExport()).thenThrow(new IllegalStateException("base indisponible"));
+
+        File tempFile = File.createTempFile("test_export_erreur", ".json");
+        tempFile.deleteOnExit();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> bookManager.exporterVersJson(tempFile.getAbsolutePath()));
+        assertTrue(tempFile.delete());
+    }
+
+    @Test
+    void testExporterVersJson_ExtensionNdjson_UnLivreParLigne() throws IOException {
+        // Arrange
+        BookDTO book1 = new BookDTO("Livre 1", "Auteur 1", LocalDate.of(2020, 1, 1), "111", "Cat1");
+        BookDTO book2 = new BookDTO("Livre 2", "Auteur 2", null, null, null);
+        when(bookRepository.streamPourExport()).thenReturn(Stream.of(book1, book2));
+
+        File tempFile = File.createTempFile("test_export", ".ndjson");
+        tempFile.deleteOnExit();
+
+        // Act
+        bookManager.exporterVersJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals("""
+                {"titre":"Livre 1","auteur":"Auteur 1","datePublication":"2020-01-01","isbn":"111","categorie":"Cat1"}
+                {"titre":"Livre 2","auteur":"Auteur 2"}
+                """, Files.readString(tempFile.toPath()));
+    }
+
+    @Test
+    void testImporterDepuisJson_Ndjson_DetecteEtImporteDansLOrdre() throws IOException {
+        // Arrange : l'extension .json n'est pas prise en compte, seul le contenu compte
+        File tempFile = File.createTempFile("test_import_ndjson", ".json");
+        tempFile.deleteOnExit();
+
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("""
+                    {"titre": "Original", "auteur": "A", "isbn": "111"}
+
+                    {"titre": "Doublon", "auteur": "B", "isbn": "111"}
+                    {"titre": "Sans ISBN", "auteur": "C", "datePublication": "2020-01-01"}
+                    """);
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        List<String> titres = new ArrayList<>();
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> {
+            titres.add(i.<Book>getArgument(0).getTitre());
+            return i.getArgument(0);
+        });
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(2, result.getImportes());
+        assertEquals(1, result.getIgnores());
+        assertEquals(List.of("Original", "Sans ISBN"), titres);
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testImporterDepuisJson_NdjsonLigneInvalide_RienNEstEnregistre() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_ndjson_invalide", ".ndjson");
+        tempFile.deleteOnExit();
+
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("{\"titre\": \"Livre\", \"auteur\": \"A\"}\n{\"titre\": \n");
+        }
+
+        // Act & Assert
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> bookManager.importerDepuisJson(tempFile.getAbsolutePath()));
+        assertTrue(erreur.getMessage().contains("import"));
+        // Le premier bloc est analysé avant l'ouverture de la transaction
+        verify(transaction, never()).commit();
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void testImporterDepuisJson_LivresInvalides_RejetesEtDetailles() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_rejets", ".ndjson");
+        tempFile.deleteOnExit();
+
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("""
+                    {"titre": "Valide", "auteur": "A", "isbn": "111"}
+                    {"auteur": "Sans titre"}
+                    {"titre": "Sans auteur", "auteur": ""}
+                    {"titre": "Valide aussi", "auteur": "B"}
+                    """);
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(2, result.getImportes());
+        assertEquals(0, result.getIgnores());
+        assertEquals(2, result.getRejetes());
+        assertEquals(2, result.getLignesRejetees().get(0).getNumero());
+        assertEquals("Le titre est obligatoire", result.getLignesRejetees().get(0).getMotif());
+        assertEquals(3, result.getLignesRejetees().get(1).getNumero());
+        assertEquals("L'auteur est obligatoire", result.getLignesRejetees().get(1).getMotif());
+        assertEquals(EtapeImport.values().length, result.getStatistiques().size());
+        assertEquals(4, result.getStatistiques().get(EtapeImport.LECTURE.ordinal()).getLignes());
+        assertEquals(2, result.getStatistiques().get(EtapeImport.ECRITURE.ordinal()).getLignes());
+        verify(bookRepository, times(2)).save(any(Book.class));
+    }
+
+    @Test
+    void testImporterDepuisJson_CommitTousLesNLivres() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_commits", ".ndjson");
+        tempFile.deleteOnExit();
+
+        int nombreLivres = BookManager.LIGNES_PAR_TRANSACTION_IMPORT * 2 + 1;
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            for (int i = 0; i < nombreLivres; i++) {
+                writer.write("{\"titre\":\"Livre " + i + "\",\"auteur\":\"Auteur\",\"isbn\":\"" + i + "\"}\n");
+            }
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(nombreLivres, result.getImportes());
+        verify(transaction, times(3)).begin();
+        verify(transaction, times(3)).commit();
+    }
+
+    @Test
+    void testImporterDepuisJson_ErreurApresUnCommit_SeuleLaTransactionEnCoursEstAnnulee() throws IOException {
+        // Arrange
+        File tempFile = File.createTempFile("test_import_erreur", ".ndjson");
+        tempFile.deleteOnExit();
+
+        int nombreLivres = BookManager.LIGNES_PAR_TRANSACTION_IMPORT + 10;
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            for (int i = 0; i < nombreLivres; i++) {
+                writer.write("{\"titre\":\"Livre " + i + "\",\"auteur\":\"Auteur\",\"isbn\":\"" + i + "\"}\n");
+            }
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> {
+            if (i.<Book>getArgument(0).getTitre().equals("Livre " + (nombreLivres - 1))) {
+                throw new IllegalStateException("disque plein");
+            }
+            return i.getArgument(0);
+        });
+
+        // Act & Assert
+        RuntimeException erreur = assertThrows(RuntimeException.class,
+                () -> bookManager.importerDepuisJson(tempFile.getAbsolutePath()));
+        assertTrue(erreur.getMessage().contains(BookManager.LIGNES_PAR_TRANSACTION_IMPORT + " livre(s) déjà enregistré(s)"),
+                erreur.getMessage());
+        verify(transaction).commit();
+        verify(transaction).rollback();
+    }
+
+    @Test
+    void testExporterPuisImporter_Ndjson_AllerRetour() throws IOException {
+        // Arrange
+        List<BookDTO> livres = List.of(
+                new BookDTO("Élise", "Zoé Ürban", LocalDate.of(1999, 12, 31), "978-1", "Roman"),
+                new BookDTO("Sans date", "Auteur", null, "978-2", "Essai"));
+        when(bookRepository.streamPourExport()).thenReturn(livres.stream());
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        List<Book> enregistres = new ArrayList<>();
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> {
+            enregistres.add(i.getArgument(0));
+            return i.getArgument(0);
+        });
+
+        File tempFile = File.createTempFile("test_aller_retour", ".jsonl");
+        tempFile.deleteOnExit();
+
+        // Act
+        bookManager.exporterVersJson(tempFile.getAbsolutePath());
+        RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert
+        assertEquals(2, result.getImportes());
+        assertEquals("Zoé Ürban", enregistres.get(0).getAuteur());
+        assertEquals(LocalDate.of(1999, 12, 31), enregistres.get(0).getDatePublication());
+        assertNull(enregistres.get(1).getDatePublication());
+        assertEquals("978-2", enregistres.get(1).getIsbn());
+    }
+
+    @Test
+    void testExporterPuisImporter_Compresse_AllerRetourSelonLExtension() throws IOException {
+        for (String extension : List.of(".json.gz", ".ndjson.gz", ".json.zst", ".ndjson.zst")) {
+            // Arrange
+            BookDTO livre = new BookDTO("Élise", "Zoé Ürban", LocalDate.of(1999, 12, 31), "978" + extension, "Roman");
+            when(bookRepository.streamPourExport()).thenReturn(Stream.of(livre));
+            when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+            List<Book> enregistres = new ArrayList<>();
+            when(bookRepository.save(any(Book.class))).thenAnswer(i -> {
+                enregistres.add(i.getArgument(0));
+                return i.getArgument(0);
+            });
+
+            File tempFile = File.createTempFile("test_compresse", extension);
+            tempFile.deleteOnExit();
+
+            // Act
+            bookManager.exporterVersJson(tempFile.getAbsolutePath());
+            RapportImport result = bookManager.importerDepuisJson(tempFile.getAbsolutePath());
+
+            // Assert
+            byte[] debut = Arrays.copyOf(Files.readAllBytes(tempFile.toPath()), 4);
+            assertEquals(Compression.depuisExtension(extension),
+                    Compression.detecter(new ByteArrayInputStream(debut)), extension);
+            assertEquals(1, result.getImportes(), extension);
+            assertEquals("Zoé Ürban", enregistres.get(0).getAuteur());
+            assertEquals(LocalDate.of(1999, 12, 31), enregistres.get(0).getDatePublication());
+        }
+    }
+
+    @Test
+    void testExporterVersJson_NiveauConfigure_AppliqueAuxExports() throws IOException {
+        // Arrange : un niveau hors bornes prouve que le niveau configuré est bien celui utilisé
+        BookManager manager = new BookManager(bookRepository, fullTextRepository, null, null,
+                UniteDeTravail.partagee(entityManager), compression -> 99);
+        File tempFile = File.createTempFile("test_niveau", ".json.zst");
+        assertTrue(tempFile.delete());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> manager.exporterVersJson(tempFile.getAbsolutePath()));
+        assertFalse(tempFile.exists());
+        verify(bookRepository, never()).streamPourExport();
+    }
+
+    @Test
+    void testExporterVersJson_CompressionExplicite() throws IOException {
+        // Arrange
+        when(bookRepository.streamPourExport()).thenReturn(Stream.empty());
+        File tempFile = File.createTempFile("test_gzip_explicite", ".json");
+        tempFile.deleteOnExit();
+
+        // Act
+        bookManager.exporterVersJson(tempFile.getAbsolutePath(), FormatLivres.JSON, Compression.GZIP, 9);
+
+        // Assert
+        try (InputStream entree = new GZIPInputStream(Files.newInputStream(tempFile.toPath()))) {
+            assertEquals("[]", new String(entree.readAllBytes(), StandardCharsets.UTF_8));
+        }
     }
 
     @Test
@@ -654,4 +1229,155 @@ class BookManagerTest {
         assertTrue(result.isEmpty());
         verify(bookRepository).findAll();
     }
+
+    private BookManager managerAvecCacheIsbn(CacheRecherche cacheIsbn) {
+        return new BookManager(bookRepository, fullTextRepository, null, cacheIsbn, entityManager);
+    }
+
+    @Test
+    void testIsbnExiste_AvecCache_AbsenceGardee() {
+        // Arrange
+        BookManager manager = managerAvecCacheIsbn(new CacheRecherche("isbn", 100, Duration.ofMinutes(10)));
+        when(bookRepository.findIdByIsbn("978-0")).thenReturn(Optional.empty());
+
+        // Act
+        boolean premier = manager.isbnExiste("978-0");
+        boolean second = manager.isbnExiste("978-0");
+
+        // Assert
+        assertFalse(premier);
+        assertFalse(second);
+        verify(bookRepository, times(1)).findIdByIsbn("978-0");
+        verify(bookRepository, never()).existsByIsbn(anyString());
+        assertEquals(1, manager.getStatistiquesCacheIsbn().orElseThrow().getSucces());
+    }
+
+    @Test
+    void testAjouterLivre_AvecCache_EnregistreLIsbn() {
+        // Arrange
+        CacheRecherche cacheIsbn = new CacheRecherche("isbn", 100, Duration.ofMinutes(10));
+        BookManager manager = managerAvecCacheIsbn(cacheIsbn);
+        when(bookRepository.findIdByIsbn("978-1")).thenReturn(Optional.empty());
+        assertFalse(manager.isbnExiste("978-1"));
+
+        when(bookRepository.existsByIsbn("978-1")).thenReturn(false);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> {
+            Book book = invocation.getArgument(0);
+            book.setId(5L);
+            return book;
+        });
+
+        // Act
+        manager.ajouterLivre("Titre", "Auteur", LocalDate.now(), "978-1", "Cat");
+
+        // Assert
+        assertTrue(manager.isbnExiste("978-1"));
+        verify(bookRepository, times(1)).findIdByIsbn("978-1");
+    }
+
+    @Test
+    void testImporterDepuisJson_AvecCache_IsbnEnregistreApresLeCommit() throws IOException {
+        // Arrange
+        CacheRecherche cacheIsbn = new CacheRecherche("isbn", 100, Duration.ofMinutes(10));
+        BookManager manager = managerAvecCacheIsbn(cacheIsbn);
+        File tempFile = File.createTempFile("test_import_cache", ".ndjson");
+        tempFile.deleteOnExit();
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("{\"titre\":\"Livre\",\"auteur\":\"Auteur\",\"isbn\":\"978-4\"}\n");
+        }
+
+        when(bookRepository.findIsbnsExistants(anyCollection())).thenReturn(Set.of());
+        when(bookRepository.save(any(Book.class))).thenAnswer(i -> {
+            Book book = i.getArgument(0);
+            book.setId(4L);
+            return book;
+        });
+        List<Optional<Long>> vuAuCommit = new ArrayList<>();
+        doAnswer(invocation -> {
+            vuAuCommit.add(cacheIsbn.obtenir("978-4", isbn -> Optional.empty()));
+            lenient().when(transaction.isActive()).thenReturn(false);
+            return null;
+        }).when(transaction).commit();
+
+        // Act
+        manager.importerDepuisJson(tempFile.getAbsolutePath());
+
+        // Assert : rien n'est annoncé avant le commit, puis l'ISBN est servi par le cache
+        assertEquals(List.of(Optional.empty()), vuAuCommit);
+        assertEquals(Optional.of(4L), cacheIsbn.obtenir("978-4", isbn -> Optional.empty()));
+    }
+
+    @Test
+    void testSupprimerLivre_AvecCache_InvalideLIsbn() {
+        // Arrange
+        CacheRecherche cacheIsbn = new CacheRecherche("isbn", 100, Duration.ofMinutes(10));
+        cacheIsbn.enregistrer("978-2", 1L);
+        BookManager manager = managerAvecCacheIsbn(cacheIsbn);
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "978-2", "Cat");
+        book.setId(1L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.findIdByIsbn("978-2")).thenReturn(Optional.empty());
+
+        // Act
+        manager.supprimerLivre(1L);
+
+        // Assert
+        assertFalse(manager.isbnExiste("978-2"));
+        verify(bookRepository).findIdByIsbn("978-2");
+    }
+
+    @Test
+    void testModifierLivre_AvecCache_DeplaceLIsbn() {
+        // Arrange
+        CacheRecherche cacheIsbn = new CacheRecherche("isbn", 100, Duration.ofMinutes(10));
+        cacheIsbn.enregistrer("111", 1L);
+        BookManager manager = managerAvecCacheIsbn(cacheIsbn);
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "111", "Cat");
+        book.setId(1L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.findIdByIsbn("111")).thenReturn(Optional.empty());
+
+        // Act
+        manager.modifierLivre(1L, null, null, null, "222", null);
+
+        // Assert
+        assertFalse(manager.isbnExiste("111"));
+        assertTrue(manager.isbnExiste("222"));
+        verify(bookRepository, never()).findIdByIsbn("222");
+    }
+
+    @Test
+    void testRechercherParIsbn_AvecCache_ChargeParId() {
+        // Arrange
+        BookManager manager = managerAvecCacheIsbn(new CacheRecherche("isbn", 100, Duration.ofMinutes(10)));
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "978-3", "Cat");
+        book.setId(3L);
+        when(bookRepository.findIdByIsbn("978-3")).thenReturn(Optional.of(3L));
+        when(bookRepository.findById(3L)).thenReturn(Optional.of(book));
+
+        // Act
+        Optional<Book> premier = manager.rechercherParIsbn(" 978-3 ");
+        Optional<Book> second = manager.rechercherParIsbn("978-3");
+
+        // Assert
+        assertEquals(Optional.of(book), premier);
+        assertEquals(Optional.of(book), second);
+        verify(bookRepository, times(1)).findIdByIsbn("978-3");
+        verify(bookRepository, never()).findByIsbn(anyString());
+    }
+
+    @Test
+    void testRechercherParIsbn_SansCache() {
+        // Arrange
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "978-4", "Cat");
+        when(bookRepository.findByIsbn("978-4")).thenReturn(Optional.of(book));
+
+        // Act
+        Optional<Book> result = bookManager.rechercherParIsbn("978-4");
+
+        // Assert
+        assertEquals(Optional.of(book), result);
+        assertTrue(bookManager.getStatistiquesCacheIsbn().isEmpty());
+    }
 }
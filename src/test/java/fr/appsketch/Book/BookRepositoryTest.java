@@ -1,5 +1,6 @@
 package fr.appsketch.Book;
 
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,13 +10,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,6 +40,12 @@ class BookRepositoryTest {
     @Mock
     private TypedQuery<Long> longTypedQuery;
 
+    @Mock
+    private TypedQuery<String> stringTypedQuery;
+
+    @Mock
+    private TypedQuery<BookDTO> dtoTypedQuery;
+
     private BookRepository bookRepository;
 
     @BeforeEach
@@ -95,6 +107,25 @@ class BookRepositoryTest {
         verify(entityManager).find(Book.class, bookId);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindByIdAvecEmprunts_ShouldUseFetchGraph() {
+        // Arrange
+        Long bookId = 1L;
+        Book expectedBook = new Book("Dune", "Frank Herbert", LocalDate.of(1965, 8, 1), "ISBN", "SF");
+        EntityGraph<?> graphe = mock(EntityGraph.class);
+
+        doReturn(graphe).when(entityManager).getEntityGraph(Book.GRAPHE_EMPRUNTS);
+        when(entityManager.find(eq(Book.class), eq(bookId), anyMap())).thenReturn(expectedBook);
+
+        // Act
+        Optional<Book> result = bookRepository.findByIdAvecEmprunts(bookId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        verify(entityManager).find(Book.class, bookId, Map.of("jakarta.persistence.fetchgraph", graphe));
+    }
+
     @Test
     void testFindById_BookNotFound_ShouldReturnEmpty() {
         // Arrange
@@ -145,6 +176,36 @@ class BookRepositoryTest {
         verify(entityManager).createQuery("SELECT b FROM Book b", Book.class);
     }
 
+    @Test
+    void testFindDisponibles_ShouldFilterOnAvailabilityFlag() {
+        // Arrange
+        Book book = new Book("Livre 1", "Auteur 1", LocalDate.now(), "ISBN1", "Cat1");
+        when(entityManager.createQuery("SELECT b FROM Book b WHERE b.disponible = true", Book.class))
+                .thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(book));
+
+        // Act
+        List<Book> result = bookRepository.findDisponibles();
+
+        // Assert
+        assertEquals(List.of(book), result);
+        verify(entityManager, never()).createQuery("SELECT b FROM Book b", Book.class);
+    }
+
+    @Test
+    void testFindEmpruntes_ShouldFilterOnAvailabilityFlag() {
+        // Arrange
+        when(entityManager.createQuery("SELECT b FROM Book b WHERE b.disponible = false", Book.class))
+                .thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        // Act
+        List<Book> result = bookRepository.findEmpruntes();
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     void testFindByIsbn_BookExists_ShouldReturnBook() {
         // Arrange
@@ -185,6 +246,24 @@ class BookRepositoryTest {
         verify(typedQuery).setParameter("isbn", isbn);
     }
 
+    @Test
+    void testFindIdByIsbn_ShouldReturnIdWithoutLoadingEntity() {
+        // Arrange
+        String isbn = "978-2-07-061332-8";
+
+        when(entityManager.createQuery("SELECT b.id FROM Book b WHERE b.isbn = :isbn", Long.class))
+                .thenReturn(longTypedQuery);
+        when(longTypedQuery.setParameter("isbn", isbn)).thenReturn(longTypedQuery);
+        when(longTypedQuery.getResultStream()).thenReturn(Stream.of(42L));
+
+        // Act
+        Optional<Long> result = bookRepository.findIdByIsbn(isbn);
+
+        // Assert
+        assertEquals(Optional.of(42L), result);
+        verify(entityManager, never()).createQuery(anyString(), eq(Book.class));
+    }
+
     @Test
     void testExistsByIsbn_BookExists_ShouldReturnTrue() {
         // Arrange
@@ -222,6 +301,173 @@ class BookRepositoryTest {
         verify(longTypedQuery).setParameter("isbn", isbn);
     }
 
+    @Test
+    void testFindIsbnsExistants_InterrogeParBlocs() {
+        // Arrange
+        List<String> isbns = new java.util.ArrayList<>();
+        for (int i = 0; i < BookRepository.TAILLE_BLOC_IN + 1; i++) {
+            isbns.add("isbn-" + i);
+        }
+
+        when(entityManager.createQuery("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns", String.class))
+                .thenReturn(stringTypedQuery);
+        when(stringTypedQuery.setParameter(eq("isbns"), any())).thenReturn(stringTypedQuery);
+        when(stringTypedQuery.getResultList())
+                .thenReturn(List.of("isbn-0"))
+                .thenReturn(List.of("isbn-" + BookRepository.TAILLE_BLOC_IN));
+
+        // Act
+        Set<String> result = bookRepository.findIsbnsExistants(isbns);
+
+        // Assert
+        assertEquals(Set.of("isbn-0", "isbn-" + BookRepository.TAILLE_BLOC_IN), result);
+        verify(stringTypedQuery, times(2)).getResultList();
+    }
+
+    @Test
+    void testFindByTitreContenant_ShouldQueryNormalisedColumn() {
+        // Arrange
+        Book expectedBook = new Book("Harry Potter", "J.K. Rowling",
+                LocalDate.of(1997, 6, 26), "978-2-07-054127-4", "Fantasy");
+
+        when(entityManager.createQuery(
+                "SELECT b FROM Book b WHERE b.titreRecherche LIKE :motif ESCAPE '!'", Book.class))
+                .thenReturn(typedQuery);
+        when(typedQuery.setParameter("motif", "%otter%")).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(expectedBook));
+
+        // Act
+        List<Book> result = bookRepository.findByTitreContenant("OTTER");
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(typedQuery).setParameter("motif", "%otter%");
+    }
+
+    @Test
+    void testFindByAuteurContenant_ShouldQueryNormalisedColumn() {
+        // Arrange
+        when(entityManager.createQuery(
+                "SELECT b FROM Book b WHERE b.auteurRecherche LIKE :motif ESCAPE '!'", Book.class))
+                .thenReturn(typedQuery);
+        when(typedQuery.setParameter("motif", "%tolkien%")).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        // Act
+        List<Book> result = bookRepository.findByAuteurContenant("Tolkien");
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(typedQuery).setParameter("motif", "%tolkien%");
+    }
+
+    @Test
+    void testFindAllById_ConserveLOrdreDesIds() {
+        // Arrange
+        Book book1 = new Book("Livre 1", "Auteur 1", LocalDate.now(), "ISBN1", "Cat1");
+        book1.setId(1L);
+        Book book2 = new Book("Livre 2", "Auteur 2", LocalDate.now(), "ISBN2", "Cat2");
+        book2.setId(2L);
+        List<Long> ids = List.of(2L, 1L);
+
+        when(entityManager.createQuery("SELECT b FROM Book b WHERE b.id IN :ids", Book.class)).thenReturn(typedQuery);
+        when(typedQuery.setParameter("ids", ids)).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(book1, book2));
+
+        // Act
+        List<Book> result = bookRepository.findAllById(ids);
+
+        // Assert
+        assertEquals(List.of(book2, book1), result);
+    }
+
+    @Test
+    void testFindAllById_ParBlocs() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= BookRepository.TAILLE_BLOC_IN + 1; id++) {
+            ids.add(id);
+        }
+        Book dernier = new Book("Livre", "Auteur", LocalDate.now(), "ISBN", "Cat");
+        dernier.setId((long) ids.size());
+
+        when(entityManager.createQuery("SELECT b FROM Book b WHERE b.id IN :ids", Book.class)).thenReturn(typedQuery);
+        when(typedQuery.setParameter(eq("ids"), any())).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of()).thenReturn(List.of(dernier));
+
+        // Act
+        List<Book> result = bookRepository.findAllById(ids);
+
+        // Assert
+        assertEquals(List.of(dernier), result);
+        verify(typedQuery).setParameter("ids", ids.subList(0, BookRepository.TAILLE_BLOC_IN));
+        verify(typedQuery).setParameter("ids", List.of((long) ids.size()));
+    }
+
+    @Test
+    void testFindAllById_ListeVide_SansRequete() {
+        assertTrue(bookRepository.findAllById(List.of()).isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void testFindIdsContenant_ShouldSelectIdsOnly() {
+        // Arrange
+        when(entityManager.createQuery(
+                "SELECT b.id FROM Book b WHERE b.categorieRecherche LIKE :motif ESCAPE '!' ORDER BY b.id", Long.class))
+                .thenReturn(longTypedQuery);
+        when(longTypedQuery.setParameter("motif", "%fantasy%")).thenReturn(longTypedQuery);
+        when(longTypedQuery.getResultList()).thenReturn(List.of(1L, 4L));
+
+        // Act
+        List<Long> result = bookRepository.findIdsContenant(BookSearchIndex.Champ.CATEGORIE, "Fantasy");
+
+        // Assert
+        assertEquals(List.of(1L, 4L), result);
+    }
+
+    @Test
+    void testMotifContenant_EchappeLesJokers() {
+        assertEquals("%100!%%", BookRepository.motifContenant("100%"));
+        assertEquals("%a!_b%", BookRepository.motifContenant("A_b"));
+        assertEquals("%!!%", BookRepository.motifContenant("!"));
+    }
+
+    @Test
+    void testStreamPourExport_ProjectionTrieeParId() {
+        // Arrange
+        BookDTO dto = new BookDTO("1984", "George Orwell", LocalDate.of(1949, 6, 8), "978-0-452-28423-4", "SF");
+        when(entityManager.createQuery(
+                "SELECT new fr.appsketch.Book.BookDTO(b.titre, b.auteur, b.datePublication, b.isbn, b.categorie) "
+                        + "FROM Book b ORDER BY b.id", BookDTO.class)).thenReturn(dtoTypedQuery);
+        when(dtoTypedQuery.getResultStream()).thenReturn(Stream.of(dto));
+
+        // Act
+        List<BookDTO> result;
+        try (Stream<BookDTO> livres = bookRepository.streamPourExport()) {
+            result = livres.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(dto), result);
+        verify(dtoTypedQuery, never()).getResultList();
+    }
+
+    @Test
+    void testFindSansChampsRecherche_InclutLaCategorieNonNormalisee() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        // Act
+        bookRepository.findSansChampsRecherche();
+
+        // Assert
+        verify(entityManager).createQuery(
+                "SELECT b FROM Book b WHERE b.titreRecherche IS NULL OR b.auteurRecherche IS NULL "
+                        + "OR (b.categorieRecherche IS NULL AND b.categorie IS NOT NULL)", Book.class);
+    }
+
     @Test
     void testDeleteById_BookExists_ShouldRemove() {
         // Arrange
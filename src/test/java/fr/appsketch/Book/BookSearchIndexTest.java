@@ -0,0 +1,157 @@
+package fr.appsketch.Book;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BookSearchIndex
+ */
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.indexer(1L, "Harry Potter à l'école des sorciers", "J.K. Rowling", "Fantasy");
+        index.indexer(2L, "Le Seigneur des Anneaux", "J.R.R. Tolkien", "Fantasy");
+        index.indexer(3L, "Le Hobbit", "J.R.R. Tolkien", null);
+        index.indexer(4L, "Dune", "Frank Herbert", "Science-Fiction");
+    }
+
+    @Test
+    void testRechercher_SousChaine() {
+        assertArrayEquals(new long[]{1L}, index.rechercher(BookSearchIndex.Champ.TITRE, "otter"));
+        assertArrayEquals(new long[]{2L, 3L}, index.rechercher(BookSearchIndex.Champ.AUTEUR, "tolkien"));
+    }
+
+    @Test
+    void testRechercher_InsensibleALaCasse() {
+        assertArrayEquals(new long[]{2L}, index.rechercher(BookSearchIndex.Champ.TITRE, "SEIGNEUR"));
+        assertArrayEquals(new long[]{1L, 2L}, index.rechercher(BookSearchIndex.Champ.CATEGORIE, "FANTASY"));
+    }
+
+    @Test
+    void testRechercher_TrigrammesPresentsMaisPasContigus() {
+        // "des" et "ann" existent dans l'index, mais pas la chaîne "desann"
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, "desann").length);
+    }
+
+    @Test
+    void testRechercher_MotifCourt() {
+        assertArrayEquals(new long[]{4L}, index.rechercher(BookSearchIndex.Champ.TITRE, "du"));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.rechercher(BookSearchIndex.Champ.AUTEUR, "j"));
+    }
+
+    @Test
+    void testRechercher_MotifVideOuNull() {
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, "").length);
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, null).length);
+    }
+
+    @Test
+    void testIndexer_RemplaceLaVersionPrecedente() {
+        // Act
+        index.indexer(4L, "Dune Messiah", "Frank Herbert", "Science-Fiction");
+
+        // Assert
+        assertArrayEquals(new long[]{4L}, index.rechercher(BookSearchIndex.Champ.TITRE, "messiah"));
+        assertArrayEquals(new long[]{4L}, index.rechercher(BookSearchIndex.Champ.TITRE, "dune"));
+        assertEquals(4, index.taille());
+    }
+
+    @Test
+    void testIndexer_DepuisBook() {
+        Book book = new Book("Fondation", "Isaac Asimov", LocalDate.now(), "111", "Science-Fiction");
+        book.setId(10L);
+
+        index.indexer(book);
+
+        assertArrayEquals(new long[]{4L, 10L}, index.rechercher(BookSearchIndex.Champ.CATEGORIE, "science"));
+    }
+
+    @Test
+    void testRetirer() {
+        // Act
+        index.retirer(1L);
+        index.retirer(99L);
+
+        // Assert
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, "potter").length);
+        assertArrayEquals(new long[]{2L}, index.rechercher(BookSearchIndex.Champ.CATEGORIE, "fantasy"));
+        assertEquals(3, index.taille());
+    }
+
+    @Test
+    void testRetirer_CompactageConserveLesLivresRestants() {
+        // Arrange : assez de suppressions pour déclencher le compactage
+        for (long id = 100; id < 3100; id++) {
+            index.indexer(id, "Volume " + id, "Auteur " + id, "Serie");
+        }
+
+        // Act
+        for (long id = 100; id < 3000; id++) {
+            index.retirer(id);
+        }
+
+        // Assert
+        assertEquals(104, index.taille());
+        assertArrayEquals(new long[]{3042L}, index.rechercher(BookSearchIndex.Champ.TITRE, "volume 3042"));
+        assertArrayEquals(new long[]{1L}, index.rechercher(BookSearchIndex.Champ.TITRE, "otter"));
+        assertEquals(100, index.rechercher(BookSearchIndex.Champ.CATEGORIE, "serie").length);
+    }
+
+    @Test
+    void testIndexer_ReindexationsRepetees_Compacte() {
+        // Act : un même livre modifié bien plus souvent que le seuil de compactage
+        for (int version = 0; version < 5000; version++) {
+            index.indexer(1L, "Harry Potter " + version, "J.K. Rowling", "Fantasy");
+        }
+
+        // Assert
+        assertTrue(index.nombreOrdinaux() < 3000, "ordinaux : " + index.nombreOrdinaux());
+        assertArrayEquals(new long[]{1L}, index.rechercher(BookSearchIndex.Champ.TITRE, "potter 4999"));
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, "potter 4998").length);
+        assertEquals(4, index.taille());
+    }
+
+    @Test
+    void testVider() {
+        index.vider();
+
+        assertEquals(0, index.taille());
+        assertEquals(0, index.rechercher(BookSearchIndex.Champ.TITRE, "dune").length);
+    }
+
+    @Test
+    void testLongIntMap_ComportementIdentiqueAHashMap() {
+        // Suppressions aléatoires pour exercer le décalage arrière des chaînes de sondage
+        BookSearchIndex.LongIntMap map = new BookSearchIndex.LongIntMap(4);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long cle = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                map.put(cle, i);
+                reference.put(cle, i);
+            } else {
+                Integer attendu = reference.remove(cle);
+                assertEquals(attendu == null ? -1 : attendu, map.remove(cle));
+            }
+        }
+
+        assertEquals(reference.size(), map.size());
+        for (long cle = 0; cle < 2_000; cle++) {
+            Integer attendu = reference.get(cle);
+            assertEquals(attendu == null ? -1 : attendu, map.get(cle));
+        }
+    }
+}
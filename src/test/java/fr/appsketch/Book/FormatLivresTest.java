@@ -0,0 +1,48 @@
+package fr.appsketch.Book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormatLivresTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    void testDepuisExtension() {
+        // Act & Assert
+        assertEquals(FormatLivres.NDJSON, FormatLivres.depuisExtension("export/livres.ndjson"));
+        assertEquals(FormatLivres.NDJSON, FormatLivres.depuisExtension("LIVRES.JSONL"));
+        assertEquals(FormatLivres.JSON, FormatLivres.depuisExtension("livres.json"));
+        assertEquals(FormatLivres.JSON, FormatLivres.depuisExtension("livres"));
+        // Extension de compression ignorée
+        assertEquals(FormatLivres.NDJSON, FormatLivres.depuisExtension("livres.ndjson.zst"));
+        assertEquals(FormatLivres.JSON, FormatLivres.depuisExtension("livres.json.gz"));
+    }
+
+    @Test
+    void testDetecter_SelonLePremierCaractere() throws IOException {
+        // Act & Assert
+        assertEquals(FormatLivres.NDJSON, FormatLivres.detecter(ecrire("{\"titre\":\"A\"}\n")));
+        assertEquals(FormatLivres.NDJSON, FormatLivres.detecter(ecrire("\uFEFF \n\t{\"titre\":\"A\"}")));
+        assertEquals(FormatLivres.JSON, FormatLivres.detecter(ecrire("  [ {\"titre\":\"A\"} ]")));
+        assertEquals(FormatLivres.JSON, FormatLivres.detecter(ecrire("null")));
+        assertEquals(FormatLivres.JSON, FormatLivres.detecter(ecrire("")));
+    }
+
+    @Test
+    void testDetecter_FichierInexistant() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> FormatLivres.detecter(dossier.resolve("absent.json")));
+    }
+
+    private Path ecrire(String contenu) throws IOException {
+        return Files.writeString(Files.createTempFile(dossier, "livres", ".json"), contenu);
+    }
+}
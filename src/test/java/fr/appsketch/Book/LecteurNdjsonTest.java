@@ -0,0 +1,164 @@
+package fr.appsketch.Book;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LecteurNdjsonTest {
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .create();
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    void testLecture_PetitsBlocs_LivresDansLOrdreDuFichier() throws IOException {
+        // Arrange : blocs bien plus petits que le fichier, plusieurs threads
+        StringBuilder contenu = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            contenu.append("{\"titre\":\"Livre ").append(i).append("\",\"auteur\":\"Auteur é\"}\n");
+        }
+        Path fichier = ecrire(contenu.toString());
+
+        // Act
+        List<BookDTO> livres = lire(fichier, 4, 64);
+
+        // Assert
+        assertEquals(500, livres.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("Livre " + i, livres.get(i).getTitre());
+            assertEquals("Auteur é", livres.get(i).getAuteur());
+        }
+    }
+
+    @Test
+    void testLecture_BomLignesVidesEtFinsDeLigneWindows() throws IOException {
+        // Arrange
+        Path fichier = ecrire("\uFEFF{\"titre\":\"A\",\"auteur\":\"X\",\"datePublication\":\"2020-01-01\"}\r\n"
+                + "\r\n   \n"
+                + "{\"titre\":\"B\",\"auteur\":\"Y\"}");
+
+        // Act
+        List<BookDTO> livres = lire(fichier, 2, 8);
+
+        // Assert
+        assertEquals(2, livres.size());
+        assertEquals("A", livres.get(0).getTitre());
+        assertEquals(LocalDate.of(2020, 1, 1), livres.get(0).getDatePublication());
+        assertEquals("B", livres.get(1).getTitre());
+    }
+
+    @Test
+    void testLecture_LignePlusLongueQueLeBloc() throws IOException {
+        // Arrange
+        String titreLong = "T".repeat(20_000);
+        Path fichier = ecrire("{\"titre\":\"court\",\"auteur\":\"A\"}\n"
+                + "{\"titre\":\"" + titreLong + "\",\"auteur\":\"A\"}\n"
+                + "{\"titre\":\"fin\",\"auteur\":\"A\"}\n");
+
+        // Act
+        List<BookDTO> livres = lire(fichier, 2, 16);
+
+        // Assert
+        assertEquals(3, livres.size());
+        assertEquals(titreLong, livres.get(1).getTitre());
+        assertEquals("fin", livres.get(2).getTitre());
+    }
+
+    @Test
+    void testLecture_FluxLivrantPeuDOctetsALaFois() throws IOException {
+        // Arrange : comme un flux décompressé, chaque read() rend moins d'octets que demandé
+        StringBuilder contenu = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            contenu.append("{\"titre\":\"Livre ").append(i).append("\",\"auteur\":\"A\"}\n");
+        }
+        InputStream complet = new ByteArrayInputStream(contenu.toString().getBytes(StandardCharsets.UTF_8));
+        InputStream parMorceaux = new FilterInputStream(complet) {
+            @Override
+            public int read(byte[] tampon, int debut, int longueur) throws IOException {
+                return super.read(tampon, debut, Math.min(longueur, 7));
+            }
+        };
+
+        // Act
+        List<BookDTO> livres = new ArrayList<>();
+        try (LecteurNdjson lecteur = new LecteurNdjson(parMorceaux, gson, 3, 50)) {
+            lecteur.forEachRemaining(livres::add);
+        }
+
+        // Assert
+        assertEquals(100, livres.size());
+        assertEquals("Livre 99", livres.get(99).getTitre());
+    }
+
+    @Test
+    void testLecture_FichierVide_AucunLivre() throws IOException {
+        // Arrange
+        Path fichier = ecrire("");
+
+        // Act & Assert
+        try (LecteurNdjson lecteur = new LecteurNdjson(Files.newInputStream(fichier), gson, 2, 16)) {
+            assertFalse(lecteur.hasNext());
+            assertThrows(NoSuchElementException.class, lecteur::next);
+        }
+    }
+
+    @Test
+    void testLecture_LigneInvalide_IndiqueLOctet() throws IOException {
+        // Arrange
+        String premiere = "{\"titre\":\"A\",\"auteur\":\"X\"}\n";
+        Path fichier = ecrire(premiere + "pas du json\n");
+
+        // Act & Assert
+        UncheckedIOException erreur = assertThrows(UncheckedIOException.class, () -> lire(fichier, 2, 1024));
+        assertTrue(erreur.getCause().getMessage().contains("octet " + premiere.length()));
+    }
+
+    @Test
+    void testLecture_LigneNull_Refusee() throws IOException {
+        // Arrange
+        Path fichier = ecrire("null\n");
+
+        // Act & Assert
+        assertThrows(UncheckedIOException.class, () -> lire(fichier, 1, 1024));
+    }
+
+    @Test
+    void testConstructeur_ParametresInvalides() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new LecteurNdjson(InputStream.nullInputStream(), gson, 0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new LecteurNdjson(InputStream.nullInputStream(), gson, 1, 0));
+    }
+
+    private Path ecrire(String contenu) throws IOException {
+        Path fichier = Files.createTempFile(dossier, "livres", ".ndjson");
+        Files.writeString(fichier, contenu, StandardCharsets.UTF_8);
+        return fichier;
+    }
+
+    private List<BookDTO> lire(Path fichier, int threads, int tailleBloc) throws IOException {
+        List<BookDTO> livres = new ArrayList<>();
+        try (LecteurNdjson lecteur = new LecteurNdjson(Files.newInputStream(fichier), gson, threads, tailleBloc)) {
+            lecteur.forEachRemaining(livres::add);
+        }
+        return livres;
+    }
+}
@@ -0,0 +1,147 @@
+package fr.appsketch.Book;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineImportTest {
+
+    // Source de livres numérotés ; echecAuLivre > 0 fait échouer la lecture de ce livre
+    private static final class Source implements Iterator<BookDTO>, Closeable {
+        private final int nombre;
+        private final int echecAuLivre;
+        private final AtomicInteger lus = new AtomicInteger();
+        private final AtomicBoolean fermee = new AtomicBoolean();
+
+        Source(int nombre, int echecAuLivre) {
+            this.nombre = nombre;
+            this.echecAuLivre = echecAuLivre;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return lus.get() < nombre;
+        }
+
+        @Override
+        public BookDTO next() {
+            int numero = lus.incrementAndGet();
+            if (numero == echecAuLivre) {
+                throw new IllegalStateException("JSON invalide au livre " + numero);
+            }
+            // Un livre sur dix sans auteur
+            return new BookDTO("Livre " + numero, numero % 10 == 0 ? " " : "Auteur", null, "isbn-" + numero, null);
+        }
+
+        @Override
+        public void close() {
+            fermee.set(true);
+        }
+    }
+
+    @Test
+    void testProchainLot_OrdreDuFichierEtRejets() throws Exception {
+        // Arrange
+        Source source = new Source(1_000, 0);
+        List<String> titres = new ArrayList<>();
+        RapportImport rapport;
+
+        // Act
+        try (PipelineImport pipeline = new PipelineImport(source, 4, 7)) {
+            for (List<Book> lot = pipeline.prochainLot(); lot != null; lot = pipeline.prochainLot()) {
+                lot.forEach(book -> titres.add(book.getTitre()));
+            }
+            assertNull(pipeline.prochainLot());
+            rapport = pipeline.rapport(titres.size(), 0);
+        }
+
+        // Assert
+        assertEquals(900, titres.size());
+        assertEquals("Livre 1", titres.get(0));
+        assertEquals("Livre 11", titres.get(9));
+        assertEquals("Livre 999", titres.get(899));
+        assertEquals(100, rapport.getRejetes());
+        LigneRejetee premierRejet = rapport.getLignesRejetees().get(0);
+        assertEquals(10, premierRejet.getNumero());
+        assertEquals("Livre 10", premierRejet.getTitre());
+        assertEquals("L'auteur est obligatoire", premierRejet.getMotif());
+        assertEquals(1_000, rapport.getStatistiques().get(EtapeImport.LECTURE.ordinal()).getLignes());
+        assertEquals(1_000, rapport.getStatistiques().get(EtapeImport.VALIDATION.ordinal()).getLignes());
+        assertTrue(source.fermee.get());
+    }
+
+    @Test
+    void testLecture_AttendLEcritureQuandLaFileEstPleine() throws Exception {
+        // Arrange : 2 threads, donc au plus 4 lots en file, plus un lot en cours de lecture
+        Source source = new Source(10_000, 0);
+
+        try (PipelineImport pipeline = new PipelineImport(source, 2, 10)) {
+            // Act
+            List<Book> premier = pipeline.prochainLot();
+            Thread.sleep(200);
+
+            // Assert
+            assertEquals(9, premier.size());
+            int maximum = (2 * PipelineImport.LOTS_EN_VOL_PAR_THREAD + 2) * 10;
+            assertTrue(source.lus.get() <= maximum, "Livres lus d'avance : " + source.lus.get());
+        }
+        assertTrue(source.fermee.get());
+    }
+
+    @Test
+    void testProchainLot_ErreurDeLectureRelanceeApresLesLotsPrecedents() throws Exception {
+        // Arrange
+        Source source = new Source(100, 25);
+
+        try (PipelineImport pipeline = new PipelineImport(source, 2, 10)) {
+            // Act & Assert
+            assertNotNull(pipeline.prochainLot());
+            assertNotNull(pipeline.prochainLot());
+            IllegalStateException erreur = assertThrows(IllegalStateException.class, pipeline::prochainLot);
+            assertEquals("JSON invalide au livre 25", erreur.getMessage());
+        }
+        assertTrue(source.fermee.get());
+    }
+
+    @Test
+    void testMesurer_StatistiquesParEtape() throws Exception {
+        // Arrange
+        try (PipelineImport pipeline = new PipelineImport(new Source(0, 0), 1, 10)) {
+            // Act
+            assertNull(pipeline.prochainLot());
+            pipeline.mesurer(EtapeImport.ECRITURE, 500, 250_000_000);
+            pipeline.mesurer(EtapeImport.ECRITURE, 500, 250_000_000);
+            StatistiquesEtape ecriture = pipeline.statistiques().get(EtapeImport.ECRITURE.ordinal());
+
+            // Assert
+            assertEquals(EtapeImport.ECRITURE, ecriture.getEtape());
+            assertEquals(1_000, ecriture.getLignes());
+            assertEquals(500, ecriture.getDureeMillis());
+            assertEquals(2_000, ecriture.getDebit(), 0.001);
+            assertEquals(0, pipeline.statistiques().get(EtapeImport.DEDOUBLONNAGE.ordinal()).getDebit());
+        }
+    }
+
+    @Test
+    void testMotifRejet() {
+        // Act & Assert
+        assertNull(PipelineImport.motifRejet(new BookDTO("Titre", "Auteur", null, null, null)));
+        assertEquals("Le titre est obligatoire", PipelineImport.motifRejet(new BookDTO(null, "Auteur", null, null, null)));
+        assertEquals("Le titre est obligatoire", PipelineImport.motifRejet(new BookDTO("  ", "Auteur", null, null, null)));
+        assertEquals("L'auteur est obligatoire", PipelineImport.motifRejet(new BookDTO("Titre", null, null, null, null)));
+    }
+
+    @Test
+    void testConstructeur_ParametresInvalides() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PipelineImport(new Source(1, 0), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PipelineImport(new Source(1, 0), 1, 0));
+    }
+}
@@ -0,0 +1,168 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRechercheTest {
+
+    private final CacheRecherche cache = new CacheRecherche("isbn", 100, Duration.ofMinutes(10));
+
+    @Test
+    void testObtenir_ChargeUneSeuleFoisParCleNormalisee() {
+        // Arrange
+        AtomicInteger chargements = new AtomicInteger();
+
+        // Act
+        Optional<Long> premier = cache.obtenir("978-1", cle -> {
+            chargements.incrementAndGet();
+            assertEquals("978-1", cle);
+            return Optional.of(7L);
+        });
+        Optional<Long> second = cache.obtenir("  978-1 ", cle -> {
+            chargements.incrementAndGet();
+            return Optional.of(8L);
+        });
+
+        // Assert
+        assertEquals(Optional.of(7L), premier);
+        assertEquals(Optional.of(7L), second);
+        assertEquals(1, chargements.get());
+    }
+
+    @Test
+    void testObtenir_GardeLesAbsences() {
+        // Arrange
+        AtomicInteger chargements = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.obtenir("inconnu", cle -> {
+                chargements.incrementAndGet();
+                return Optional.empty();
+            }).isEmpty());
+        }
+
+        // Assert
+        assertEquals(1, chargements.get());
+    }
+
+    @Test
+    void testObtenir_CleVideNInterrogePasLaBase() {
+        // Act & Assert
+        assertTrue(cache.obtenir("   ", cle -> fail("chargement inattendu")).isEmpty());
+        assertTrue(cache.obtenir(null, cle -> fail("chargement inattendu")).isEmpty());
+    }
+
+    @Test
+    void testEnregistrer_RemplaceUneAbsence() {
+        // Arrange
+        cache.obtenir("978-2", cle -> Optional.empty());
+
+        // Act
+        cache.enregistrer("978-2", 12L);
+
+        // Assert
+        assertEquals(Optional.of(12L), cache.obtenir("978-2", cle -> fail("chargement inattendu")));
+    }
+
+    @Test
+    void testInvalider_ForceUnNouveauChargement() {
+        // Arrange
+        cache.enregistrer("978-3", 3L);
+
+        // Act
+        cache.invalider(" 978-3");
+
+        // Assert
+        assertTrue(cache.obtenir("978-3", cle -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void testVider() {
+        // Arrange
+        cache.enregistrer("a", 1L);
+        cache.enregistrer("b", 2L);
+
+        // Act
+        cache.vider();
+
+        // Assert
+        assertEquals(0, cache.taille());
+    }
+
+    @Test
+    void testTailleBornee() {
+        // Arrange
+        CacheRecherche petit = new CacheRecherche("email", 10, Duration.ofMinutes(10));
+
+        // Act
+        for (long i = 0; i < 1_000; i++) {
+            petit.enregistrer("cle" + i, i);
+        }
+
+        // Assert
+        assertTrue(petit.taille() <= 10);
+    }
+
+    @Test
+    void testStatistiques() {
+        // Arrange
+        cache.obtenir("978-4", cle -> Optional.of(4L));
+        cache.obtenir("978-4", cle -> Optional.of(4L));
+        cache.obtenir("978-4", cle -> Optional.of(4L));
+        cache.obtenir("978-5", cle -> Optional.empty());
+
+        // Act
+        StatistiquesCache statistiques = cache.statistiques();
+
+        // Assert
+        assertEquals("isbn", statistiques.getRegion());
+        assertEquals(2, statistiques.getSucces());
+        assertEquals(2, statistiques.getEchecs());
+        assertEquals(0.5, statistiques.getTauxSucces(), 1e-9);
+    }
+
+    @Test
+    void testLecteursConcurrents_UnSeulChargement() throws Exception {
+        // Arrange
+        int lecteurs = 8;
+        AtomicInteger chargements = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(lecteurs);
+        List<Future<Optional<Long>>> resultats = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < lecteurs; i++) {
+                resultats.add(executor.submit(() -> {
+                    depart.await();
+                    return cache.obtenir("978-6", cle -> {
+                        chargements.incrementAndGet();
+                        return Optional.of(6L);
+                    });
+                }));
+            }
+            depart.countDown();
+            for (Future<Optional<Long>> resultat : resultats) {
+                assertEquals(Optional.of(6L), resultat.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(1, chargements.get());
+    }
+}
@@ -0,0 +1,101 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    private static final String CONTENU = "{\"titre\":\"Livre é\",\"auteur\":\"Auteur\"}\n".repeat(1_000);
+
+    @Test
+    void testDepuisExtension() {
+        // Act & Assert
+        assertEquals(Compression.GZIP, Compression.depuisExtension("livres.json.gz"));
+        assertEquals(Compression.GZIP, Compression.depuisExtension("LIVRES.GZIP"));
+        assertEquals(Compression.ZSTD, Compression.depuisExtension("livres.ndjson.zst"));
+        assertEquals(Compression.ZSTD, Compression.depuisExtension("livres.zstd"));
+        assertEquals(Compression.AUCUNE, Compression.depuisExtension("livres.json"));
+    }
+
+    @Test
+    void testSansExtension() {
+        // Act & Assert
+        assertEquals("export/livres.ndjson", Compression.sansExtension("export/livres.ndjson.ZST"));
+        assertEquals("livres.json", Compression.sansExtension("livres.json.gz"));
+        assertEquals("livres.json", Compression.sansExtension("livres.json"));
+    }
+
+    @Test
+    void testCompresserPuisDetecterEtDecompresser_ChaqueAlgorithme() throws IOException {
+        for (Compression compression : Compression.values()) {
+            // Arrange
+            ByteArrayOutputStream fichier = new ByteArrayOutputStream();
+
+            // Act
+            try (OutputStream sortie = compression.compresser(fichier, compression.getNiveauParDefaut())) {
+                sortie.write(CONTENU.getBytes(StandardCharsets.UTF_8));
+            }
+            InputStream entree = new BufferedInputStream(new ByteArrayInputStream(fichier.toByteArray()));
+            Compression detectee = Compression.detecter(entree);
+            String relu;
+            try (InputStream donnees = detectee.decompresser(entree)) {
+                relu = new String(donnees.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            // Assert
+            assertEquals(compression, detectee);
+            assertEquals(CONTENU, relu);
+            if (compression != Compression.AUCUNE) {
+                assertTrue(fichier.size() < CONTENU.length() / 10, compression + " : " + fichier.size());
+            }
+        }
+    }
+
+    @Test
+    void testCompresser_NiveauPlusEleve_FichierPasPlusGros() throws IOException {
+        // Act
+        int rapide = taille(Compression.ZSTD, 1);
+        int fort = taille(Compression.ZSTD, 19);
+
+        // Assert
+        assertTrue(fort <= rapide, fort + " > " + rapide);
+    }
+
+    @Test
+    void testCompresser_NiveauHorsBornes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> Compression.GZIP.compresser(OutputStream.nullOutputStream(), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> Compression.ZSTD.compresser(OutputStream.nullOutputStream(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> Compression.ZSTD.compresser(OutputStream.nullOutputStream(), 23));
+    }
+
+    @Test
+    void testDetecter_FichierCourtOuVide() throws IOException {
+        // Act & Assert
+        assertEquals(Compression.AUCUNE, Compression.detecter(new BufferedInputStream(InputStream.nullInputStream())));
+        assertEquals(Compression.AUCUNE,
+                Compression.detecter(new BufferedInputStream(new ByteArrayInputStream(new byte[]{0x1F}))));
+        assertThrows(IllegalArgumentException.class,
+                () -> Compression.detecter(InputStream.nullInputStream()));
+    }
+
+    private static int taille(Compression compression, int niveau) throws IOException {
+        ByteArrayOutputStream fichier = new ByteArrayOutputStream();
+        try (OutputStream sortie = compression.compresser(fichier, niveau)) {
+            sortie.write(CONTENU.getBytes(StandardCharsets.UTF_8));
+        }
+        return fichier.size();
+    }
+}
@@ -0,0 +1,129 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationBaseTest {
+
+    @Test
+    void testValeursParDefaut() {
+        // Arrange
+        ConfigurationBase config = new ConfigurationBase(new Properties(), new Properties(), Map.of());
+
+        // Assert
+        assertEquals("jdbc:sqlite:test.db", config.getUrl());
+        assertEquals(4, config.getTaillePoolMax());
+        assertEquals(1, config.getInactifsMin());
+        assertEquals(0, config.getDetectionFuiteMs());
+        assertEquals(ProfilSQLite.EQUILIBRE, config.getProfilSQLite());
+        assertEquals(ConfigurationBase.ModeSchema.UPDATE, config.getModeSchema());
+        assertFalse(config.isJournalSql());
+        assertFalse(config.isRapportDemarrage());
+        assertEquals(64, config.getVerrousSegments());
+        assertFalse(config.isVerrousEquitables());
+        assertEquals(5_000, config.getVerrousAttenteMaxMs());
+        assertEquals(6, config.getNiveauCompression(Compression.GZIP));
+        assertEquals(3, config.getNiveauCompression(Compression.ZSTD));
+        assertEquals(0, config.getNiveauCompression(Compression.AUCUNE));
+    }
+
+    @Test
+    void testModeSchemaEtJournalSql() {
+        // Arrange
+        Properties systeme = new Properties();
+        systeme.setProperty(ConfigurationBase.MODE_SCHEMA, "Validate");
+        systeme.setProperty(ConfigurationBase.JOURNAL_SQL, "TRUE");
+
+        // Act
+        ConfigurationBase config = new ConfigurationBase(new Properties(), systeme, Map.of());
+
+        // Assert
+        assertEquals(ConfigurationBase.ModeSchema.VALIDATE, config.getModeSchema());
+        assertEquals("validate", config.getModeSchema().valeurHibernate());
+        assertTrue(config.isJournalSql());
+    }
+
+    @Test
+    void testNiveauCompression_ConfigureEtBorne() {
+        // Arrange
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.EXPORT_NIVEAU_ZSTD, "19");
+        fichier.setProperty(ConfigurationBase.EXPORT_NIVEAU_GZIP, "12");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        // Act & Assert
+        assertEquals(19, config.getNiveauCompression(Compression.ZSTD));
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                () -> config.getNiveauCompression(Compression.GZIP));
+        assertTrue(erreur.getMessage().contains(ConfigurationBase.EXPORT_NIVEAU_GZIP));
+    }
+
+    @Test
+    void testValeursInvalides_LeventException() {
+        // Arrange
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.MODE_SCHEMA, "create-drop");
+        fichier.setProperty(ConfigurationBase.JOURNAL_SQL, "oui");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, config::getModeSchema);
+        assertThrows(IllegalArgumentException.class, config::isJournalSql);
+    }
+
+    @Test
+    void testProfilSQLite_DepuisVariableEnvironnement() {
+        // Arrange
+        Map<String, String> environnement = Map.of("BIBLIOTHEQUE_SQLITE_PROFIL", "chargement-massif");
+
+        // Act
+        ConfigurationBase config = new ConfigurationBase(new Properties(), new Properties(), environnement);
+
+        // Assert
+        assertEquals(ProfilSQLite.CHARGEMENT_MASSIF, config.getProfilSQLite());
+    }
+
+    @Test
+    void testPriorite_EnvironnementPuisSystemePuisFichier() {
+        // Arrange
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.URL, "jdbc:sqlite:fichier.db");
+        fichier.setProperty(ConfigurationBase.POOL_TAILLE_MAX, "2");
+        fichier.setProperty(ConfigurationBase.POOL_DETECTION_FUITE_MS, "5000");
+        Properties systeme = new Properties();
+        systeme.setProperty(ConfigurationBase.URL, "jdbc:sqlite:systeme.db");
+        systeme.setProperty(ConfigurationBase.POOL_TAILLE_MAX, "6");
+        Map<String, String> environnement = Map.of("BIBLIOTHEQUE_DB_URL", "jdbc:sqlite:env.db");
+
+        // Act
+        ConfigurationBase config = new ConfigurationBase(fichier, systeme, environnement);
+
+        // Assert
+        assertEquals("jdbc:sqlite:env.db", config.getUrl());
+        assertEquals(6, config.getTaillePoolMax());
+        assertEquals(5000, config.getDetectionFuiteMs());
+    }
+
+    @Test
+    void testValeurNonNumerique_LeveException() {
+        // Arrange
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.POOL_TAILLE_MAX, "beaucoup");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                config::getTaillePoolMax);
+        assertTrue(exception.getMessage().contains(ConfigurationBase.POOL_TAILLE_MAX));
+    }
+
+    @Test
+    void testNomVariableEnvironnement() {
+        assertEquals("BIBLIOTHEQUE_POOL_TAILLE_MAX",
+                ConfigurationBase.nomVariableEnvironnement(ConfigurationBase.POOL_TAILLE_MAX));
+    }
+}
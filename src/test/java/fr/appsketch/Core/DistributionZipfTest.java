@@ -0,0 +1,67 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributionZipfTest {
+
+    @Test
+    void testTirer_RangsLesPlusFrequentsEnPremier() {
+        // Arrange
+        DistributionZipf distribution = new DistributionZipf(100, 1.0);
+        Random aleatoire = new Random(1);
+        int[] frequences = new int[100];
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            frequences[distribution.tirer(aleatoire)]++;
+        }
+
+        // Assert : avec l'exposant 1, le rang 0 sort deux fois plus que le rang 1 (1/H(100) ≈ 19 %)
+        assertTrue(frequences[0] > frequences[1]);
+        assertTrue(frequences[1] > frequences[9]);
+        assertEquals(0.193, frequences[0] / 100_000.0, 0.01);
+        assertEquals(2.0, (double) frequences[0] / frequences[1], 0.15);
+    }
+
+    @Test
+    void testTirer_ExposantNulUniforme() {
+        // Arrange
+        DistributionZipf distribution = new DistributionZipf(4, 0);
+        Random aleatoire = new Random(2);
+        int[] frequences = new int[4];
+
+        // Act
+        for (int i = 0; i < 40_000; i++) {
+            frequences[distribution.tirer(aleatoire)]++;
+        }
+
+        // Assert
+        for (int frequence : frequences) {
+            assertEquals(10_000, frequence, 500);
+        }
+    }
+
+    @Test
+    void testTirer_ResteDansLesBornes() {
+        // Arrange
+        DistributionZipf distribution = new DistributionZipf(3, 2.5);
+        Random aleatoire = new Random(3);
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            int rang = distribution.tirer(aleatoire);
+            assertTrue(rang >= 0 && rang < distribution.taille());
+        }
+    }
+
+    @Test
+    void testConstructeur_ParametresInvalides() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new DistributionZipf(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DistributionZipf(10, -1));
+    }
+}
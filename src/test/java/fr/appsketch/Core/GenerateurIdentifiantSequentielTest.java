@@ -0,0 +1,73 @@
+package fr.appsketch.Core;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GenerateurIdentifiantSequentielTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SharedSessionContractImplementor session;
+
+    @Mock
+    private Connection connexion;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultat;
+
+    private GenerateurIdentifiantSequentiel generateur;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        generateur = new GenerateurIdentifiantSequentiel("Books", "id");
+
+        when(session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection()).thenReturn(connexion);
+        when(connexion.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    void testGenerate_RepartDuPlusGrandIdentifiant() throws SQLException {
+        // Arrange
+        when(statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM Books")).thenReturn(resultat);
+        when(resultat.next()).thenReturn(true);
+        when(resultat.getLong(1)).thenReturn(41L);
+
+        // Act
+        Object premier = generateur.generate(session, null, null, EventType.INSERT);
+        Object second = generateur.generate(session, null, null, EventType.INSERT);
+
+        // Assert
+        assertEquals(42L, premier);
+        assertEquals(43L, second);
+        // La table n'est lue qu'au premier appel
+        verify(statement, times(1)).executeQuery(anyString());
+    }
+
+    @Test
+    void testGenerate_ErreurSql_LeveRuntimeException() throws SQLException {
+        // Arrange
+        when(statement.executeQuery(anyString())).thenThrow(new SQLException("base verrouillée"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> generateur.generate(session, null, null, EventType.INSERT));
+        assertEquals("Erreur lors de la lecture du dernier identifiant", exception.getMessage());
+    }
+}
@@ -0,0 +1,208 @@
+package fr.appsketch.Core;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import fr.appsketch.Book.BookDTO;
+import fr.appsketch.Book.LocalDateAdapter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateurJeuDeDonneesTest {
+
+    @TempDir
+    Path repertoire;
+
+    private static List<BookDTO> livres(GenerateurJeuDeDonnees generateur) {
+        List<BookDTO> livres = new ArrayList<>();
+        generateur.parcourirLivres(livres::add);
+        return livres;
+    }
+
+    @Test
+    void testParcourirLivres_MemeGraineMemesLivres() {
+        // Act
+        List<BookDTO> premier = livres(new GenerateurJeuDeDonnees(7, 500, 10, 0));
+        List<BookDTO> second = livres(new GenerateurJeuDeDonnees(7, 500, 10, 0));
+        List<BookDTO> autreGraine = livres(new GenerateurJeuDeDonnees(8, 500, 10, 0));
+
+        // Assert
+        assertEquals(500, premier.size());
+        for (int i = 0; i < premier.size(); i++) {
+            assertEquals(premier.get(i).getTitre(), second.get(i).getTitre());
+            assertEquals(premier.get(i).getAuteur(), second.get(i).getAuteur());
+            assertEquals(premier.get(i).getDatePublication(), second.get(i).getDatePublication());
+        }
+        assertNotEquals(premier.stream().map(BookDTO::getTitre).toList(),
+                autreGraine.stream().map(BookDTO::getTitre).toList());
+    }
+
+    @Test
+    void testParcourirLivres_AuteursSelonZipf() {
+        // Arrange
+        GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(1, 10_000, 10, 0).avecAuteurs(100);
+
+        // Act
+        List<BookDTO> livres = livres(generateur);
+        long duPremier = livres.stream().filter(l -> l.getAuteur().equals(GenerateurJeuDeDonnees.nomAuteur(0))).count();
+        long duDixieme = livres.stream().filter(l -> l.getAuteur().equals(GenerateurJeuDeDonnees.nomAuteur(9))).count();
+
+        // Assert
+        assertTrue(duPremier > 5 * duDixieme);
+        assertTrue(livres.stream().allMatch(l -> !l.getDatePublication().isAfter(GenerateurJeuDeDonnees.DATE_FIN_DEFAUT)));
+    }
+
+    @Test
+    void testIsbn_CleDeControleValideEtUnique() {
+        // Act
+        String isbn = GenerateurJeuDeDonnees.isbn(1);
+
+        // Assert
+        assertEquals(13, isbn.length());
+        int somme = 0;
+        for (int i = 0; i < 13; i++) {
+            somme += (isbn.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        assertEquals(0, somme % 10);
+        assertNotEquals(isbn, GenerateurJeuDeDonnees.isbn(2));
+    }
+
+    @Test
+    void testNomAuteur_UniqueAuDelaDesCombinaisons() {
+        // Arrange
+        int combinaisons = GenerateurJeuDeDonnees.PRENOMS.size() * GenerateurJeuDeDonnees.NOMS.size();
+
+        // Act & Assert
+        assertNotEquals(GenerateurJeuDeDonnees.nomAuteur(0), GenerateurJeuDeDonnees.nomAuteur(combinaisons));
+    }
+
+    @Test
+    void testEcrireJson_LisibleParLImport() throws Exception {
+        // Arrange
+        Path fichier = repertoire.resolve("livres.json");
+        GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(3, 200, 10, 0);
+
+        // Act
+        long ecrits = generateur.ecrireJson(fichier);
+
+        // Assert
+        Gson gson = new GsonBuilder().registerTypeAdapter(LocalDate.class, new LocalDateAdapter()).create();
+        BookDTO[] relus;
+        try (Reader reader = Files.newBufferedReader(fichier)) {
+            relus = gson.fromJson(reader, BookDTO[].class);
+        }
+        List<BookDTO> attendus = livres(generateur);
+        assertEquals(200, ecrits);
+        assertEquals(200, relus.length);
+        assertEquals(attendus.get(42).getIsbn(), relus[42].getIsbn());
+        assertEquals(attendus.get(42).getDatePublication(), relus[42].getDatePublication());
+    }
+
+    @Test
+    void testCharger_LivresUtilisateursEtHistorique() throws Exception {
+        // Arrange
+        GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(5, 1_000, 100, 20_000).avecAnnees(2);
+
+        try (Connection connexion = creerBase()) {
+            // Act
+            generateur.charger(connexion);
+
+            // Assert
+            assertEquals(1_000, compter(connexion, "SELECT COUNT(*) FROM Books"));
+            assertEquals(100, compter(connexion, "SELECT COUNT(*) FROM Users"));
+            assertEquals(20_000, compter(connexion, "SELECT COUNT(*) FROM Emprunts"));
+            // Au plus un emprunt en cours par livre, et exactement les livres indisponibles
+            long enCours = compter(connexion, "SELECT COUNT(*) FROM Emprunts WHERE etat = 'EN_COURS'");
+            assertTrue(enCours > 0);
+            assertEquals(enCours, compter(connexion, "SELECT COUNT(DISTINCT book_id) FROM Emprunts WHERE etat = 'EN_COURS'"));
+            assertEquals(enCours, compter(connexion, "SELECT COUNT(*) FROM Books WHERE disponible = 0"));
+            // Historique chronologique : les IDs suivent les dates
+            assertEquals(0, compter(connexion, "SELECT COUNT(*) FROM Emprunts a JOIN Emprunts b "
+                    + "ON b.id = a.id + 1 WHERE b.date_emprunt < a.date_emprunt"));
+            assertEquals("lecteur7@bibliotheque.test",
+                    texte(connexion, "SELECT email FROM Users WHERE id = 7"));
+        }
+    }
+
+    @Test
+    void testCharger_RefuseUneBaseNonVide() throws Exception {
+        // Arrange
+        try (Connection connexion = creerBase()) {
+            new GenerateurJeuDeDonnees(5, 10, 2, 0).charger(connexion);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class,
+                    () -> new GenerateurJeuDeDonnees(6, 10, 2, 0).charger(connexion));
+            assertEquals(10, compter(connexion, "SELECT COUNT(*) FROM Books"));
+        }
+    }
+
+    @Test
+    void testCharger_EchecEnCours_BaseLaisseeVideEtRechargeable() throws Exception {
+        // Arrange : les emprunts sont refusés, après l'insertion des livres et des utilisateurs
+        GenerateurJeuDeDonnees generateur = new GenerateurJeuDeDonnees(5, 100, 10, 50);
+        try (Connection connexion = creerBase(); Statement ddl = connexion.createStatement()) {
+            ddl.execute("CREATE TRIGGER refus BEFORE INSERT ON Emprunts BEGIN SELECT RAISE(ABORT, 'disque plein'); END");
+
+            // Act & Assert
+            assertThrows(SQLException.class, () -> generateur.charger(connexion));
+            assertEquals(0, compter(connexion, "SELECT COUNT(*) FROM Books"));
+            assertEquals(0, compter(connexion, "SELECT COUNT(*) FROM Users"));
+
+            ddl.execute("DROP TRIGGER refus");
+            generateur.charger(connexion);
+            assertEquals(100, compter(connexion, "SELECT COUNT(*) FROM Books"));
+        }
+    }
+
+    @Test
+    void testConstructeur_EmpruntsSansLivres() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new GenerateurJeuDeDonnees(1, 0, 10, 5));
+    }
+
+    // Schéma tel que créé par Hibernate pour Book, User et Emprunt
+    private Connection creerBase() throws SQLException {
+        Connection connexion = DriverManager.getConnection("jdbc:sqlite:" + repertoire.resolve("test.db"));
+        try (Statement ddl = connexion.createStatement()) {
+            ddl.execute("CREATE TABLE Books (id integer, auteur varchar(255) not null, auteur_recherche varchar(255), "
+                    + "categorie varchar(255), categorie_recherche varchar(255), date_publication date, "
+                    + "isbn varchar(255) unique, titre varchar(255) not null, titre_recherche varchar(255), "
+                    + "disponible boolean, primary key (id))");
+            ddl.execute("CREATE TABLE Users (id integer, email varchar(255) not null unique, "
+                    + "motDePasse varchar(255) not null, nom varchar(255) not null, prenom varchar(255) not null, "
+                    + "primary key (id))");
+            ddl.execute("CREATE TABLE Emprunts (id integer, date_emprunt date not null, etat varchar(255) not null, "
+                    + "book_id bigint not null, user_id bigint not null, primary key (id))");
+            ddl.execute("CREATE INDEX idx_emprunts_book_etat on Emprunts (book_id, etat)");
+        }
+        return connexion;
+    }
+
+    private static long compter(Connection connexion, String requete) throws SQLException {
+        try (Statement statement = connexion.createStatement(); ResultSet resultat = statement.executeQuery(requete)) {
+            resultat.next();
+            return resultat.getLong(1);
+        }
+    }
+
+    private static String texte(Connection connexion, String requete) throws SQLException {
+        try (Statement statement = connexion.createStatement(); ResultSet resultat = statement.executeQuery(requete)) {
+            resultat.next();
+            return resultat.getString(1);
+        }
+    }
+}
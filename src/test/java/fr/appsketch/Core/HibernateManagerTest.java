@@ -1,9 +1,14 @@
 package fr.appsketch.Core;
 
+import com.zaxxer.hikari.HikariConfig;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HibernateManagerTest {
@@ -49,4 +54,75 @@ class HibernateManagerTest {
         session1.close();
         session2.close();
     }
+
+    @Test
+    void testExecuterChargementDirect_SessionFactoryOuverte_Refuse() {
+        HibernateManager.getSessionFactory();
+
+        assertThrows(IllegalStateException.class, () -> HibernateManager.executerChargementDirect(connexion -> 0));
+    }
+
+    @Test
+    void testExecuterChargementDirect_FermeLaSessionFactoryALaFin() {
+        HibernateManager.shutdown();
+        SessionFactory[] utilisee = new SessionFactory[1];
+
+        int resultat = HibernateManager.executerChargementDirect(connexion -> {
+            utilisee[0] = HibernateManager.getSessionFactory();
+            return 1;
+        });
+
+        assertEquals(1, resultat);
+        assertTrue(utilisee[0].isClosed(), "La SessionFactory du chargement doit être refermée");
+        assertNotSame(utilisee[0], HibernateManager.getSessionFactory());
+    }
+
+    @Test
+    void testConfigurerPool_AppliqueLaConfiguration() {
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.URL, "jdbc:sqlite:autre.db");
+        fichier.setProperty(ConfigurationBase.POOL_TAILLE_MAX, "8");
+        fichier.setProperty(ConfigurationBase.POOL_DETECTION_FUITE_MS, "10000");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        HikariConfig pool = HibernateManager.configurerPool(config);
+
+        assertEquals("jdbc:sqlite:autre.db", pool.getJdbcUrl());
+        assertEquals(8, pool.getMaximumPoolSize());
+        assertEquals(10000, pool.getLeakDetectionThreshold());
+    }
+
+    @Test
+    void testRapportDemarrage_ToutesLesPhasesMesurees() {
+        HibernateManager.getSessionFactory();
+
+        RapportDemarrage rapport = HibernateManager.getRapportDemarrage();
+
+        assertNotNull(rapport);
+        assertEquals(java.util.Set.of(HibernateManager.PHASE_CONFIGURATION, HibernateManager.PHASE_ENTITES,
+                HibernateManager.PHASE_METADONNEES, HibernateManager.PHASE_SCHEMA,
+                HibernateManager.PHASE_SESSION_FACTORY), rapport.getDurees().keySet());
+    }
+
+    @Test
+    void testParametres_SchemaEtJournalSqlDepuisLaConfiguration() {
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.JOURNAL_SQL, "true");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        Map<String, Object> parametres = HibernateManager.parametres(config, null, null);
+
+        assertEquals("true", parametres.get("hibernate.show_sql"));
+        // Le schéma est traité à part, pas pendant la construction de la SessionFactory
+        assertEquals("none", parametres.get("hibernate.hbm2ddl.auto"));
+        assertEquals("false", parametres.get("hibernate.cache.use_second_level_cache"));
+    }
+
+    @Test
+    void testStatistiquesCache_UneEntreeParRegion() {
+        List<StatistiquesCache> statistiques = HibernateManager.getStatistiquesCache();
+
+        assertEquals(CacheSecondNiveau.REGIONS,
+                statistiques.stream().map(StatistiquesCache::getRegion).toList());
+    }
 }
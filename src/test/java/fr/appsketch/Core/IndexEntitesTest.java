@@ -0,0 +1,79 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.Book;
+import fr.appsketch.Emprunt.Emprunt;
+import fr.appsketch.User.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexEntitesTest {
+
+    @Test
+    void testCharger_ContientToutesLesEntites() {
+        // Act
+        List<Class<?>> entites = IndexEntites.charger();
+
+        // Assert
+        assertEquals(3, entites.size());
+        assertTrue(entites.containsAll(List.of(Book.class, Emprunt.class, User.class)));
+    }
+
+    @Test
+    void testCharger_IndexAbsent_ListeDeclaree() throws IOException {
+        // Arrange : un class loader qui ne voit pas target/classes (compilation hors Maven)
+        try (URLClassLoader vide = new URLClassLoader(new URL[0], null)) {
+
+            // Act
+            List<Class<?>> entites = IndexEntites.charger(vide);
+
+            // Assert
+            assertEquals(IndexEntites.ENTITES_DECLAREES, entites);
+        }
+    }
+
+    @Test
+    void testListeDeclaree_IdentiqueAIndexGenere() {
+        // Une entité ajoutée sans mettre à jour la liste casserait les lancements depuis l'IDE
+        assertEquals(Set.copyOf(IndexEntites.charger()), Set.copyOf(IndexEntites.ENTITES_DECLAREES));
+    }
+
+    @Test
+    void testProcesseur_GenereIndexTrie(@TempDir Path dossier) throws IOException {
+        // Arrange
+        Path sources = Files.createDirectories(dossier.resolve("src/exemple"));
+        Files.writeString(sources.resolve("Zebre.java"),
+                "package exemple; @jakarta.persistence.Entity public class Zebre { @jakarta.persistence.Id Long id; }");
+        Files.writeString(sources.resolve("Antilope.java"),
+                "package exemple; @jakarta.persistence.Entity public class Antilope { @jakarta.persistence.Id Long id; }");
+        Files.writeString(sources.resolve("PasUneEntite.java"),
+                "package exemple; public class PasUneEntite { }");
+        Path sortie = Files.createDirectories(dossier.resolve("classes"));
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+
+        // Act
+        int resultat = javac.run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", IndexEntitesProcesseur.class.getName(),
+                "-d", sortie.toString(),
+                sources.resolve("Zebre.java").toString(),
+                sources.resolve("Antilope.java").toString(),
+                sources.resolve("PasUneEntite.java").toString());
+
+        // Assert
+        assertEquals(0, resultat);
+        assertEquals(List.of("exemple.Antilope", "exemple.Zebre"),
+                Files.readAllLines(sortie.resolve(IndexEntites.RESSOURCE)));
+    }
+}
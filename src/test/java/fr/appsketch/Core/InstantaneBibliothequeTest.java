@@ -0,0 +1,313 @@
+package fr.appsketch.Core;
+
+import fr.appsketch.Book.BookDTO;
+import fr.appsketch.Core.InstantaneBibliotheque.Section;
+import fr.appsketch.Emprunt.EtatEmprunt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantaneBibliothequeTest {
+
+    @TempDir
+    Path repertoire;
+
+    @Test
+    void testEcrirePuisLire_LivresIdentiques() throws IOException {
+        // Arrange
+        Path fichier = repertoire.resolve("livres.bibs");
+        List<BookDTO> livres = List.of(
+                new BookDTO("Le Petit Prince", "Antoine de Saint-Exupéry", LocalDate.of(1943, 4, 6), "978-2070612758", "Conte"),
+                new BookDTO("Vol de nuit", "Antoine de Saint-Exupéry", LocalDate.of(1931, 1, 1), "978-2070360185", "Roman"),
+                new BookDTO("Sans date ni catégorie", "Anonyme", null, null, null),
+                new BookDTO("Terre des hommes", "Antoine de Saint-Exupéry", LocalDate.of(1939, 2, 1), "978-2070360208", "Roman"));
+
+        // Act
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier)) {
+            ecriture.commencerSection(Section.LIVRES);
+            for (int i = 0; i < livres.size(); i++) {
+                ecriture.ecrireLivre(i + 1, livres.get(i), i != 1);
+            }
+        }
+        List<BookDTO> relus = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        List<Boolean> disponibles = new ArrayList<>();
+        try (LectureInstantane lecture = new LectureInstantane(fichier)) {
+            lecture.parcourirLivres((id, livre, disponible) -> {
+                ids.add(id);
+                relus.add(livre);
+                disponibles.add(disponible);
+            });
+
+            // Assert
+            assertEquals(4, lecture.nombreLignes(Section.LIVRES));
+            assertEquals(0, lecture.nombreLignes(Section.EMPRUNTS));
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids);
+        assertEquals(List.of(true, false, true, true), disponibles);
+        for (int i = 0; i < livres.size(); i++) {
+            assertEquals(livres.get(i).getTitre(), relus.get(i).getTitre());
+            assertEquals(livres.get(i).getAuteur(), relus.get(i).getAuteur());
+            assertEquals(livres.get(i).getDatePublication(), relus.get(i).getDatePublication());
+            assertEquals(livres.get(i).getIsbn(), relus.get(i).getIsbn());
+            assertEquals(livres.get(i).getCategorie(), relus.get(i).getCategorie());
+        }
+    }
+
+    @Test
+    void testEcrire_AuteurRepeteEcritUneSeuleFois() throws IOException {
+        // Arrange
+        Path fichier = repertoire.resolve("livres.bibs");
+        String auteur = "Un auteur au nom particulièrement long, pour que la répétition se voie";
+
+        // Act
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier)) {
+            ecriture.commencerSection(Section.LIVRES);
+            for (int i = 1; i <= 100; i++) {
+                ecriture.ecrireLivre(i, new BookDTO("T", auteur, null, null, "Roman"), true);
+            }
+        }
+
+        // Assert
+        assertTrue(Files.size(fichier) < 100 * auteur.length(), "Taille : " + Files.size(fichier));
+    }
+
+    @Test
+    void testEcrirePuisLire_UtilisateursEtEmprunts() throws IOException {
+        // Arrange
+        Path fichier = repertoire.resolve("catalogue.bibs");
+
+        // Act
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier)) {
+            ecriture.commencerSection(Section.UTILISATEURS);
+            ecriture.ecrireUtilisateur(7, "Dupont", "Zoé", "zoe@exemple.fr", "secret");
+            ecriture.commencerSection(Section.EMPRUNTS);
+            ecriture.ecrireEmprunt(3, 7, 12, LocalDate.of(2024, 2, 29), EtatEmprunt.EN_COURS);
+            ecriture.ecrireEmprunt(4, 7, 13, LocalDate.of(1969, 12, 31), EtatEmprunt.TERMINE);
+        }
+        List<String> utilisateurs = new ArrayList<>();
+        List<String> emprunts = new ArrayList<>();
+        try (LectureInstantane lecture = new LectureInstantane(fichier)) {
+            lecture.parcourirUtilisateurs((id, nom, prenom, email, motDePasse) ->
+                    utilisateurs.add(id + " " + nom + " " + prenom + " " + email + " " + motDePasse));
+            lecture.parcourirEmprunts((id, idUtilisateur, idLivre, date, etat) ->
+                    emprunts.add(id + " " + idUtilisateur + " " + idLivre + " " + date + " " + etat));
+        }
+
+        // Assert
+        assertEquals(List.of("7 Dupont Zoé zoe@exemple.fr secret"), utilisateurs);
+        assertEquals(List.of("3 7 12 2024-02-29 EN_COURS", "4 7 13 1969-12-31 TERMINE"), emprunts);
+    }
+
+    @Test
+    void testCommencerSection_OrdreImpose() throws IOException {
+        // Arrange
+        try (EcritureInstantane ecriture = new EcritureInstantane(repertoire.resolve("ordre.bibs"))) {
+            ecriture.commencerSection(Section.UTILISATEURS);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> ecriture.commencerSection(Section.LIVRES));
+            assertThrows(IllegalStateException.class,
+                    () -> ecriture.ecrireLivre(1, new BookDTO("T", "A", null, null, null), true));
+        }
+    }
+
+    @Test
+    void testLire_FichierQuiNEstPasUnInstantane() throws IOException {
+        // Arrange
+        Path fichier = Files.writeString(repertoire.resolve("livres.json"), "[{\"titre\":\"T\"}]");
+
+        // Act & Assert
+        IOException erreur = assertThrows(IOException.class, () -> new LectureInstantane(fichier));
+        assertTrue(erreur.getMessage().contains("n'est pas un instantané"));
+    }
+
+    @Test
+    void testLire_VersionPlusRecente() throws IOException {
+        // Arrange
+        Path fichier = Files.write(repertoire.resolve("futur.bibs"), ByteBuffer.allocate(8)
+                .putInt(InstantaneBibliotheque.MAGIE)
+                .putInt(InstantaneBibliotheque.VERSION + 1)
+                .array());
+
+        // Act & Assert
+        IOException erreur = assertThrows(IOException.class, () -> new LectureInstantane(fichier));
+        assertTrue(erreur.getMessage().contains("Version"));
+    }
+
+    @Test
+    void testLire_FichierTronque() throws IOException {
+        // Arrange
+        Path fichier = repertoire.resolve("tronque.bibs");
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier)) {
+            ecriture.commencerSection(Section.LIVRES);
+            ecriture.ecrireLivre(1, new BookDTO("Titre", "Auteur", LocalDate.of(2000, 1, 1), "isbn", "Roman"), true);
+        }
+        byte[] octets = Files.readAllBytes(fichier);
+        Files.write(fichier, Arrays.copyOf(octets, octets.length - 5));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> new LectureInstantane(fichier));
+    }
+
+    @Test
+    void testLire_SectionInconnueIgnoree() throws IOException {
+        // Arrange : section de code 99 (version ultérieure) avant les livres
+        Path fichier = repertoire.resolve("livres.bibs");
+        try (EcritureInstantane ecriture = new EcritureInstantane(fichier)) {
+            ecriture.commencerSection(Section.LIVRES);
+            ecriture.ecrireLivre(1, new BookDTO("Titre", "Auteur", null, null, null), true);
+        }
+        byte[] octets = Files.readAllBytes(fichier);
+        ByteBuffer avecInconnue = ByteBuffer.allocate(octets.length + 1 + InstantaneBibliotheque.TAILLE_ENTETE_SECTION + 3)
+                .put(octets, 0, 8)
+                .put((byte) 99).putLong(3).putInt(1).put(new byte[]{1, 2, 3})
+                .put(octets, 8, octets.length - 8);
+        Files.write(fichier, avecInconnue.array());
+        List<String> titres = new ArrayList<>();
+
+        // Act
+        try (LectureInstantane lecture = new LectureInstantane(fichier)) {
+            lecture.parcourirLivres((id, livre, disponible) -> titres.add(livre.getTitre()));
+        }
+
+        // Assert
+        assertEquals(List.of("Titre"), titres);
+    }
+
+    @Test
+    void testSauvegarderPuisCharger_BaseIdentique() throws Exception {
+        // Arrange
+        Path fichier = repertoire.resolve("catalogue.bibs");
+        BilanInstantane sauvegarde;
+        try (Connection source = creerBase("source.db")) {
+            new GenerateurJeuDeDonnees(5, 500, 50, 5_000).avecAnnees(1).charger(source);
+            try (Statement requete = source.createStatement()) {
+                requete.executeUpdate("UPDATE Books SET categorie = NULL, categorie_recherche = NULL, "
+                        + "date_publication = NULL WHERE id = 3");
+            }
+
+            // Act
+            sauvegarde = InstantaneBibliotheque.sauvegarder(source, fichier);
+
+            try (Connection cible = creerBase("cible.db")) {
+                BilanInstantane chargement = InstantaneBibliotheque.charger(cible, fichier);
+
+                // Assert
+                assertEquals(500, sauvegarde.getLivres());
+                assertEquals(50, sauvegarde.getUtilisateurs());
+                assertEquals(5_000, sauvegarde.getEmprunts());
+                assertEquals(sauvegarde.toString(), chargement.toString());
+                for (String requete : List.of(
+                        "SELECT id, titre, auteur, date_publication, isbn, categorie, titre_recherche, "
+                                + "auteur_recherche, categorie_recherche, disponible FROM Books ORDER BY id",
+                        "SELECT id, nom, prenom, email, motDePasse FROM Users ORDER BY id",
+                        "SELECT id, user_id, book_id, date_emprunt, etat FROM Emprunts ORDER BY id")) {
+                    assertEquals(lignes(source, requete), lignes(cible, requete), requete);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSauvegarder_EchecEnCours_AucunInstantanePartiel() throws Exception {
+        // Arrange : l'état inconnu fait échouer la sauvegarde après les livres et les utilisateurs
+        Path fichier = repertoire.resolve("catalogue.bibs");
+        try (Connection connexion = creerBase("base.db")) {
+            new GenerateurJeuDeDonnees(5, 10, 2, 5).charger(connexion);
+            InstantaneBibliotheque.sauvegarder(connexion, fichier);
+            byte[] precedent = Files.readAllBytes(fichier);
+            try (Statement requete = connexion.createStatement()) {
+                requete.executeUpdate("UPDATE Emprunts SET etat = 'INCONNU' WHERE id = 5");
+            }
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> InstantaneBibliotheque.sauvegarder(connexion, fichier));
+            assertArrayEquals(precedent, Files.readAllBytes(fichier));
+            try (var fichiers = Files.list(repertoire)) {
+                assertEquals(List.of(), fichiers.filter(f -> f.toString().endsWith(".tmp")).toList());
+            }
+        }
+    }
+
+    @Test
+    void testCharger_EchecEnCours_BaseLaisseeVideEtRechargeable() throws Exception {
+        // Arrange : la base cible refuse les emprunts, chargés après les livres et les utilisateurs
+        Path fichier = repertoire.resolve("catalogue.bibs");
+        try (Connection source = creerBase("source.db")) {
+            new GenerateurJeuDeDonnees(5, 100, 10, 50).charger(source);
+            InstantaneBibliotheque.sauvegarder(source, fichier);
+        }
+        try (Connection cible = creerBase("cible.db"); Statement ddl = cible.createStatement()) {
+            ddl.execute("CREATE TRIGGER refus BEFORE INSERT ON Emprunts BEGIN SELECT RAISE(ABORT, 'disque plein'); END");
+
+            // Act & Assert
+            assertThrows(SQLException.class, () -> InstantaneBibliotheque.charger(cible, fichier));
+            assertEquals(List.of(), lignes(cible, "SELECT id FROM Books"));
+            assertEquals(List.of(), lignes(cible, "SELECT id FROM Users"));
+
+            ddl.execute("DROP TRIGGER refus");
+            assertEquals(100, InstantaneBibliotheque.charger(cible, fichier).getLivres());
+        }
+    }
+
+    @Test
+    void testCharger_RefuseUneBaseNonVide() throws Exception {
+        // Arrange
+        Path fichier = repertoire.resolve("catalogue.bibs");
+        try (Connection connexion = creerBase("base.db")) {
+            new GenerateurJeuDeDonnees(5, 10, 2, 0).charger(connexion);
+            InstantaneBibliotheque.sauvegarder(connexion, fichier);
+
+            // Act & Assert
+            assertThrows(IllegalStateException.class, () -> InstantaneBibliotheque.charger(connexion, fichier));
+        }
+    }
+
+    // Schéma tel que créé par Hibernate pour Book, User et Emprunt
+    private Connection creerBase(String nom) throws SQLException {
+        Connection connexion = DriverManager.getConnection("jdbc:sqlite:" + repertoire.resolve(nom));
+        try (Statement ddl = connexion.createStatement()) {
+            ddl.execute("CREATE TABLE Books (id integer, auteur varchar(255) not null, auteur_recherche varchar(255), "
+                    + "categorie varchar(255), categorie_recherche varchar(255), date_publication date, "
+                    + "isbn varchar(255) unique, titre varchar(255) not null, titre_recherche varchar(255), "
+                    + "disponible boolean, primary key (id))");
+            ddl.execute("CREATE TABLE Users (id integer, email varchar(255) not null unique, "
+                    + "motDePasse varchar(255) not null, nom varchar(255) not null, prenom varchar(255) not null, "
+                    + "primary key (id))");
+            ddl.execute("CREATE TABLE Emprunts (id integer, date_emprunt date not null, etat varchar(255) not null, "
+                    + "book_id bigint not null, user_id bigint not null, primary key (id))");
+        }
+        return connexion;
+    }
+
+    private static List<List<Object>> lignes(Connection connexion, String requete) throws SQLException {
+        List<List<Object>> lignes = new ArrayList<>();
+        try (Statement statement = connexion.createStatement(); ResultSet resultat = statement.executeQuery(requete)) {
+            int colonnes = resultat.getMetaData().getColumnCount();
+            while (resultat.next()) {
+                List<Object> ligne = new ArrayList<>();
+                for (int i = 1; i <= colonnes; i++) {
+                    ligne.add(resultat.getObject(i));
+                }
+                lignes.add(ligne);
+            }
+        }
+        return lignes;
+    }
+}
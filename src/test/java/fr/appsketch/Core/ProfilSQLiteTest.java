@@ -0,0 +1,98 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfilSQLiteTest {
+
+    @Test
+    void testProprietesConnexion_Equilibre() {
+        // Act
+        Properties proprietes = ProfilSQLite.EQUILIBRE.proprietesConnexion();
+
+        // Assert
+        assertEquals("WAL", proprietes.getProperty("journal_mode"));
+        assertEquals("NORMAL", proprietes.getProperty("synchronous"));
+        assertEquals("MEMORY", proprietes.getProperty("temp_store"));
+        assertEquals("-32768", proprietes.getProperty("cache_size"));
+        assertEquals("268435456", proprietes.getProperty("mmap_size"));
+        assertEquals("5000", proprietes.getProperty("busy_timeout"));
+        assertEquals("IMMEDIATE", proprietes.getProperty("transaction_mode"));
+    }
+
+    @Test
+    void testProprietesConnexion_AppliqueesALaConnexion(@TempDir Path dossier) throws SQLException {
+        // Arrange
+        String url = "jdbc:sqlite:" + dossier.resolve("profil.db");
+
+        // Act
+        try (Connection connexion = DriverManager.getConnection(url, ProfilSQLite.CHARGEMENT_MASSIF.proprietesConnexion());
+             Statement statement = connexion.createStatement()) {
+
+            // Assert
+            assertEquals("wal", pragma(statement, "journal_mode"));
+            assertEquals("0", pragma(statement, "synchronous"));
+            assertEquals("30000", pragma(statement, "busy_timeout"));
+        }
+    }
+
+    @Test
+    void testProprietesLecture_TransactionDeLectureNeBloquePasLesEcritures(@TempDir Path dossier) throws SQLException {
+        // Arrange
+        String url = "jdbc:sqlite:" + dossier.resolve("lecture.db");
+        try (Connection ecriture = DriverManager.getConnection(url, ProfilSQLite.EQUILIBRE.proprietesConnexion());
+             Connection lecture = DriverManager.getConnection(url, ProfilSQLite.EQUILIBRE.proprietesLecture());
+             Statement ddl = ecriture.createStatement()) {
+            ddl.execute("CREATE TABLE Livres (id integer primary key)");
+            ddl.execute("INSERT INTO Livres VALUES (1)");
+            ddl.execute("PRAGMA busy_timeout = 0");
+
+            // Act : une transaction de lecture reste ouverte pendant qu'une autre connexion écrit
+            lecture.setAutoCommit(false);
+            try (Statement requete = lecture.createStatement()) {
+                long avant = compter(requete);
+                ecriture.setAutoCommit(false);
+                ddl.execute("INSERT INTO Livres VALUES (2)");
+                ecriture.commit();
+
+                // Assert : l'écriture n'a pas attendu, et la lecture voit toujours le même état
+                assertEquals(1, avant);
+                assertEquals(1, compter(requete));
+            } finally {
+                lecture.commit();
+            }
+        }
+        assertEquals("DEFERRED", ProfilSQLite.EQUILIBRE.proprietesLecture().getProperty("transaction_mode"));
+    }
+
+    @Test
+    void testDepuisNom() {
+        assertEquals(ProfilSQLite.CHARGEMENT_MASSIF, ProfilSQLite.depuisNom("chargement-massif"));
+        assertEquals(ProfilSQLite.DURABLE, ProfilSQLite.depuisNom(" Durable "));
+        assertThrows(IllegalArgumentException.class, () -> ProfilSQLite.depuisNom("rapide"));
+    }
+
+    private static String pragma(Statement statement, String nom) throws SQLException {
+        try (ResultSet resultat = statement.executeQuery("PRAGMA " + nom)) {
+            resultat.next();
+            return resultat.getString(1);
+        }
+    }
+
+    private static long compter(Statement statement) throws SQLException {
+        try (ResultSet resultat = statement.executeQuery("SELECT COUNT(*) FROM Livres")) {
+            resultat.next();
+            return resultat.getLong(1);
+        }
+    }
+}
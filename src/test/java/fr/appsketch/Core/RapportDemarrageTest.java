@@ -0,0 +1,69 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RapportDemarrageTest {
+
+    @Test
+    void testMesurer_RenvoieLeResultatEtEnregistreLaPhase() {
+        // Arrange
+        RapportDemarrage rapport = new RapportDemarrage();
+
+        // Act
+        String resultat = rapport.mesurer("configuration", () -> "ok");
+        rapport.executer("schéma", () -> { });
+
+        // Assert
+        assertEquals("ok", resultat);
+        assertEquals(List.of("configuration", "schéma"), rapport.getDurees().keySet().stream().sorted().toList());
+        assertEquals(0, rapport.getDureeMs("inconnue"));
+    }
+
+    @Test
+    void testMesurer_ExceptionEnregistreQuandMemeLaPhase() {
+        // Arrange
+        RapportDemarrage rapport = new RapportDemarrage();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> rapport.mesurer("métadonnées", () -> {
+            throw new IllegalStateException("échec");
+        }));
+        assertTrue(rapport.getDurees().containsKey("métadonnées"));
+    }
+
+    @Test
+    void testGetDurees_OrdreDExecution() {
+        // Arrange
+        RapportDemarrage rapport = new RapportDemarrage();
+        rapport.executer("schéma", () -> { });
+        rapport.executer("configuration", () -> { });
+        rapport.executer("SessionFactory", () -> { });
+
+        // Act
+        Map<String, Long> durees = rapport.getDurees();
+
+        // Assert
+        assertEquals(List.of("schéma", "configuration", "SessionFactory"), List.copyOf(durees.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> durees.put("autre", 0L));
+    }
+
+    @Test
+    void testToString_PhasesDansLOrdreEtTotal() {
+        // Arrange
+        RapportDemarrage rapport = new RapportDemarrage();
+        rapport.executer("configuration", () -> { });
+        rapport.executer("schéma", () -> { });
+
+        // Act
+        String texte = rapport.toString();
+
+        // Assert
+        assertTrue(texte.indexOf("configuration") < texte.indexOf("schéma"));
+        assertTrue(texte.contains("total"));
+    }
+}
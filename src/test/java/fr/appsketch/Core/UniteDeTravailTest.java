@@ -0,0 +1,163 @@
+package fr.appsketch.Core;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniteDeTravailTest {
+
+    @Mock
+    private EntityManagerFactory factory;
+
+    // EntityManager simulé dont la transaction n'est pas active
+    private static EntityManager nouvelEntityManager() {
+        EntityManager em = mock(EntityManager.class);
+        EntityTransaction transaction = mock(EntityTransaction.class);
+        lenient().when(em.getTransaction()).thenReturn(transaction);
+        return em;
+    }
+
+    @Test
+    void testObtenir_OuvreEtFermeUnEntityManagerParOperation() {
+        // Arrange
+        EntityManager premier = nouvelEntityManager();
+        EntityManager second = nouvelEntityManager();
+        when(factory.createEntityManager()).thenReturn(premier, second);
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+
+        // Act
+        unite.executer(() -> unite.entityManager().flush());
+        unite.executer(() -> unite.entityManager().clear());
+
+        // Assert
+        verify(premier).flush();
+        verify(premier).close();
+        verify(second).clear();
+        verify(second).close();
+    }
+
+    @Test
+    void testObtenir_OperationsImbriqueesPartagentLEntityManager() {
+        // Arrange
+        EntityManager em = nouvelEntityManager();
+        when(factory.createEntityManager()).thenReturn(em);
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+
+        // Act
+        String resultat = unite.obtenir(() -> unite.obtenir(() -> {
+            unite.entityManager().flush();
+            return "ok";
+        }));
+
+        // Assert
+        assertEquals("ok", resultat);
+        verify(factory, times(1)).createEntityManager();
+        verify(em, times(1)).close();
+    }
+
+    @Test
+    void testObtenir_AnnuleUneTransactionResteeOuverte() {
+        // Arrange
+        EntityManager em = nouvelEntityManager();
+        when(em.getTransaction().isActive()).thenReturn(true);
+        when(factory.createEntityManager()).thenReturn(em);
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> unite.executer(() -> {
+            throw new IllegalStateException("échec");
+        }));
+        verify(em.getTransaction()).rollback();
+        verify(em).close();
+    }
+
+    @Test
+    void testEntityManager_HorsUniteDeTravail() {
+        // Arrange
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> unite.entityManager().flush());
+        assertFalse(unite.entityManager().isOpen());
+    }
+
+    @Test
+    void testEntityManager_RelanceLesExceptionsDeLEntityManager() {
+        // Arrange
+        EntityManager em = nouvelEntityManager();
+        doThrow(new IllegalArgumentException("entité inconnue")).when(em).remove("x");
+        when(factory.createEntityManager()).thenReturn(em);
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+
+        // Act & Assert
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                () -> unite.executer(() -> unite.entityManager().remove("x")));
+        assertEquals("entité inconnue", erreur.getMessage());
+    }
+
+    @Test
+    void testPartagee_UtiliseLEntityManagerFourniSansLeFermer() {
+        // Arrange
+        EntityManager em = nouvelEntityManager();
+        UniteDeTravail unite = UniteDeTravail.partagee(em);
+
+        // Act
+        unite.executer(() -> unite.entityManager().flush());
+
+        // Assert
+        assertSame(em, unite.entityManager());
+        verify(em).flush();
+        verify(em, never()).close();
+    }
+
+    @Test
+    void testObtenir_UnEntityManagerParThread() throws Exception {
+        // Arrange
+        int threads = 8;
+        when(factory.createEntityManager()).thenAnswer(invocation -> nouvelEntityManager());
+        UniteDeTravail unite = UniteDeTravail.parOperation(factory);
+        CountDownLatch tousDansLOperation = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> resultats = new ArrayList<>();
+
+        // Act : chaque thread reste dans son opération jusqu'à ce que tous y soient entrés
+        try {
+            for (int i = 0; i < threads; i++) {
+                resultats.add(executor.submit(() -> unite.executer(() -> {
+                    unite.entityManager().flush();
+                    tousDansLOperation.countDown();
+                    try {
+                        assertTrue(tousDansLOperation.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    unite.entityManager().clear();
+                })));
+            }
+            for (Future<?> resultat : resultats) {
+                resultat.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        verify(factory, times(threads)).createEntityManager();
+    }
+}
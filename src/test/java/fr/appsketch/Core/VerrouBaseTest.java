@@ -0,0 +1,49 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerrouBaseTest {
+
+    @TempDir
+    Path repertoire;
+
+    @Test
+    void testFichierBase_DepuisLUrl() {
+        assertEquals(Path.of("bibliotheque.db").toAbsolutePath(), VerrouBase.fichierBase("jdbc:sqlite:bibliotheque.db"));
+        assertEquals(Path.of("/tmp/b.db"), VerrouBase.fichierBase("jdbc:sqlite:file:/tmp/b.db?cache=shared"));
+        assertNull(VerrouBase.fichierBase("jdbc:sqlite::memory:"));
+        assertNull(VerrouBase.fichierBase("jdbc:sqlite:"));
+        assertNull(VerrouBase.fichierBase("jdbc:h2:mem:test"));
+    }
+
+    @Test
+    void testAcquerir_BaseDejaVerrouillee_Refuse() throws IOException {
+        // Arrange
+        String url = "jdbc:sqlite:" + repertoire.resolve("base.db");
+
+        try (VerrouBase verrou = VerrouBase.acquerir(url)) {
+            // Act & Assert
+            assertNotNull(verrou);
+            assertThrows(IllegalStateException.class, () -> VerrouBase.acquerir(url));
+        }
+    }
+
+    @Test
+    void testAcquerir_ApresLiberation_Reprend() throws IOException {
+        // Arrange
+        String url = "jdbc:sqlite:" + repertoire.resolve("base.db");
+        VerrouBase.acquerir(url).close();
+
+        // Act & Assert
+        try (VerrouBase verrou = VerrouBase.acquerir(url)) {
+            assertNotNull(verrou);
+        }
+        assertNull(VerrouBase.acquerir("jdbc:sqlite::memory:"));
+    }
+}
@@ -0,0 +1,192 @@
+package fr.appsketch.Core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerrousSegmentesTest {
+
+    @Test
+    void testExecuter_RenvoieLeResultatEtCompteLAcquisition() {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(4, false, Duration.ofSeconds(1));
+
+        // Act
+        String resultat = verrous.executer(42, () -> "ok");
+
+        // Assert
+        assertEquals("ok", resultat);
+        StatistiquesVerrous statistiques = verrous.statistiques();
+        assertEquals(1, statistiques.getAcquisitions());
+        assertEquals(0, statistiques.getAcquisitionsAvecAttente());
+        assertEquals(0, statistiques.getLongueurFile());
+    }
+
+    @Test
+    void testExecuter_ReentrantSurLaMemeCle() {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(1, true, Duration.ZERO);
+
+        // Act
+        int resultat = verrous.executer(7, () -> verrous.executer(7, () -> 3));
+
+        // Assert
+        assertEquals(3, resultat);
+        assertEquals(0, verrous.statistiques().getExpirations());
+    }
+
+    @Test
+    void testExecuter_MemeCle_OperationsLUneApresLAutre() throws Exception {
+        // Arrange
+        int threads = 8;
+        VerrousSegmentes verrous = new VerrousSegmentes(16, false, Duration.ofSeconds(10));
+        AtomicInteger dansLaSection = new AtomicInteger();
+        AtomicInteger maxDansLaSection = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        try {
+            Future<?>[] resultats = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                resultats[t] = executor.submit(() -> {
+                    depart.await();
+                    for (int i = 0; i < 50; i++) {
+                        verrous.executer(5, () -> {
+                            maxDansLaSection.accumulateAndGet(dansLaSection.incrementAndGet(), Math::max);
+                            Thread.yield();
+                            return dansLaSection.decrementAndGet();
+                        });
+                    }
+                    return null;
+                });
+            }
+            depart.countDown();
+            for (Future<?> resultat : resultats) {
+                resultat.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(1, maxDansLaSection.get());
+        assertEquals(threads * 50, verrous.statistiques().getAcquisitions());
+    }
+
+    @Test
+    void testExecuter_ClesDeSegmentsDifferents_NeSAttendentPas() throws Exception {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(64, false, Duration.ofMillis(50));
+        long autreCle = 2;
+        while (verrous.segment(autreCle) == verrous.segment(1)) {
+            autreCle++;
+        }
+        long cle = autreCle;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Act : la clé 1 est tenue pendant que l'autre thread prend une clé d'un autre segment
+        try {
+            String resultat = verrous.executer(1, () -> {
+                try {
+                    return executor.submit(() -> verrous.executer(cle, () -> "libre")).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // Assert
+            assertEquals("libre", resultat);
+            assertEquals(0, verrous.statistiques().getAcquisitionsAvecAttente());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecuter_AttenteMaxDepassee_RefuseEtCompteLaFile() throws Exception {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(4, false, Duration.ofMillis(100));
+        CountDownLatch verrouPris = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> detenteur = executor.submit(() -> verrous.executer(9, () -> {
+                verrouPris.countDown();
+                try {
+                    return liberer.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            assertTrue(verrouPris.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert
+            IllegalStateException erreur = assertThrows(IllegalStateException.class,
+                    () -> verrous.executer(9, () -> "jamais"));
+            assertTrue(erreur.getMessage().contains("100 ms"));
+
+            liberer.countDown();
+            detenteur.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        StatistiquesVerrous statistiques = verrous.statistiques();
+        assertEquals(2, statistiques.getAcquisitions());
+        assertEquals(1, statistiques.getAcquisitionsAvecAttente());
+        assertEquals(1, statistiques.getExpirations());
+        assertEquals(1, statistiques.getLongueurFileMax());
+        assertEquals(0, statistiques.getLongueurFile());
+        assertTrue(statistiques.getAttenteMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void testSegment_IdsConsecutifsRepartisSurTousLesSegments() {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(16, false, Duration.ofSeconds(1));
+        Set<Integer> segments = new HashSet<>();
+
+        // Act : IDs multiples du nombre de segments, le cas le plus défavorable d'un simple modulo
+        for (long id = 16; id <= 16 * 64; id += 16) {
+            segments.add(verrous.segment(id));
+        }
+
+        // Assert
+        assertEquals(16, segments.size());
+    }
+
+    @Test
+    void testConstructeur_ParametresInvalides() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new VerrousSegmentes(0, false, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new VerrousSegmentes(4, false, Duration.ofMillis(-1)));
+    }
+
+    @Test
+    void testDepuisConfiguration() {
+        // Arrange
+        Properties fichier = new Properties();
+        fichier.setProperty(ConfigurationBase.VERROUS_SEGMENTS, "8");
+        ConfigurationBase config = new ConfigurationBase(fichier, new Properties(), Map.of());
+
+        // Act
+        VerrousSegmentes verrous = VerrousSegmentes.depuisConfiguration(config);
+
+        // Assert
+        assertEquals(8, verrous.getNombreSegments());
+    }
+}
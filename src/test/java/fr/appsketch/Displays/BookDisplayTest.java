@@ -2,6 +2,7 @@ package fr.appsketch.Displays;
 
 import fr.appsketch.Book.Book;
 import fr.appsketch.Book.BookManager;
+import fr.appsketch.Book.BookSearchIndex;
 import fr.appsketch.Emprunt.Emprunt;
 import fr.appsketch.Emprunt.EmpruntManager;
 import fr.appsketch.User.User;
@@ -151,14 +152,15 @@ class BookDisplayTest {
         Book book = new Book("Titre Recherché", "Auteur", LocalDate.now(), "ISBN", "Cat");
         List<Book> books = List.of(book);
 
-        when(bookManager.rechercherParTitre("Titre Recherché")).thenReturn(books);
+        when(bookManager.rechercherIds(BookSearchIndex.Champ.TITRE, "Titre Recherché")).thenReturn(new long[]{1L});
+        when(bookManager.chargerLivres(any(long[].class), eq(0), anyInt())).thenReturn(books);
         bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
 
         // Act
         bookDisplay.afficherMenu();
 
         // Assert
-        verify(bookManager).rechercherParTitre("Titre Recherché");
+        verify(bookManager).rechercherIds(BookSearchIndex.Champ.TITRE, "Titre Recherché");
         String output = outputStream.toString();
         assertTrue(output.contains("RECHERCHE PAR TITRE"));
     }
@@ -168,14 +170,15 @@ class BookDisplayTest {
         // Arrange
         String input = "7\nTitre Inexistant\n0\n";
 
-        when(bookManager.rechercherParTitre("Titre Inexistant")).thenReturn(List.of());
+        when(bookManager.rechercherIds(BookSearchIndex.Champ.TITRE, "Titre Inexistant")).thenReturn(new long[0]);
         bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
 
         // Act
         bookDisplay.afficherMenu();
 
         // Assert
-        verify(bookManager).rechercherParTitre("Titre Inexistant");
+        verify(bookManager).rechercherIds(BookSearchIndex.Champ.TITRE, "Titre Inexistant");
+        verify(bookManager, never()).chargerLivres(any(long[].class), anyInt(), anyInt());
         String output = outputStream.toString();
         assertTrue(output.contains("Aucun livre trouvé"));
     }
@@ -187,14 +190,15 @@ class BookDisplayTest {
         Book book = new Book("Titre", "Auteur Test", LocalDate.now(), "ISBN", "Cat");
         List<Book> books = List.of(book);
 
-        when(bookManager.rechercherParAuteur("Auteur Test")).thenReturn(books);
+        when(bookManager.rechercherIds(BookSearchIndex.Champ.AUTEUR, "Auteur Test")).thenReturn(new long[]{1L});
+        when(bookManager.chargerLivres(any(long[].class), eq(0), anyInt())).thenReturn(books);
         bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
 
         // Act
         bookDisplay.afficherMenu();
 
         // Assert
-        verify(bookManager).rechercherParAuteur("Auteur Test");
+        verify(bookManager).rechercherIds(BookSearchIndex.Champ.AUTEUR, "Auteur Test");
         String output = outputStream.toString();
         assertTrue(output.contains("RECHERCHE PAR AUTEUR"));
     }
@@ -206,18 +210,64 @@ class BookDisplayTest {
         Book book = new Book("Titre", "Auteur", LocalDate.now(), "ISBN", "Fantasy");
         List<Book> books = List.of(book);
 
-        when(bookManager.rechercherParCategorie("Fantasy")).thenReturn(books);
+        when(bookManager.rechercherIds(BookSearchIndex.Champ.CATEGORIE, "Fantasy")).thenReturn(new long[]{1L});
+        when(bookManager.chargerLivres(any(long[].class), eq(0), anyInt())).thenReturn(books);
         bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
 
         // Act
         bookDisplay.afficherMenu();
 
         // Assert
-        verify(bookManager).rechercherParCategorie("Fantasy");
+        verify(bookManager).rechercherIds(BookSearchIndex.Champ.CATEGORIE, "Fantasy");
         String output = outputStream.toString();
         assertTrue(output.contains("RECHERCHE PAR CATÉGORIE"));
     }
 
+    @Test
+    void testAfficherMenu_RechercherParTitre_PlusieursPages_ChargeUniquementLesPagesAffichees() {
+        // Arrange : 45 résultats = 3 pages de 20, l'utilisateur s'arrête après la 2e page
+        String input = "7\nTome\noui\nnon\n0\n";
+        long[] ids = new long[45];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        Book book = new Book("Tome", "Auteur", LocalDate.now(), "ISBN", "Cat");
+
+        when(bookManager.rechercherIds(BookSearchIndex.Champ.TITRE, "Tome")).thenReturn(ids);
+        when(bookManager.chargerLivres(eq(ids), anyInt(), eq(20))).thenReturn(List.of(book));
+        bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
+
+        // Act
+        bookDisplay.afficherMenu();
+
+        // Assert
+        verify(bookManager).chargerLivres(ids, 0, 20);
+        verify(bookManager).chargerLivres(ids, 20, 20);
+        verify(bookManager, never()).chargerLivres(ids, 40, 20);
+        String output = outputStream.toString();
+        assertTrue(output.contains("45 résultat(s)"));
+        assertTrue(output.contains("Page 2/3"));
+    }
+
+    @Test
+    void testAfficherMenu_RechercheTexteIntegral_ShouldCallManager() {
+        // Arrange
+        String input = "14\ntolkien hobbit\n0\n";
+        Book book = new Book("Le Hobbit", "J.R.R. Tolkien", LocalDate.now(), "ISBN", "Fantasy");
+
+        when(bookManager.rechercherTexteIntegral("tolkien hobbit")).thenReturn(List.of(book));
+        bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
+
+        // Act
+        bookDisplay.afficherMenu();
+
+        // Assert
+        verify(bookManager).rechercherTexteIntegral("tolkien hobbit");
+        String output = outputStream.toString();
+        assertTrue(output.contains("RECHERCHE PLEIN TEXTE"));
+        assertTrue(output.contains("Le Hobbit"));
+    }
+
     @Test
     void testAfficherMenu_AjouterLivre_Success_ShouldCallManager() {
         // Arrange
@@ -414,6 +464,31 @@ class BookDisplayTest {
         assertTrue(output.contains("RENDRE UN LIVRE"));
     }
 
+    @Test
+    void testAfficherMenu_SupprimerLivre_AfficheLEmpruntEnCoursSansParcourirLHistorique() {
+        // Arrange : un livre chargé sans ses emprunts, dont l'emprunt en cours est lu par requête
+        Book book = new Book("Livre", "Auteur", LocalDate.now(), "ISBN", "Cat");
+        book.setId(1L);
+        book.setEmprunts(null);
+        User user = new User("Dupont", "Jean", "jean@example.com", "pass");
+        Emprunt emprunt = new Emprunt(user, book, LocalDate.now());
+
+        String input = "3\n1\nnon\n0\n";
+
+        when(bookManager.trouverParId(1L)).thenReturn(Optional.of(book));
+        when(empruntManager.getEmpruntEnCours(book)).thenReturn(Optional.of(emprunt));
+        bookDisplay.setScanner(new Scanner(new ByteArrayInputStream(input.getBytes())));
+
+        // Act
+        bookDisplay.afficherMenu();
+
+        // Assert
+        String output = outputStream.toString();
+        assertTrue(output.contains("Emprunté"));
+        assertTrue(output.contains("Jean Dupont"));
+        verify(bookManager, never()).trouverParIdAvecEmprunts(anyLong());
+    }
+
     @Test
     void testSetScanner_ShouldSetNewScanner() {
         // Arrange
@@ -0,0 +1,232 @@
+package fr.appsketch.Emprunt;
+
+import fr.appsketch.Book.Book;
+import fr.appsketch.Book.BookManager;
+import fr.appsketch.Book.BookRepository;
+import fr.appsketch.Core.ConfigurationBase;
+import fr.appsketch.Core.HibernateManager;
+import fr.appsketch.Core.StatistiquesVerrous;
+import fr.appsketch.Core.UniteDeTravail;
+import fr.appsketch.Core.VerrousSegmentes;
+import fr.appsketch.User.User;
+import fr.appsketch.User.UserManager;
+import fr.appsketch.User.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Emprunts et retours concurrents sur une vraie base SQLite (fichier temporaire)
+ * Beaucoup de threads se disputent peu de livres : jamais plus d'un emprunt en cours par livre.
+ */
+class EmpruntManagerConcurrenceTest {
+
+    private static final int THREADS = 16;
+    private static final int LIVRES = 3;
+    private static final int OPERATIONS_PAR_THREAD = 40;
+
+    @TempDir
+    static Path repertoire;
+
+    private static UniteDeTravail uniteDeTravail;
+    private static EmpruntManager empruntManager;
+    private static final List<Book> livres = new ArrayList<>();
+    private static final List<User> users = new ArrayList<>();
+
+    @BeforeAll
+    static void demarrer() {
+        HibernateManager.shutdown();
+        System.setProperty(ConfigurationBase.URL, "jdbc:sqlite:" + repertoire.resolve("concurrence.db"));
+
+        uniteDeTravail = UniteDeTravail.parOperation(HibernateManager.getSessionFactory());
+        EntityManager em = uniteDeTravail.entityManager();
+        BookManager bookManager = new BookManager(new BookRepository(em), null, null, null, uniteDeTravail);
+        UserManager userManager = new UserManager(new UserRepository(em), null, uniteDeTravail);
+        empruntManager = new EmpruntManager(new EmpruntRepository(em), uniteDeTravail);
+        empruntManager.initialiserUniciteEmpruntsEnCours();
+
+        for (int i = 0; i < LIVRES; i++) {
+            livres.add(bookManager.ajouterLivre("Livre " + i, "Auteur", LocalDate.of(2000, 1, 1),
+                    "concurrence-" + i, "Test"));
+        }
+        for (int i = 0; i < THREADS; i++) {
+            users.add(userManager.ajouterUtilisateur("Lecteur", "N" + i, "lecteur" + i + "@concurrence.test", "secret"));
+        }
+    }
+
+    @AfterAll
+    static void arreter() {
+        HibernateManager.shutdown();
+        System.clearProperty(ConfigurationBase.URL);
+    }
+
+    @Test
+    void testEmprunterLivre_ForteContention_UnSeulEmpruntEnCoursParLivre() throws Exception {
+        // Sans verrous applicatifs : seules la transaction et l'index unique départagent les threads
+        stresser(empruntManager);
+    }
+
+    @Test
+    void testEmprunterLivre_ForteContentionSousVerrous_UnSeulEmpruntEnCoursParLivre() throws Exception {
+        // Arrange
+        EmpruntManager sousVerrous = new EmpruntManager(new EmpruntRepository(uniteDeTravail.entityManager()),
+                uniteDeTravail, new VerrousSegmentes(8, false, Duration.ofSeconds(30)));
+
+        // Act
+        stresser(sousVerrous);
+
+        // Assert
+        StatistiquesVerrous statistiques = sousVerrous.getStatistiquesVerrous().orElseThrow();
+        assertTrue(statistiques.getAcquisitions() >= THREADS * OPERATIONS_PAR_THREAD);
+        assertEquals(0, statistiques.getExpirations());
+        assertEquals(0, statistiques.getLongueurFile());
+    }
+
+    @Test
+    void testMajDisponibilite_LivreModifieEntreTemps_ModificationConservee() {
+        // Arrange : le livre est lu par l'emprunt avant qu'une modification concurrente ne soit validée
+        EntityManagerFactory sessionFactory = HibernateManager.getSessionFactory();
+        Long bookId = livres.get(0).getId();
+        EntityManager emprunt = sessionFactory.createEntityManager();
+        EntityManager modification = sessionFactory.createEntityManager();
+        try {
+            emprunt.find(Book.class, bookId);
+
+            modification.getTransaction().begin();
+            modification.find(Book.class, bookId).setTitre("Titre corrigé");
+            modification.getTransaction().commit();
+
+            // Act
+            EntityTransaction transaction = emprunt.getTransaction();
+            transaction.begin();
+            int result = new EmpruntRepository(emprunt).majDisponibilite(bookId, false);
+            transaction.commit();
+
+            // Assert : seule la colonne disponible est écrite
+            assertEquals(1, result);
+            modification.clear();
+            sessionFactory.getCache().evict(Book.class, bookId);
+            Book relu = modification.find(Book.class, bookId);
+            assertEquals("Titre corrigé", relu.getTitre());
+            assertFalse(relu.getDisponible());
+        } finally {
+            remettreDisponible(emprunt, bookId);
+            emprunt.close();
+            modification.close();
+        }
+    }
+
+    private static void remettreDisponible(EntityManager em, Long bookId) {
+        em.clear();
+        em.getTransaction().begin();
+        new EmpruntRepository(em).majDisponibilite(bookId, true);
+        em.getTransaction().commit();
+    }
+
+    // Chaque thread emprunte un livre au hasard parmi LIVRES, puis le rend s'il l'a obtenu
+    private static void stresser(EmpruntManager empruntManager) throws Exception {
+        // Arrange : emprunteurs comptés côté test, décrémentés avant le retour (un nouvel emprunt ne peut réussir qu'après)
+        AtomicIntegerArray detenteurs = new AtomicIntegerArray(LIVRES);
+        AtomicInteger empruntsReussis = new AtomicInteger();
+        AtomicInteger dejaEmpruntes = new AtomicInteger();
+        AtomicInteger maxDetenteurs = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> resultats = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                User user = users.get(t);
+                resultats.add(executor.submit(() -> {
+                    depart.await();
+                    for (int i = 0; i < OPERATIONS_PAR_THREAD; i++) {
+                        int indice = ThreadLocalRandom.current().nextInt(LIVRES);
+                        Book book = livres.get(indice);
+                        try {
+                            empruntManager.emprunterLivre(user, book);
+                        } catch (IllegalArgumentException e) {
+                            dejaEmpruntes.incrementAndGet();
+                            continue;
+                        }
+                        empruntsReussis.incrementAndGet();
+                        maxDetenteurs.accumulateAndGet(detenteurs.incrementAndGet(indice), Math::max);
+                        detenteurs.decrementAndGet(indice);
+                        empruntManager.rendreLivre(book);
+                    }
+                    return null;
+                }));
+            }
+            depart.countDown();
+            for (Future<?> resultat : resultats) {
+                resultat.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertTrue(empruntsReussis.get() > 0);
+        assertTrue(dejaEmpruntes.get() > 0, "les threads doivent s'être disputé les livres");
+        assertEquals(1, maxDetenteurs.get());
+        assertEquals(0L, empruntsEnCoursEnDouble());
+        assertEquals(0L, empruntManager.verifierDisponibilites());
+        for (Book book : livres) {
+            assertTrue(empruntManager.getEmpruntEnCours(book).isEmpty());
+        }
+    }
+
+    @Test
+    void testIndexUnique_RefuseUnSecondEmpruntEnCoursHorsManager() {
+        // Arrange
+        Book book = livres.get(0);
+        Emprunt emprunt = empruntManager.emprunterLivre(users.get(0), book);
+
+        // Act : insertion directe, sans la vérification faite par le manager
+        RuntimeException erreur = assertThrows(RuntimeException.class, () -> uniteDeTravail.executer(() -> {
+            EntityManager em = uniteDeTravail.entityManager();
+            EntityTransaction transaction = em.getTransaction();
+            transaction.begin();
+            em.persist(new Emprunt(em.find(User.class, users.get(1).getId()), em.find(Book.class, book.getId()),
+                    LocalDate.now()));
+            em.flush();
+            transaction.commit();
+        }));
+
+        // Assert
+        try {
+            assertTrue(EmpruntManager.estConflit(erreur));
+            assertEquals(List.of(emprunt.getId()),
+                    empruntManager.listerEmpruntsParLivre(book.getId()).stream()
+                            .filter(e -> e.getEtat() == EtatEmprunt.EN_COURS).map(Emprunt::getId).toList());
+        } finally {
+            empruntManager.rendreLivre(book);
+        }
+    }
+
+    private static long empruntsEnCoursEnDouble() {
+        return uniteDeTravail.obtenir(() -> ((Number) uniteDeTravail.entityManager().createNativeQuery(
+                "SELECT COUNT(*) FROM (SELECT book_id FROM Emprunts WHERE etat = 'EN_COURS' "
+                        + "GROUP BY book_id HAVING COUNT(*) > 1)").getSingleResult()).longValue());
+    }
+}
@@ -1,15 +1,23 @@
 package fr.appsketch.Emprunt;
 
 import fr.appsketch.Book.Book;
+import fr.appsketch.Core.StatistiquesVerrous;
+import fr.appsketch.Core.UniteDeTravail;
+import fr.appsketch.Core.VerrousSegmentes;
 import fr.appsketch.User.User;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PessimisticLockException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -85,6 +94,8 @@ class EmpruntManagerTest {
         verify(transaction).begin();
         verify(transaction).commit();
         verify(empruntRepository).save(any(Emprunt.class));
+        verify(empruntRepository).majDisponibilite(1L, false);
+        assertTrue(book.isEmprunte());
         verify(entityManager).flush();
         verify(entityManager).clear();
     }
@@ -175,6 +186,8 @@ class EmpruntManagerTest {
         verify(transaction).begin();
         verify(transaction).commit();
         verify(empruntRepository).save(any(Emprunt.class));
+        verify(empruntRepository).majDisponibilite(book.getId(), true);
+        assertFalse(book.isEmprunte());
         verify(entityManager).flush();
         verify(entityManager).clear();
     }
@@ -435,4 +448,203 @@ class EmpruntManagerTest {
         assertTrue(result.isEmpty());
         verify(empruntRepository).findByBookId(bookId);
     }
+
+    @Test
+    void testVerifierDisponibilites() {
+        // Arrange
+        when(empruntRepository.countDisponibilitesIncoherentes()).thenReturn(4L);
+
+        // Act & Assert
+        assertEquals(4L, empruntManager.verifierDisponibilites());
+        verify(transaction, never()).begin();
+    }
+
+    @Test
+    void testInitialiserDisponibilites_AucunDrapeauAbsent_RienNEstEcrit() {
+        // Arrange
+        when(empruntRepository.existsDisponibiliteAbsente()).thenReturn(false);
+
+        // Act
+        int result = empruntManager.initialiserDisponibilites();
+
+        // Assert
+        assertEquals(0, result);
+        verify(empruntRepository, never()).recalculerDisponibilites();
+        verify(transaction, never()).begin();
+    }
+
+    @Test
+    void testInitialiserDisponibilites_DrapeauxAbsents_Recalcule() {
+        // Arrange
+        when(empruntRepository.existsDisponibiliteAbsente()).thenReturn(true);
+        when(empruntRepository.recalculerDisponibilites()).thenReturn(3);
+
+        // Act
+        int result = empruntManager.initialiserDisponibilites();
+
+        // Assert
+        assertEquals(3, result);
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testReconstruireDisponibilites_Success() {
+        // Arrange
+        when(empruntRepository.recalculerDisponibilites()).thenReturn(12);
+
+        // Act
+        int result = empruntManager.reconstruireDisponibilites();
+
+        // Assert
+        assertEquals(12, result);
+        verify(transaction).begin();
+        verify(transaction).commit();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void testReconstruireDisponibilites_Erreur_Rollback() {
+        // Arrange
+        when(empruntRepository.recalculerDisponibilites()).thenThrow(new RuntimeException("Erreur DB"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> empruntManager.reconstruireDisponibilites());
+        verify(transaction).rollback();
+        verify(transaction, never()).commit();
+    }
+
+    @Test
+    void testEmprunterLivre_ConflitConcurrent_Reessaie() {
+        // Arrange
+        User user = new User("Dupont", "Jean", "jean@test.com", "password");
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+        Emprunt emprunt = new Emprunt(user, book, LocalDate.now());
+
+        when(empruntRepository.findEmpruntsEnCoursByBook(book)).thenReturn(Collections.emptyList());
+        when(empruntRepository.save(any(Emprunt.class)))
+                .thenThrow(new PessimisticLockException("database is locked"))
+                .thenReturn(emprunt);
+
+        // Act
+        Emprunt result = empruntManager.emprunterLivre(user, book);
+
+        // Assert
+        assertSame(emprunt, result);
+        verify(transaction, times(2)).begin();
+        verify(transaction).rollback();
+        verify(transaction).commit();
+    }
+
+    @Test
+    void testEmprunterLivre_ConflitPersistant_AbandonApresTentativesMax() {
+        // Arrange
+        User user = new User("Dupont", "Jean", "jean@test.com", "password");
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+
+        when(empruntRepository.findEmpruntsEnCoursByBook(book)).thenReturn(Collections.emptyList());
+        when(empruntRepository.save(any(Emprunt.class))).thenThrow(new PessimisticLockException("database is locked"));
+
+        // Act & Assert
+        RuntimeException erreur = assertThrows(RuntimeException.class, () -> empruntManager.emprunterLivre(user, book));
+        assertEquals("Erreur lors de l'emprunt du livre", erreur.getMessage());
+        verify(transaction, times(EmpruntManager.TENTATIVES_MAX)).begin();
+        verify(transaction, never()).commit();
+    }
+
+    @Test
+    void testEmprunterLivre_ErreurHorsConflit_PasDeNouvelleTentative() {
+        // Arrange
+        User user = new User("Dupont", "Jean", "jean@test.com", "password");
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+
+        when(empruntRepository.findEmpruntsEnCoursByBook(book)).thenReturn(Collections.emptyList());
+        when(empruntRepository.save(any(Emprunt.class))).thenThrow(new RuntimeException("Erreur DB"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> empruntManager.emprunterLivre(user, book));
+        verify(transaction, times(1)).begin();
+    }
+
+    @Test
+    void testEstConflit_CodesSQLite() {
+        // Act & Assert
+        assertTrue(EmpruntManager.estConflit(new RuntimeException(
+                new SQLiteException("verrou", SQLiteErrorCode.SQLITE_BUSY_SNAPSHOT))));
+        assertTrue(EmpruntManager.estConflit(new RuntimeException(
+                new SQLiteException("index unique", SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE))));
+        assertFalse(EmpruntManager.estConflit(new RuntimeException(
+                new SQLiteException("clé étrangère", SQLiteErrorCode.SQLITE_CONSTRAINT_FOREIGNKEY))));
+        assertFalse(EmpruntManager.estConflit(new RuntimeException("Erreur DB")));
+    }
+
+    @Test
+    void testRendreLivre_LivreNonEmprunte_Rollback() {
+        // Arrange
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+        when(empruntRepository.findEmpruntsEnCoursByBook(book)).thenReturn(Collections.emptyList());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> empruntManager.rendreLivre(book));
+        verify(transaction).begin();
+        verify(transaction).rollback();
+        verify(empruntRepository, never()).majDisponibilite(any(), anyBoolean());
+    }
+
+    @Test
+    void testInitialiserUniciteEmpruntsEnCours_TermineLesDoublonsPuisCreeLIndex() {
+        // Arrange
+        when(empruntRepository.indexEmpruntEnCoursUniqueExiste()).thenReturn(false);
+        when(empruntRepository.terminerEmpruntsEnCoursEnDouble()).thenReturn(2);
+
+        // Act
+        int result = empruntManager.initialiserUniciteEmpruntsEnCours();
+
+        // Assert
+        assertEquals(2, result);
+        InOrder ordre = inOrder(empruntRepository, transaction);
+        ordre.verify(transaction).begin();
+        ordre.verify(empruntRepository).terminerEmpruntsEnCoursEnDouble();
+        ordre.verify(empruntRepository).creerIndexEmpruntEnCoursUnique();
+        ordre.verify(transaction).commit();
+    }
+
+    @Test
+    void testInitialiserUniciteEmpruntsEnCours_IndexDejaPresent() {
+        // Arrange
+        when(empruntRepository.indexEmpruntEnCoursUniqueExiste()).thenReturn(true);
+
+        // Act
+        int result = empruntManager.initialiserUniciteEmpruntsEnCours();
+
+        // Assert
+        assertEquals(0, result);
+        verify(transaction, never()).begin();
+        verify(empruntRepository, never()).creerIndexEmpruntEnCoursUnique();
+    }
+
+    @Test
+    void testEmprunterEtRendre_SousLeVerrouDuLivre() {
+        // Arrange
+        VerrousSegmentes verrous = new VerrousSegmentes(4, false, Duration.ofSeconds(1));
+        EmpruntManager manager = new EmpruntManager(empruntRepository, UniteDeTravail.partagee(entityManager), verrous);
+        User user = new User("Dupont", "Jean", "jean@test.com", "password");
+        Book book = new Book("Titre", "Auteur", LocalDate.now(), "123", "Cat");
+        book.setId(3L);
+        Emprunt emprunt = new Emprunt(user, book, LocalDate.now());
+
+        when(empruntRepository.findEmpruntsEnCoursByBook(book))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(emprunt));
+        when(empruntRepository.save(any(Emprunt.class))).thenReturn(emprunt);
+
+        // Act
+        manager.emprunterLivre(user, book);
+        manager.rendreLivre(book);
+
+        // Assert
+        StatistiquesVerrous statistiques = manager.getStatistiquesVerrous().orElseThrow();
+        assertEquals(2, statistiques.getAcquisitions());
+        assertEquals(0, statistiques.getExpirations());
+        assertTrue(empruntManager.getStatistiquesVerrous().isEmpty());
+    }
 }
@@ -3,6 +3,7 @@ package fr.appsketch.Emprunt;
 import fr.appsketch.Book.Book;
 import fr.appsketch.User.User;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +18,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,6 +36,12 @@ class EmpruntRepositoryTest {
     @Mock
     private TypedQuery<Emprunt> typedQuery;
 
+    @Mock
+    private TypedQuery<Long> longTypedQuery;
+
+    @Mock
+    private Query updateQuery;
+
     private EmpruntRepository empruntRepository;
 
     private User testUser;
@@ -281,6 +291,97 @@ class EmpruntRepositoryTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testMajDisponibilite_ShouldUpdateManagedBookWithoutBulkQuery() {
+        // Arrange
+        when(entityManager.find(Book.class, 1L)).thenReturn(testBook);
+
+        // Act
+        int result = empruntRepository.majDisponibilite(1L, false);
+
+        // Assert
+        assertEquals(1, result);
+        assertFalse(testBook.getDisponible());
+        verify(entityManager, never()).createQuery(anyString());
+    }
+
+    @Test
+    void testMajDisponibilite_BookNotFound_ShouldReturnZero() {
+        // Arrange
+        when(entityManager.find(Book.class, 99L)).thenReturn(null);
+
+        // Act & Assert
+        assertEquals(0, empruntRepository.majDisponibilite(99L, true));
+    }
+
+    @Test
+    void testCountDisponibilitesIncoherentes() {
+        // Arrange
+        when(entityManager.createQuery(startsWith("SELECT COUNT(b) FROM Book b WHERE b.disponible IS NULL"), eq(Long.class)))
+                .thenReturn(longTypedQuery);
+        when(longTypedQuery.setParameter("etat", EtatEmprunt.EN_COURS)).thenReturn(longTypedQuery);
+        when(longTypedQuery.getSingleResult()).thenReturn(3L);
+
+        // Act & Assert
+        assertEquals(3L, empruntRepository.countDisponibilitesIncoherentes());
+    }
+
+    @Test
+    void testExistsDisponibiliteAbsente_UneSeuleLigneLue() {
+        // Arrange
+        when(entityManager.createQuery("SELECT b.id FROM Book b WHERE b.disponible IS NULL", Long.class))
+                .thenReturn(longTypedQuery);
+        when(longTypedQuery.getResultList()).thenReturn(List.of(4L));
+
+        // Act & Assert
+        assertTrue(empruntRepository.existsDisponibiliteAbsente());
+        verify(longTypedQuery).setMaxResults(1);
+    }
+
+    @Test
+    void testRecalculerDisponibilites_CorrigeDansLesDeuxSens() {
+        // Arrange
+        Query versEmprunte = mock(Query.class);
+        Query versDisponible = mock(Query.class);
+        when(entityManager.createQuery(startsWith("UPDATE Book b SET b.disponible = false"))).thenReturn(versEmprunte);
+        when(entityManager.createQuery(startsWith("UPDATE Book b SET b.disponible = true"))).thenReturn(versDisponible);
+        when(versEmprunte.setParameter("etat", EtatEmprunt.EN_COURS)).thenReturn(versEmprunte);
+        when(versDisponible.setParameter("etat", EtatEmprunt.EN_COURS)).thenReturn(versDisponible);
+        when(versEmprunte.executeUpdate()).thenReturn(2);
+        when(versDisponible.executeUpdate()).thenReturn(5);
+
+        // Act
+        int result = empruntRepository.recalculerDisponibilites();
+
+        // Assert
+        assertEquals(7, result);
+    }
+
+    @Test
+    void testIndexEmpruntEnCoursUniqueExiste() {
+        // Arrange
+        when(entityManager.createNativeQuery(startsWith("SELECT COUNT(*) FROM sqlite_master"))).thenReturn(updateQuery);
+        when(updateQuery.getSingleResult()).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(empruntRepository.indexEmpruntEnCoursUniqueExiste());
+        verify(updateQuery).setParameter(1, EmpruntRepository.INDEX_EMPRUNT_EN_COURS);
+    }
+
+    @Test
+    void testCreerIndexEmpruntEnCoursUnique_IndexPartielSurLesEmpruntsEnCours() {
+        // Arrange
+        when(entityManager.createNativeQuery(anyString())).thenReturn(updateQuery);
+
+        // Act
+        empruntRepository.creerIndexEmpruntEnCoursUnique();
+
+        // Assert
+        verify(entityManager).createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS "
+                + EmpruntRepository.INDEX_EMPRUNT_EN_COURS + " ON Emprunts(book_id) WHERE etat = 'EN_COURS'");
+        verify(updateQuery).executeUpdate();
+    }
+
     @Test
     void testDeleteById_EmpruntExists_ShouldRemove() {
         // Arrange
@@ -1,5 +1,6 @@
 package fr.appsketch.User;
 
+import fr.appsketch.Core.CacheRecherche;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +9,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -260,6 +263,7 @@ class UserManagerTest {
         // Assert
         verify(transaction).begin();
         verify(transaction).commit();
+        verify(userRepository).libererLivresEmpruntesPar(id);
         verify(userRepository).deleteById(id);
         verify(entityManager).flush();
         verify(entityManager).clear();
@@ -545,4 +549,89 @@ class UserManagerTest {
         assertTrue(result.isEmpty());
         verify(userRepository, never()).findAll();
     }
+
+    private UserManager managerAvecCacheEmail(CacheRecherche cacheEmail) {
+        return new UserManager(userRepository, cacheEmail, entityManager);
+    }
+
+    @Test
+    void testEmailExiste_AvecCache_AbsenceGardee() {
+        // Arrange
+        UserManager manager = managerAvecCacheEmail(new CacheRecherche("email", 100, Duration.ofMinutes(10)));
+        when(userRepository.findIdByEmail("inconnu@example.com")).thenReturn(Optional.empty());
+
+        // Act
+        boolean premier = manager.emailExiste("inconnu@example.com");
+        boolean second = manager.emailExiste("inconnu@example.com");
+
+        // Assert
+        assertFalse(premier);
+        assertFalse(second);
+        verify(userRepository, times(1)).findIdByEmail("inconnu@example.com");
+        verify(userRepository, never()).existsByEmail(anyString());
+        assertEquals(0.5, manager.getStatistiquesCacheEmail().orElseThrow().getTauxSucces(), 1e-9);
+    }
+
+    @Test
+    void testAjouterUtilisateur_AvecCache_EnregistreLEmail() {
+        // Arrange
+        UserManager manager = managerAvecCacheEmail(new CacheRecherche("email", 100, Duration.ofMinutes(10)));
+        when(userRepository.findIdByEmail("jean@example.com")).thenReturn(Optional.empty());
+        assertFalse(manager.emailExiste("jean@example.com"));
+
+        when(userRepository.existsByEmail("jean@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(4L);
+            return user;
+        });
+
+        // Act
+        manager.ajouterUtilisateur("Dupont", "Jean", "jean@example.com", "secret");
+
+        // Assert
+        assertTrue(manager.emailExiste("jean@example.com"));
+        verify(userRepository, times(1)).findIdByEmail("jean@example.com");
+    }
+
+    @Test
+    void testModifierUtilisateur_AvecCache_DeplaceLEmail() {
+        // Arrange
+        CacheRecherche cacheEmail = new CacheRecherche("email", 100, Duration.ofMinutes(10));
+        cacheEmail.enregistrer("ancien@example.com", 1L);
+        UserManager manager = managerAvecCacheEmail(cacheEmail);
+        User user = new User("Dupont", "Jean", "ancien@example.com", "secret");
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmail("nouveau@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findIdByEmail("ancien@example.com")).thenReturn(Optional.empty());
+
+        // Act
+        manager.modifierUtilisateur(1L, null, null, "nouveau@example.com", null);
+
+        // Assert
+        assertFalse(manager.emailExiste("ancien@example.com"));
+        assertEquals(Optional.of(user), manager.rechercherParEmail("nouveau@example.com"));
+        verify(userRepository, never()).findIdByEmail("nouveau@example.com");
+    }
+
+    @Test
+    void testSupprimerUtilisateur_AvecCache_InvalideLEmail() {
+        // Arrange
+        CacheRecherche cacheEmail = new CacheRecherche("email", 100, Duration.ofMinutes(10));
+        cacheEmail.enregistrer("jean@example.com", 1L);
+        UserManager manager = managerAvecCacheEmail(cacheEmail);
+        User user = new User("Dupont", "Jean", "jean@example.com", "secret");
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findIdByEmail("jean@example.com")).thenReturn(Optional.empty());
+
+        // Act
+        manager.supprimerUtilisateur(1L);
+
+        // Assert
+        assertTrue(manager.rechercherParEmail("jean@example.com").isEmpty());
+        verify(userRepository).findIdByEmail("jean@example.com");
+    }
 }
@@ -1,6 +1,8 @@
 package fr.appsketch.User;
 
+import fr.appsketch.Emprunt.EtatEmprunt;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,8 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 /**
@@ -142,6 +146,24 @@ class UserRepositoryTest {
         verify(entityManager).createQuery("SELECT u FROM User u", User.class);
     }
 
+    @Test
+    void testFindIdByEmail_UserNotFound_ShouldReturnEmpty() {
+        // Arrange
+        String email = "inconnu@example.com";
+
+        when(entityManager.createQuery("SELECT u.id FROM User u WHERE u.email = :email", Long.class))
+                .thenReturn(longTypedQuery);
+        when(longTypedQuery.setParameter("email", email)).thenReturn(longTypedQuery);
+        when(longTypedQuery.getResultStream()).thenReturn(Stream.empty());
+
+        // Act
+        Optional<Long> result = userRepository.findIdByEmail(email);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(longTypedQuery).setParameter("email", email);
+    }
+
     @Test
     void testFindByEmail_UserExists_ShouldReturnUser() {
         // Arrange
@@ -218,6 +240,24 @@ class UserRepositoryTest {
         verify(longTypedQuery).setParameter("email", email);
     }
 
+    @Test
+    void testLibererLivresEmpruntesPar_ShouldMarkCurrentLoansAvailable() {
+        // Arrange
+        Query updateQuery = mock(Query.class);
+        when(entityManager.createQuery(startsWith("UPDATE Book b SET b.disponible = true WHERE EXISTS")))
+                .thenReturn(updateQuery);
+        when(updateQuery.setParameter(anyString(), any())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(2);
+
+        // Act
+        int result = userRepository.libererLivresEmpruntesPar(1L);
+
+        // Assert
+        assertEquals(2, result);
+        verify(updateQuery).setParameter("userId", 1L);
+        verify(updateQuery).setParameter("etat", EtatEmprunt.EN_COURS);
+    }
+
     @Test
     void testDeleteById_UserExists_ShouldRemove() {
         // Arrange